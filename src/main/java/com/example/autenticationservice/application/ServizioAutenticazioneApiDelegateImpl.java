@@ -1,8 +1,11 @@
 package com.example.autenticationservice.application;
 
 import com.example.autenticationservice.application.mapper.*;
-import com.example.autenticationservice.application.service.JwtServiceImpl;
-import com.example.autenticationservice.domain.model.GetUsernameResponse;
+import com.example.autenticationservice.application.jwt.AccessTokenApp;
+import com.example.autenticationservice.application.jwt.RefreshTokenApp;
+import com.example.autenticationservice.domain.model.GetUsernameAvailableResponse;
+import com.example.autenticationservice.domain.model.GetUsernameListResponse;
+import com.example.autenticationservice.domain.model.jwks.GetJwksResponse;
 import com.example.autenticationservice.domain.model.autentication.*;
 import com.example.autenticationservice.domain.model.register.StepRegisterRequest;
 import com.example.autenticationservice.domain.model.register.StepRegisterResponse;
@@ -15,21 +18,30 @@ import com.example.autenticationservice.domain.service.*;
 import com.example.autenticationService.generated.application.api.ServizioAutenticazioneApiDelegate;
 import com.example.autenticationService.generated.application.model.*;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.List;
 
+//Header e cookie dei token vengono letti qui, una volta per richiesta, e passati al dominio come semplici valori
+//I metodi del delegate generato da openapi non ricevono la richiesta: la si prende da RequestContextHolder,
+//che è lo stesso ThreadLocal usato dai proxy di request scope, ma senza un proxy per ogni getHeader/getCookies
+//Header e cookie di risposta vanno nella ResponseEntity invece che su un HttpServletResponse iniettato
 @RequiredArgsConstructor //creami costruttore con parametri richiesti (final) @Service
 @RestController
 public class ServizioAutenticazioneApiDelegateImpl implements ServizioAutenticazioneApiDelegate {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     private final AutenticationMappers autenticationMappers;
     private final AutenticationService autenticationService;
-    private final JwtServiceImpl jwtServiceImpl;
+    private final AccessTokenApp accessTokenApp;
+    private final RefreshTokenApp refreshTokenApp;
 
     @Override
     public ResponseEntity<Register200Response> register(RegisterRequest registerRequest){
@@ -54,12 +66,15 @@ public class ServizioAutenticazioneApiDelegateImpl implements ServizioAutenticaz
         SecondStepLoginRequest request = autenticationMappers.convertToDomain(verifyOTPRequest);
         SecondStepLoginResponse response = autenticationService.secondStepLogin(request);
 
-        //impostiamo l'accessToken nell'header (bearer token)
-        jwtServiceImpl.setAuthorizationHeader(response.getAccessToken());
-        jwtServiceImpl.generateRefreshCookie(response.getRefreshToken());
+        //impostiamo l'accessToken nell'header (bearer token) e il refresh token nel cookie
+        String authorizationHeader = "Bearer " + response.getAccessToken();
+        ResponseCookie refreshCookie = refreshTokenApp.generateCookie(response.getRefreshToken());
 
         VerifyOTP200Response convertedResponse = autenticationMappers.convertFromDomain(response);
-        return ResponseEntity.ok(convertedResponse);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AUTHORIZATION, authorizationHeader)
+                .header(HttpHeaders.SET_COOKIE, refreshCookie.toString())
+                .body(convertedResponse);
     }
 
     @Override
@@ -72,7 +87,8 @@ public class ServizioAutenticazioneApiDelegateImpl implements ServizioAutenticaz
 
     @Override
     public ResponseEntity<VerifyToken200Response>  verifyToken(){
-        VerifyTokenResponse response = autenticationService.verifyToken();
+        String accessToken = accessTokenApp.getAccessJwtFromHeader(currentRequest().getHeader(HttpHeaders.AUTHORIZATION));
+        VerifyTokenResponse response = autenticationService.verifyToken(accessToken);
         VerifyToken200Response convertedResponse = autenticationMappers.convertFromDomain(response);
         return ResponseEntity.ok(convertedResponse);
     }
@@ -80,20 +96,24 @@ public class ServizioAutenticazioneApiDelegateImpl implements ServizioAutenticaz
     @Override
     public ResponseEntity<RefreshToken200Response>  refreshToken(RefreshTokenRequest refreshTokenRequest){
         GetAccessTokenByRefreshTokenRequest request = autenticationMappers.convertToDomain(refreshTokenRequest);
-        GetAccessTokenByRefreshTokenResponse response = autenticationService.getNewAccessToken(request);
+        String refreshToken = refreshTokenApp.getJwtFromCookie(currentRequest());
+        GetAccessTokenByRefreshTokenResponse response = autenticationService.getNewAccessToken(request, refreshToken);
 
         //impostiamo l'accessToken nell'header (bearer token)
-        jwtServiceImpl.setAuthorizationHeader(response.getAccessToken());
+        String authorizationHeader = "Bearer " + response.getAccessToken();
 
         RefreshToken200Response convertedResponse = autenticationMappers.convertFromDomain(response);
-        return ResponseEntity.ok(convertedResponse);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AUTHORIZATION, authorizationHeader)
+                .body(convertedResponse);
     }
 
     @Override
     public ResponseEntity<Logout200Response> logout(){
-        LogoutResponse response = autenticationService.logout();
+        String refreshToken = refreshTokenApp.getJwtFromCookie(currentRequest());
+        LogoutResponse response = autenticationService.logout(refreshToken);
 
-        ResponseCookie cleanRefreshCookie = jwtServiceImpl.getCleanJwtCookie();
+        ResponseCookie cleanRefreshCookie = refreshTokenApp.getCleanJwtCookie();
 
         Logout200Response convertedResponse = autenticationMappers.convertFromDomain(response);
         return ResponseEntity.ok()
@@ -103,11 +123,33 @@ public class ServizioAutenticazioneApiDelegateImpl implements ServizioAutenticaz
     }
 
     @Override
-    public ResponseEntity<List<GetUsernameList200ResponseInner>> getUsernameList(){
-        List<GetUsernameResponse> response = autenticationService.getUsername();
-        List<GetUsernameList200ResponseInner> username = response.stream()
-                .map(autenticationMappers::convertFromDomain)
-                .toList();
-        return ResponseEntity.ok(username);
+    public ResponseEntity<List<GetUsernameList200ResponseInner>> getUsernameList(String after, Integer limit){
+        GetUsernameListResponse response = autenticationService.getUsername(after, limit);
+        List<GetUsernameList200ResponseInner> username = autenticationMappers.convertFromDomain(response.getUsernames());
+
+        //il cursore della pagina successiva va nell'header, il body resta la lista di username
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (response.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, response.getNextCursor());
+        }
+        return builder.body(username);
+    }
+
+    @Override
+    public ResponseEntity<GetUsernameAvailable200Response> getUsernameAvailable(String username, String email){
+        GetUsernameAvailableResponse response = autenticationService.getUsernameAvailable(username, email);
+        GetUsernameAvailable200Response convertedResponse = autenticationMappers.convertFromDomain(response);
+        return ResponseEntity.ok(convertedResponse);
+    }
+
+    @Override
+    public ResponseEntity<GetJwks200Response> getJwks(){
+        GetJwksResponse response = autenticationService.getJwks();
+        GetJwks200Response convertedResponse = autenticationMappers.convertFromDomain(response);
+        return ResponseEntity.ok(convertedResponse);
+    }
+
+    private HttpServletRequest currentRequest() {
+        return ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
     }
 }
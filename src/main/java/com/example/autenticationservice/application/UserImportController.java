@@ -0,0 +1,212 @@
+package com.example.autenticationservice.application;
+
+import com.example.autenticationservice.application.mapper.AutenticationMappers;
+import com.example.autenticationservice.domain.model.register.ImportUserResult;
+import com.example.autenticationservice.domain.model.register.ImportUserStatus;
+import com.example.autenticationservice.domain.model.register.StepRegisterRequest;
+import com.example.autenticationservice.domain.service.AutenticationService;
+import com.example.autenticationService.generated.application.model.RegisterRequest;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+//Import massivo di utenti per l'onboarding dei partner, fuori dallo swagger come l'export degli username
+//Il file è CSV (prima riga di intestazione con le colonne name, username, email, password in qualsiasi ordine) oppure
+//NDJSON (una riga {"name":...,"username":...,"email":...,"password":...} per utente)
+//Le righe sono registrate a blocchi di userImportBatchSize e l'esito di ogni riga (line, username, status, message)
+//viene scritto in NDJSON appena il suo blocco è finito: né il file né il report stanno interi in memoria
+//Ogni riga è letta nel RegisterRequest di /register e controllata qui: campi obbligatori, al massimo 255 caratteri
+//(le colonne di users) ed email ben formata. /register resta con le sue regole, questi controlli valgono solo per l'import
+//Le righe illeggibili o non valide sono riportate subito, quindi il report non è sempre nell'ordine del file: fa fede line
+//Attivo solo con spring.app.userImportEnabled=true
+@RestController
+@ConditionalOnProperty(name = "spring.app.userImportEnabled", havingValue = "true")
+@RequiredArgsConstructor
+@Log4j2
+public class UserImportController {
+    static final String CSV = "text/csv";
+
+    private static final ObjectReader REQUEST_READER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(RegisterRequest.class);
+    private static final ObjectWriter REPORT_WRITER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .writerFor(ReportLine.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_LENGTH = 255;
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private final AutenticationService autenticationService;
+    private final AutenticationMappers autenticationMappers;
+
+    @Value("${spring.app.userImportBatchSize:500}")
+    private int batchSize;
+
+    record ReportLine(long line, String username, ImportUserStatus status, String message) {}
+
+    @PostMapping(value = "/register/import", consumes = {CSV, UsernameExportController.NDJSON}, produces = UsernameExportController.NDJSON)
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean csv = request.getContentType() != null && request.getContentType().startsWith(CSV);
+        response.setContentType(UsernameExportController.NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8), BUFFER_SIZE);
+        OutputStream out = new BufferedOutputStream(response.getOutputStream(), BUFFER_SIZE);
+
+        Map<String, Integer> columns = null;
+        List<StepRegisterRequest> rows = new ArrayList<>(batchSize);
+        List<Long> lineNumbers = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        long imported = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (csv && columns == null) {
+                columns = csvHeader(line);
+                continue;
+            }
+
+            RegisterRequest row;
+            try {
+                row = csv ? csvRow(line, columns) : REQUEST_READER.readValue(line);
+            } catch (JsonProcessingException e) {
+                write(out, new ReportLine(lineNumber, null, ImportUserStatus.INVALID, "Invalid JSON"));
+                continue;
+            }
+            String violations = violations(row);
+            if (violations != null) {
+                write(out, new ReportLine(lineNumber, row.getUsername(), ImportUserStatus.INVALID, violations));
+                continue;
+            }
+            rows.add(autenticationMappers.convertToDomain(row));
+            lineNumbers.add(lineNumber);
+
+            if (rows.size() == batchSize) {
+                imported += importRows(rows, lineNumbers, out);
+                rows = new ArrayList<>(batchSize);
+                lineNumbers = new ArrayList<>(batchSize);
+            }
+        }
+        if (!rows.isEmpty()) {
+            imported += importRows(rows, lineNumbers, out);
+        }
+        out.flush();
+        log.info("Bulk import completed: {} users created out of {} lines", imported, lineNumber);
+    }
+
+    //registra un blocco e ne scrive subito gli esiti, così il client vede l'avanzamento
+    private int importRows(List<StepRegisterRequest> rows, List<Long> lineNumbers, OutputStream out) throws IOException {
+        List<ImportUserResult> results = autenticationService.importUsers(rows);
+        int created = 0;
+        for (int i = 0; i < results.size(); i++) {
+            ImportUserResult result = results.get(i);
+            if (result.getStatus() == ImportUserStatus.CREATED) {
+                created++;
+            }
+            write(out, new ReportLine(lineNumbers.get(i), result.getUsername(), result.getStatus(), result.getMessage()));
+        }
+        out.flush();
+        return created;
+    }
+
+    //vincoli violati in ordine di campo, es. "email: must be a well-formed email address", null se la riga è valida
+    static String violations(RegisterRequest row) {
+        List<String> violations = new ArrayList<>();
+        checkField(violations, "email", row.getEmail());
+        if (row.getEmail() != null && !row.getEmail().isBlank() && !EMAIL.matcher(row.getEmail()).matches()) {
+            violations.add("email: must be a well-formed email address");
+        }
+        checkField(violations, "name", row.getName());
+        checkField(violations, "password", row.getPassword());
+        checkField(violations, "username", row.getUsername());
+        return violations.isEmpty() ? null : String.join(", ", violations);
+    }
+
+    private static void checkField(List<String> violations, String field, String value) {
+        if (value == null || value.isBlank()) {
+            violations.add(field + ": must not be blank");
+        } else if (value.length() > MAX_LENGTH) {
+            violations.add(field + ": size must be at most " + MAX_LENGTH);
+        }
+    }
+
+    private void write(OutputStream out, ReportLine reportLine) throws IOException {
+        out.write(REPORT_WRITER.writeValueAsBytes(reportLine));
+        out.write('\n');
+    }
+
+    private Map<String, Integer> csvHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        return columns;
+    }
+
+    //colonne mancanti = campi null, la riga viene poi scartata come INVALID da violations
+    private RegisterRequest csvRow(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsv(line);
+        return new RegisterRequest()
+                .name(csvValue(values, columns, "name"))
+                .username(csvValue(values, columns, "username"))
+                .email(csvValue(values, columns, "email"))
+                .password(csvValue(values, columns, "password"));
+    }
+
+    private String csvValue(List<String> values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index != null && index < values.size() ? values.get(index) : null;
+    }
+
+    //CSV RFC 4180 su una sola riga: valori separati da virgola, tra doppi apici se contengono virgole ("" = apice)
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.autenticationservice.application;
+
+import com.example.autenticationservice.domain.service.AutenticationService;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+//Export completo degli username in NDJSON (una riga {"username":"..."} per utente) per i consumer notturni
+//Ogni username letto dal cursore JDBC viene scritto subito sulla risposta: la memoria usata non dipende dal numero di utenti
+//Fuori dallo swagger perché i metodi del delegate generato restituiscono il body intero in una ResponseEntity
+//Si scrive sul thread della richiesta, quindi senza il timeout delle richieste asincrone di StreamingResponseBody
+@RestController
+@RequiredArgsConstructor
+@Log4j2
+public class UsernameExportController {
+    static final String NDJSON = "application/x-ndjson";
+
+    private static final byte[] LINE_PREFIX = "{\"username\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LINE_SUFFIX = "\"}\n".getBytes(StandardCharsets.UTF_8);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AutenticationService autenticationService;
+
+    @GetMapping(value = "/username-list/export", produces = NDJSON)
+    public void exportUsernames(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        OutputStream out = new BufferedOutputStream(response.getOutputStream(), BUFFER_SIZE);
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        long[] count = {0};
+        try {
+            autenticationService.exportUsernames(username -> {
+                try {
+                    out.write(LINE_PREFIX);
+                    out.write(encoder.quoteAsUTF8(username));
+                    out.write(LINE_SUFFIX);
+                    count[0]++;
+                } catch (IOException e) {
+                    //client disconnesso: si interrompe la lettura e si chiude il cursore
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        log.debug("Exported {} usernames", count[0]);
+    }
+}
@@ -53,4 +53,14 @@ public class ApplicationExceptionHandler {
                 .status(403)
                 .body(ex.getMessage());
     }
+
+    //pool di hashing delle password saturo: il client può riprovare dopo Retry-After secondi
+    @ExceptionHandler({ServiceUnavailableException.class})
+    public ResponseEntity<Object> handleServiceUnavailableException(ServiceUnavailableException ex, WebRequest request) {
+        logError(ex, request);
+        return ResponseEntity
+                .status(503)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
 }
@@ -0,0 +1,53 @@
+package com.example.autenticationservice.application.filter;
+
+import com.example.autenticationservice.application.jwt.RefreshTokenApp;
+import com.example.autenticationservice.domain.exceptions.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+//Errori scritti dai filtri che rispondono senza DispatcherServlet (VerifyTokenFilter, RefreshTokenFilter):
+//stessi status, header e body di ApplicationExceptionHandler e AutenticationServiceExceptionHandler
+@Log4j2
+final class FilterErrorResponses {
+
+    private FilterErrorResponses() {
+    }
+
+    static void write(Throwable error, HttpServletRequest request, HttpServletResponse response, RefreshTokenApp refreshTokenApp) throws IOException {
+        log.error(
+                "An error happened while calling {} API: {}",
+                request.getRequestURI(),
+                error.getMessage(), error
+        );
+
+        if (error instanceof MissingTokenException) {
+            response.addHeader(HttpHeaders.SET_COOKIE, refreshTokenApp.getCleanJwtCookie().toString());
+            writeMessage(response, 401, error.getMessage());
+        } else if (error instanceof TokenExpiredException) {
+            writeMessage(response, 403, error.getMessage());
+        } else if (error instanceof ApplicationException) {
+            writeMessage(response, 401, error.getMessage());
+        } else if (error instanceof ServiceUnavailableException) {
+            response.addHeader(HttpHeaders.RETRY_AFTER, "1");
+            writeMessage(response, 503, error.getMessage());
+        } else if (error instanceof AutenticationServiceException) {
+            response.setStatus(422);
+        } else {
+            response.setStatus(500);
+        }
+    }
+
+    private static void writeMessage(HttpServletResponse response, int status, String message) throws IOException {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        response.setStatus(status);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.autenticationservice.application.filter;
+
+import com.example.autenticationservice.application.jwt.RefreshTokenApp;
+import com.example.autenticationservice.application.mapper.AutenticationMappers;
+import com.example.autenticationservice.domain.model.verifyToken.GetAccessTokenByRefreshTokenResponse;
+import com.example.autenticationservice.domain.service.AutenticationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+//Risponde a POST /token/refresh nella catena dei filtri in modo asincrono: startAsync restituisce subito il thread di Tomcat
+//e la risposta viene scritta da chi completa getNewAccessTokenReactive
+//Con spring.app.refreshTokenStore: r2dbc nessun thread resta fermo mentre si aspetta il database, con jpa la query gira su boundedElastic
+//Body e header come il controller (stesso mapper e stesso ObjectMapper), errori come FilterErrorResponses
+//Attivo solo con spring.app.refreshTokenFilterEnabled=true, le altre richieste passano alla catena senza costi
+@Component
+@ConditionalOnProperty(name = "spring.app.refreshTokenFilterEnabled", havingValue = "true")
+@RequiredArgsConstructor
+@Log4j2
+public class RefreshTokenFilter extends OncePerRequestFilter {
+    static final String REFRESH_TOKEN_PATH = "/token/refresh";
+
+    private final AutenticationService autenticationService;
+    private final AutenticationMappers autenticationMappers;
+    private final RefreshTokenApp refreshTokenApp;
+    private final ObjectMapper objectMapper;
+
+    @Value("${spring.app.refreshTokenFilterTimeoutMs:10000}")
+    private long timeoutMs;
+
+    @FunctionalInterface
+    private interface ResponseWriter {
+        void write() throws IOException;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !REFRESH_TOKEN_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) {
+        String refreshToken = refreshTokenApp.getJwtFromCookie(request);
+
+        //niente timeout del container: lo applica il Mono, così la risposta viene scritta una sola volta e sempre da qui
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(0);
+
+        autenticationService.getNewAccessTokenReactive(refreshToken)
+                .timeout(Duration.ofMillis(timeoutMs))
+                .subscribe(
+                        refreshResponse -> complete(asyncContext, () -> writeResponse(response, refreshResponse)),
+                        error -> complete(asyncContext, () -> FilterErrorResponses.write(error, request, response, refreshTokenApp)));
+    }
+
+    private void writeResponse(HttpServletResponse response, GetAccessTokenByRefreshTokenResponse refreshResponse) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(autenticationMappers.convertFromDomain(refreshResponse));
+        response.setStatus(200);
+        response.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + refreshResponse.getAccessToken());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void complete(AsyncContext asyncContext, ResponseWriter writer) {
+        try {
+            writer.write();
+        } catch (IOException e) {
+            log.error("Unable to write the {} response: {}", REFRESH_TOKEN_PATH, e.getMessage(), e);
+        } finally {
+            asyncContext.complete();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.autenticationservice.application.filter;
+
+import com.example.autenticationservice.application.jwt.AccessTokenApp;
+import com.example.autenticationservice.application.jwt.RefreshTokenApp;
+import com.example.autenticationservice.domain.exceptions.ApplicationException;
+import com.example.autenticationservice.domain.exceptions.AutenticationServiceException;
+import com.example.autenticationservice.domain.model.verifyToken.VerifyTokenResponse;
+import com.example.autenticationservice.domain.service.AutenticationService;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+//Risponde a POST /verify-token direttamente nella catena dei filtri, senza DispatcherServlet, MapStruct e Jackson:
+//estrae il Bearer token, lo verifica con AutenticationService (stessa cache e stesse eccezioni del controller)
+//e scrive {"username":"..."} con prefisso e suffisso già in byte
+//Gli errori hanno gli stessi status e body di ApplicationExceptionHandler e AutenticationServiceExceptionHandler (FilterErrorResponses)
+//Attivo solo con spring.app.verifyTokenFilterEnabled=true, le altre richieste passano alla catena senza costi
+@Component
+@ConditionalOnProperty(name = "spring.app.verifyTokenFilterEnabled", havingValue = "true")
+@RequiredArgsConstructor
+public class VerifyTokenFilter extends OncePerRequestFilter {
+    static final String VERIFY_TOKEN_PATH = "/verify-token";
+
+    private static final byte[] BODY_PREFIX = "{\"username\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BODY_SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final AutenticationService autenticationService;
+    private final AccessTokenApp accessTokenApp;
+    private final RefreshTokenApp refreshTokenApp;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !VERIFY_TOKEN_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String accessToken = accessTokenApp.getAccessJwtFromHeader(request.getHeader(HttpHeaders.AUTHORIZATION));
+
+        VerifyTokenResponse verifyTokenResponse;
+        try {
+            verifyTokenResponse = autenticationService.verifyToken(accessToken);
+        } catch (ApplicationException | AutenticationServiceException e) {
+            FilterErrorResponses.write(e, request, response, refreshTokenApp);
+            return;
+        }
+
+        byte[] username = JsonStringEncoder.getInstance().quoteAsUTF8(verifyTokenResponse.getUsername());
+        response.setStatus(200);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(BODY_PREFIX.length + username.length + BODY_SUFFIX.length);
+        response.getOutputStream().write(BODY_PREFIX);
+        response.getOutputStream().write(username);
+        response.getOutputStream().write(BODY_SUFFIX);
+    }
+}
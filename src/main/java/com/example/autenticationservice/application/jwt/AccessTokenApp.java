@@ -1,19 +1,12 @@
 package com.example.autenticationservice.application.jwt;
 
-import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+//Nessun HttpServletRequest iniettato: l'header arriva come valore dal controller, senza passare dal proxy di request scope
 @Component
-@RequiredArgsConstructor
 public class AccessTokenApp{
 
-    private final HttpServletRequest request;
-
-    public String getAccessJwtFromHeader() {
-        //Recupera il valore dell'header Authorization
-        String authorizationHeader = request.getHeader("Authorization");
-
+    public String getAccessJwtFromHeader(String authorizationHeader) {
         //Controlla se l'header è presente e inizia con "Bearer "
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             //rimuove la parola bearer restituisce solo il token
@@ -2,14 +2,12 @@ package com.example.autenticationservice.application.jwt;
 
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseCookie;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.WebUtils;
 
 @Component
-@RequiredArgsConstructor
 public class RefreshTokenApp {
 
     @Value("${spring.app.jwtRefreshCookieName}")
@@ -20,10 +18,8 @@ public class RefreshTokenApp {
 
     private final String path = "api/";
 
-    private final HttpServletRequest request;
-
-    //Recupera il JWT dal cookie HTTP della richiesta HttpServletRequest
-    public String getJwtFromCookie() {
+    //Recupera il JWT dal cookie HTTP della richiesta, passata dal controller (niente proxy di request scope)
+    public String getJwtFromCookie(HttpServletRequest request) {
         Cookie cookie = WebUtils.getCookie(request, jwtRefreshCookie);
         if (cookie != null) {
             return cookie.getValue();
@@ -1,6 +1,8 @@
 package com.example.autenticationservice.application.mapper;
 
+import com.example.autenticationservice.domain.model.GetUsernameAvailableResponse;
 import com.example.autenticationservice.domain.model.GetUsernameResponse;
+import com.example.autenticationservice.domain.model.jwks.GetJwksResponse;
 import com.example.autenticationservice.domain.model.autentication.*;
 import com.example.autenticationservice.domain.model.register.StepRegisterResponse;
 import com.example.autenticationservice.domain.model.verifyToken.GetAccessTokenByRefreshTokenRequest;
@@ -11,6 +13,8 @@ import com.example.autenticationservice.domain.model.verifyToken.VerifyTokenResp
 import com.example.autenticationService.generated.application.model.*;
 import org.mapstruct.Mapper;
 
+import java.util.List;
+
 @Mapper
 public interface AutenticationMappers {
 
@@ -44,5 +48,12 @@ public interface AutenticationMappers {
 
     //GET USERNAME LIST
     GetUsernameList200ResponseInner convertFromDomain(GetUsernameResponse response);
+    List<GetUsernameList200ResponseInner> convertFromDomain(List<GetUsernameResponse> response);
+
+    //USERNAME AVAILABLE
+    GetUsernameAvailable200Response convertFromDomain(GetUsernameAvailableResponse response);
+
+    //JWKS
+    GetJwks200Response convertFromDomain(GetJwksResponse response);
 
 }
@@ -0,0 +1,192 @@
+package com.example.autenticationservice.application.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+
+//Invio SMTP su connessioni già aperte e autenticate, riusate tra un blocco di email e l'altro
+//JavaMailSender.send (come faceva EmailServiceImpl) apre una sessione SMTP per ogni messaggio: connessione, STARTTLS, AUTH e QUIT
+//Qui al massimo smtpPoolSize connessioni, chiuse dopo smtpIdleTimeoutMs di inattività o dopo smtpMaxMessagesPerConnection
+//messaggi (i provider come Gmail limitano i messaggi per connessione)
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class PooledSmtpEmailSender {
+
+    private final JavaMailSenderImpl mailSender;
+
+    @Value("${spring.mail.sender}")
+    private String mailSenderAddress;
+
+    @Value("${spring.app.smtpPoolSize:4}")
+    private int poolSize;
+
+    @Value("${spring.app.smtpIdleTimeoutMs:60000}")
+    private long idleTimeoutMs;
+
+    @Value("${spring.app.smtpMaxMessagesPerConnection:100}")
+    private int maxMessagesPerConnection;
+
+    //connessioni libere, la più usata di recente in testa
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    //limita le connessioni aperte contemporaneamente a poolSize
+    private Semaphore permits;
+
+    private static final class PooledConnection {
+        private final Transport transport;
+        private int messagesSent;
+        private long lastUsed;
+
+        private PooledConnection(Transport transport) {
+            this.transport = transport;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(poolSize);
+    }
+
+    //Invia i messaggi in ordine su un'unica connessione del pool
+    //Restituisce gli errori per indice del messaggio, vuota se sono partiti tutti
+    public Map<Integer, Exception> sendAll(List<SimpleMailMessage> messages) {
+        Map<Integer, Exception> failures = new HashMap<>();
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failAll(messages, 0, e, failures);
+            return failures;
+        }
+
+        PooledConnection connection = null;
+        try {
+            for (int i = 0; i < messages.size(); i++) {
+                if (connection == null) {
+                    try {
+                        connection = borrow();
+                    } catch (MessagingException e) {
+                        //server non raggiungibile: inutile provare i messaggi rimanenti
+                        failAll(messages, i, e, failures);
+                        break;
+                    }
+                }
+                try {
+                    send(connection, messages.get(i));
+                } catch (MessagingException e) {
+                    failures.put(i, e);
+                    if (!connection.transport.isConnected()) {
+                        close(connection);
+                        connection = null;
+                    }
+                }
+                if (connection != null && connection.messagesSent >= maxMessagesPerConnection) {
+                    close(connection);
+                    connection = null;
+                }
+            }
+        } finally {
+            if (connection != null) {
+                connection.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(connection);
+            }
+            permits.release();
+        }
+        return failures;
+    }
+
+    //Chiude le connessioni libere da più di smtpIdleTimeoutMs, prima che sia il server a chiuderle
+    @Scheduled(fixedDelayString = "${spring.app.smtpIdleTimeoutMs:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection connection : idle) {
+            if (now - connection.lastUsed >= idleTimeoutMs && idle.remove(connection)) {
+                close(connection);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+
+    int idleConnections() {
+        return idle.size();
+    }
+
+    private PooledConnection borrow() throws MessagingException {
+        long now = System.currentTimeMillis();
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            if (now - connection.lastUsed < idleTimeoutMs && connection.transport.isConnected()) {
+                return connection;
+            }
+            close(connection);
+        }
+
+        Transport transport = mailSender.getSession().getTransport(transportProtocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        log.debug("Opened SMTP connection to {}", mailSender.getHost());
+        return new PooledConnection(transport);
+    }
+
+    //Stessa risoluzione di JavaMailSenderImpl: il protocollo impostato, altrimenti mail.transport.protocol della sessione, altrimenti smtp
+    //Da Spring 6 getProtocol() restituisce null se non è stato impostato esplicitamente
+    private String transportProtocol() {
+        String protocol = mailSender.getProtocol();
+        if (protocol == null) {
+            protocol = mailSender.getSession().getProperty("mail.transport.protocol");
+        }
+        return protocol != null ? protocol : JavaMailSenderImpl.DEFAULT_PROTOCOL;
+    }
+
+    private void send(PooledConnection connection, SimpleMailMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        SimpleMailMessage copy = new SimpleMailMessage(message);
+        if (copy.getFrom() == null) {
+            copy.setFrom(mailSenderAddress);
+        }
+        copy.copyTo(new MimeMailMessage(mimeMessage));
+        mimeMessage.saveChanges();
+        connection.transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+        connection.messagesSent++;
+    }
+
+    private void close(PooledConnection connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection", e);
+        }
+    }
+
+    private void failAll(List<SimpleMailMessage> messages, int from, Exception e, Map<Integer, Exception> failures) {
+        for (int i = from; i < messages.size(); i++) {
+            failures.put(i, e);
+        }
+    }
+}
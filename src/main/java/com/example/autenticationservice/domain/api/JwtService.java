@@ -1,9 +0,0 @@
-package com.example.autenticationservice.domain.api;
-
-public interface JwtService {
-
-    String extractAccessJwt();
-
-    String extractRefreshJwt();
-
-}
@@ -0,0 +1,36 @@
+package com.example.autenticationservice.domain.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Email da inviare, scritta nella stessa transazione del login e spedita in seguito da EmailOutboxDispatcher
+//Le email inviate vengono cancellate, quelle con i tentativi esauriti restano con stato DEAD
+//per emailOutboxDeadRetentionMs e poi le cancella ExpiredRowsSweeper
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "EmailOutbox", indexes = {
+        @Index(name = "IX_EMAIL_OUTBOX_DUE", columnList = "status, nextAttemptAt")
+})
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_outbox_id")
+    @SequenceGenerator(name = "email_outbox_id", sequenceName = "email_outbox_seq", allocationSize = 50)
+    private Integer id;
+    private String recipient;
+    private String subject;
+    private String body;
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private EmailOutboxStatus status;
+    private int attempts;
+    private long createdAt;
+    private long nextAttemptAt;
+    @Column(length = 1000)
+    private String lastError;
+}
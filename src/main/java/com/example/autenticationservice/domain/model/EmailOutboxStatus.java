@@ -0,0 +1,6 @@
+package com.example.autenticationservice.domain.model;
+
+public enum EmailOutboxStatus {
+    PENDING, //in attesa di invio o di un nuovo tentativo
+    DEAD //tentativi esauriti, resta in tabella per l'analisi
+}
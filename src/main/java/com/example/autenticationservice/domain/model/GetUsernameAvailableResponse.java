@@ -0,0 +1,16 @@
+package com.example.autenticationservice.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//emailAvailable null quando l'email non è stata chiesta
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class GetUsernameAvailableResponse {
+    private Boolean usernameAvailable;
+    private Boolean emailAvailable;
+}
@@ -0,0 +1,18 @@
+package com.example.autenticationservice.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+//Una pagina di username: nextCursor è l'ultimo username della pagina, null se non ce ne sono altri
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class GetUsernameListResponse {
+    private List<GetUsernameResponse> usernames;
+    private String nextCursor;
+}
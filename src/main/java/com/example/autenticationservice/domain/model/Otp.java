@@ -11,12 +11,17 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "Otp")
+@Table(name = "Otp", indexes = {
+        @Index(name = "IX_OTP_SESSION_VALID", columnList = "sessionId, valid"), //findOtpBySessionIdAndValidTrue
+        @Index(name = "IX_OTP_EXPIRES_AT", columnList = "expiresAt"), //findExpiredIds di ExpiredRowsSweeper
+        @Index(name = "IX_OTP_VALID_CREATED_AT", columnList = "valid, createdAt") //findInvalidatedIds di ExpiredRowsSweeper
+})
 public class Otp {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "otp_id")
+    @SequenceGenerator(name = "otp_id", sequenceName = "otp_seq", allocationSize = 50) //blocchi da 50 id, come hibernate.jdbc.batch_size
     private Integer id;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY) //la verifica dell'OTP non legge l'utente: niente join su Users a ogni lookup per sessionId
     @JoinColumn(name = "users_id", referencedColumnName = "id", nullable = false)
     private User user;
     private String otp;
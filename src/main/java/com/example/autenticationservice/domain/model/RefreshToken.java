@@ -13,15 +13,22 @@ import java.time.LocalDateTime;
 @AllArgsConstructor //costruttore con tutti i parametri
 @NoArgsConstructor //costruttore vuoto
 @Entity
-@Table(name = "RefreshToken")
+@Table(name = "RefreshToken", indexes = {
+        @Index(name = "UX_REFRESH_TOKEN_HASH", columnList = "refreshTokenHash", unique = true),
+        @Index(name = "IX_REFRESH_TOKEN_EXPIRE_DATE", columnList = "expireDate") //findPurgeableIds di ExpiredRowsSweeper
+})
 public class RefreshToken {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_token_id")
+    @SequenceGenerator(name = "refresh_token_id", sequenceName = "refresh_token_seq", allocationSize = 50)
     private Integer id;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY) //il refresh usa lo username dei claims, l'utente non serve
     @JoinColumn(name = "users_id", referencedColumnName = "id", nullable = false)
     private User user;
+    @Transient //il JWT completo non viene salvato, resta solo in memoria per restituirlo al client
     private String refreshToken;
+    @Column(length = 44) //SHA-256 in base64, lunghezza fissa
+    private String refreshTokenHash;
     private LocalDateTime createdAt;
     private LocalDateTime expireDate;
     private Boolean valid;
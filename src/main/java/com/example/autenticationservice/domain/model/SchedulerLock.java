@@ -0,0 +1,24 @@
+package com.example.autenticationservice.domain.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+//Lock condiviso tra le istanze per i job schedulati: una riga per job, chi la possiede fino a lockedUntil esegue il job
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "SchedulerLock")
+public class SchedulerLock {
+    @Id
+    @Column(length = 64)
+    private String name;
+    private LocalDateTime lockedUntil;
+    private String lockedBy;
+}
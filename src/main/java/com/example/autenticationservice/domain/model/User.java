@@ -14,12 +14,17 @@ import java.util.List;
 @NoArgsConstructor //costruttore vuoto
 @Entity
 @Table(name = "Users", uniqueConstraints = {
-        @UniqueConstraint(columnNames = "username"),
-        @UniqueConstraint(columnNames = "email")
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
 })
 public class User {
+    //nomi dei vincoli univoci, usati da UserServiceRepoImpl.register per capire quale credenziale è già presa
+    public static final String USERNAME_CONSTRAINT = "UX_USERS_USERNAME";
+    public static final String EMAIL_CONSTRAINT = "UX_USERS_EMAIL";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id")
+    @SequenceGenerator(name = "users_id", sequenceName = "users_seq", allocationSize = 50)
     private Integer id;
     private String name;
     private String username;
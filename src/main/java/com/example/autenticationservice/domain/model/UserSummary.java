@@ -0,0 +1,18 @@
+package com.example.autenticationservice.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Solo i campi di Users che servono a OTP e refresh token, tenuti nella cache di UserSummaryCache
+//L'ordine dei campi è quello del costruttore usato dalla query di UserRepository
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    private Integer id;
+    private String username;
+    private String email;
+}
@@ -0,0 +1,16 @@
+package com.example.autenticationservice.domain.model.jwks;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class GetJwksResponse {
+    private List<JsonWebKey> keys;
+}
@@ -0,0 +1,21 @@
+package com.example.autenticationservice.domain.model.jwks;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Chiave pubblica in formato JWK (RFC 7517), solo i campi necessari per le curve ellittiche
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class JsonWebKey {
+    private String kty;
+    private String crv;
+    private String x;
+    private String y;
+    private String kid;
+    private String use;
+    private String alg;
+}
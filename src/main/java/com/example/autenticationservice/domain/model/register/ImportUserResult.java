@@ -0,0 +1,17 @@
+package com.example.autenticationservice.domain.model.register;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Esito di una riga dell'import massivo, nello stesso ordine delle richieste
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportUserResult {
+    private String username;
+    private ImportUserStatus status;
+    private String message;
+}
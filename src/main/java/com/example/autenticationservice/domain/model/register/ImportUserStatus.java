@@ -0,0 +1,8 @@
+package com.example.autenticationservice.domain.model.register;
+
+public enum ImportUserStatus {
+    CREATED, //utente registrato
+    DUPLICATE, //username o email già presi, nel database o in una riga precedente del file
+    INVALID, //riga illeggibile o con campi mancanti
+    FAILED //non registrato per un errore temporaneo (es. pool di hashing saturo), si può ripetere
+}
@@ -0,0 +1,12 @@
+package com.example.autenticationservice.domain.model.verifyToken;
+
+import lombok.Builder;
+import lombok.Value;
+
+//Risultato immutabile di una verifica JWT (firma + scadenza) fatta con un solo parsing
+@Value
+@Builder
+public class VerifiedToken {
+    String username;
+    long expiresAt;
+}
@@ -1,11 +1,14 @@
 package com.example.autenticationservice.domain.repository;
 
 import com.example.autenticationservice.domain.model.RefreshToken;
+import reactor.core.publisher.Mono;
 
 import java.util.Optional;
 
 public interface RefreshTokenServiceRepo {
     void addRefreshToken(RefreshToken refreshToken);
     Optional<RefreshToken> getRefreshToken(String refreshToken);
+    //come getRefreshToken, senza bloccare chi chiama: usato dal refresh asincrono di RefreshTokenFilter
+    Mono<RefreshToken> findRefreshToken(String refreshToken);
     void invalidateRefreshToken(String refreshToken);
 }
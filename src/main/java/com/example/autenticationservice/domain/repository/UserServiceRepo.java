@@ -1,13 +1,27 @@
 package com.example.autenticationservice.domain.repository;
 
 import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.model.UserSummary;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserServiceRepo {
     Optional<User> getUserByUsername(String username);
-    Optional<User> getUserByUsernameAndPassword(String username, String password);
+    Optional<UserSummary> getUserSummaryByUsername(String username);
     void register(User user);
-    List<User> getUserList();
+    void registerAll(List<User> users);
+    Set<String> getTakenUsernames(Collection<String> usernames);
+    Set<String> getTakenEmails(Collection<String> emails);
+    void updatePassword(Integer id, String password);
+    long countLegacyPasswords();
+    long countUsers();
+    boolean isUsernameTaken(String username);
+    boolean isEmailTaken(String email);
+    List<String> getUsernames(String after, int limit);
+    void forEachUsername(Consumer<String> action);
+    void forEachEmail(Consumer<String> action);
 }
@@ -1,24 +1,36 @@
 package com.example.autenticationservice.domain.service;
 
-import com.example.autenticationservice.domain.model.GetUsernameResponse;
+import com.example.autenticationservice.domain.model.GetUsernameAvailableResponse;
+import com.example.autenticationservice.domain.model.GetUsernameListResponse;
+import com.example.autenticationservice.domain.model.jwks.GetJwksResponse;
 import com.example.autenticationservice.domain.model.autentication.*;
 import com.example.autenticationservice.domain.model.verifyToken.GetAccessTokenByRefreshTokenRequest;
 import com.example.autenticationservice.domain.model.verifyToken.GetAccessTokenByRefreshTokenResponse;
+import com.example.autenticationservice.domain.model.register.ImportUserResult;
 import com.example.autenticationservice.domain.model.register.StepRegisterRequest;
 import com.example.autenticationservice.domain.model.register.StepRegisterResponse;
 import com.example.autenticationservice.domain.model.verifyToken.VerifyTokenResponse;
 
+import reactor.core.publisher.Mono;
+
 import java.util.List;
+import java.util.function.Consumer;
+
 
 public interface AutenticationService {
 
     public StepRegisterResponse register(StepRegisterRequest stepRegisterRequest);
+    public List<ImportUserResult> importUsers(List<StepRegisterRequest> requests);
     public FirstStepLoginResponse firstStepLogin(FirstStepLoginRequest request);
     public SecondStepLoginResponse secondStepLogin(SecondStepLoginRequest request);
     public ResendOtpResponse resendOtp(ResendOtpRequest request);
-    public VerifyTokenResponse verifyToken();
-    public GetAccessTokenByRefreshTokenResponse getNewAccessToken(GetAccessTokenByRefreshTokenRequest request);
-    public LogoutResponse logout();
-    public List<GetUsernameResponse> getUsername();
+    public VerifyTokenResponse verifyToken(String accessToken);
+    public GetAccessTokenByRefreshTokenResponse getNewAccessToken(GetAccessTokenByRefreshTokenRequest request, String refreshToken);
+    public Mono<GetAccessTokenByRefreshTokenResponse> getNewAccessTokenReactive(String refreshToken);
+    public LogoutResponse logout(String refreshToken);
+    public GetUsernameListResponse getUsername(String after, Integer limit);
+    public void exportUsernames(Consumer<String> action);
+    public GetUsernameAvailableResponse getUsernameAvailable(String username, String email);
+    public GetJwksResponse getJwks();
 
 }
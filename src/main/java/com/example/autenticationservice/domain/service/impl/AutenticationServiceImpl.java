@@ -1,12 +1,16 @@
 package com.example.autenticationservice.domain.service.impl;
 
 import com.example.autenticationservice.domain.api.EmailService;
-import com.example.autenticationservice.domain.api.JwtService;
 import com.example.autenticationservice.domain.exceptions.*;
 import com.example.autenticationservice.domain.util.jwt.AccessTokenJwt;
 import com.example.autenticationservice.domain.util.jwt.RefreshTokenJwt;
+import com.example.autenticationservice.domain.model.GetUsernameAvailableResponse;
+import com.example.autenticationservice.domain.model.GetUsernameListResponse;
 import com.example.autenticationservice.domain.model.GetUsernameResponse;
+import com.example.autenticationservice.domain.model.jwks.GetJwksResponse;
 import com.example.autenticationservice.domain.model.autentication.*;
+import com.example.autenticationservice.domain.model.register.ImportUserResult;
+import com.example.autenticationservice.domain.model.register.ImportUserStatus;
 import com.example.autenticationservice.domain.model.register.StepRegisterResponse;
 import com.example.autenticationservice.domain.model.verifyToken.GetAccessTokenByRefreshTokenRequest;
 import com.example.autenticationservice.domain.model.verifyToken.GetAccessTokenByRefreshTokenResponse;
@@ -14,43 +18,56 @@ import com.example.autenticationservice.domain.model.Otp;
 import com.example.autenticationservice.domain.model.RefreshToken;
 import com.example.autenticationservice.domain.model.User;
 import com.example.autenticationservice.domain.model.register.StepRegisterRequest;
+import com.example.autenticationservice.domain.model.verifyToken.VerifiedToken;
 import com.example.autenticationservice.domain.model.verifyToken.VerifyTokenResponse;
 import com.example.autenticationservice.domain.service.*;
-import com.example.autenticationservice.domain.util.HashUtil;
 import com.example.autenticationservice.domain.util.OtpUtil;
+import com.example.autenticationservice.domain.util.PasswordHasher;
+import com.example.autenticationservice.domain.util.jwt.VerifiedTokenCache;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.micrometer.common.util.StringUtils;
 import lombok.AllArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 @AllArgsConstructor
 @Log4j2
 public class AutenticationServiceImpl implements AutenticationService {
+    //dimensione di default (senza limit) e massima di una pagina di /username-list, come nello swagger
+    private static final int USERNAME_PAGE_SIZE = 100;
+    private static final int USERNAME_PAGE_MAX_SIZE = 1000;
 
     private final EmailService emailService;
-    private final JwtService jwtService;
     private final UserService userService;
     private final OtpService otpService;
     private final TokenService tokenService;
     private final OtpUtil otpUtil;
-    private final HashUtil hashUtil;
+    private final PasswordHasher passwordHasher;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TransactionOperations transactionOperations;
 
 
     @Override
     public StepRegisterResponse register(StepRegisterRequest stepRegisterRequest) {
-        String passwordSha1 = hashUtil.stringToSha1(stepRegisterRequest.getPassword());
+        String passwordHash = passwordHasher.hash(stepRegisterRequest.getPassword());
         User newUser = User.builder()
                 .name(stepRegisterRequest.getName())
                 .username(stepRegisterRequest.getUsername())
                 .email(stepRegisterRequest.getEmail())
-                .password(passwordSha1)
+                .password(passwordHash)
                 .otpList(new ArrayList<>())
                 .build();
 
@@ -61,22 +78,133 @@ public class AutenticationServiceImpl implements AutenticationService {
                 .build();
     }
 
+    //import massivo di un blocco di righe, risultati nello stesso ordine delle richieste
+    //duplicati con due query per blocco, hash in parallelo sul pool di PasswordHasher, INSERT a batch in una transazione
+    //senza @Transactional: l'hash, la parte lenta, non tiene occupata una connessione
+    @Override
+    public List<ImportUserResult> importUsers(List<StepRegisterRequest> requests) {
+        ImportUserResult[] results = new ImportUserResult[requests.size()];
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            StepRegisterRequest request = requests.get(i);
+            String missingField = missingField(request);
+            if (missingField != null) {
+                results[i] = importResult(request, ImportUserStatus.INVALID, "Missing " + missingField);
+            } else if (usernames.contains(request.getUsername())) {
+                results[i] = importResult(request, ImportUserStatus.DUPLICATE, "Username is already taken");
+            } else if (emails.contains(request.getEmail())) {
+                results[i] = importResult(request, ImportUserStatus.DUPLICATE, "Email is already taken");
+            } else {
+                usernames.add(request.getUsername());
+                emails.add(request.getEmail());
+                candidates.add(i);
+            }
+        }
+
+        Set<String> takenUsernames = userService.getTakenUsernames(usernames);
+        Set<String> takenEmails = userService.getTakenEmails(emails);
+        List<Integer> accepted = new ArrayList<>(candidates.size());
+        for (int i : candidates) {
+            StepRegisterRequest request = requests.get(i);
+            if (takenUsernames.contains(request.getUsername())) {
+                results[i] = importResult(request, ImportUserStatus.DUPLICATE, "Username is already taken");
+            } else if (takenEmails.contains(request.getEmail())) {
+                results[i] = importResult(request, ImportUserStatus.DUPLICATE, "Email is already taken");
+            } else {
+                accepted.add(i);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        List<String> passwordHashes;
+        try {
+            passwordHashes = passwordHasher.hashAll(accepted.stream().map(i -> requests.get(i).getPassword()).toList());
+        } catch (ServiceUnavailableException e) {
+            for (int i : accepted) {
+                results[i] = importResult(requests.get(i), ImportUserStatus.FAILED, e.getMessage());
+            }
+            return Arrays.asList(results);
+        }
+
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int j = 0; j < accepted.size(); j++) {
+            StepRegisterRequest request = requests.get(accepted.get(j));
+            users.add(User.builder()
+                    .name(request.getName())
+                    .username(request.getUsername())
+                    .email(request.getEmail())
+                    .password(passwordHashes.get(j))
+                    .otpList(new ArrayList<>())
+                    .build());
+        }
+
+        try {
+            userService.registerAll(users);
+            for (int i : accepted) {
+                results[i] = importResult(requests.get(i), ImportUserStatus.CREATED, "Registration completed");
+            }
+        } catch (CredentialTakenException e) {
+            //registrazione concorrente tra il controllo e l'INSERT: si riprova riga per riga per sapere quale
+            log.warn("Bulk insert of {} users rolled back ({}), retrying one by one", users.size(), e.getMessage());
+            for (int j = 0; j < accepted.size(); j++) {
+                int i = accepted.get(j);
+                try {
+                    userService.register(users.get(j).toBuilder().id(null).build());
+                    results[i] = importResult(requests.get(i), ImportUserStatus.CREATED, "Registration completed");
+                } catch (CredentialTakenException taken) {
+                    results[i] = importResult(requests.get(i), ImportUserStatus.DUPLICATE, taken.getMessage());
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private String missingField(StepRegisterRequest request) {
+        if (StringUtils.isBlank(request.getName())) {
+            return "name";
+        }
+        if (StringUtils.isBlank(request.getUsername())) {
+            return "username";
+        }
+        if (StringUtils.isBlank(request.getEmail())) {
+            return "email";
+        }
+        if (StringUtils.isBlank(request.getPassword())) {
+            return "password";
+        }
+        return null;
+    }
+
+    private ImportUserResult importResult(StepRegisterRequest request, ImportUserStatus status, String message) {
+        return ImportUserResult.builder()
+                .username(request.getUsername())
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    //senza @Transactional: lettura dell'utente e verifica PBKDF2 avvengono fuori da qualsiasi transazione
+    //la transazione copre solo le scritture, OTP e riga di EmailOutbox, che devono andare a db insieme
     @Override
-    @Transactional
     public FirstStepLoginResponse firstStepLogin(FirstStepLoginRequest firstStepLoginRequest) {
         String username = firstStepLoginRequest.getUsername();
-        //String password = firstStepLoginRequest.getPassword();
-        String passwordSha1 = hashUtil.stringToSha1(firstStepLoginRequest.getPassword());
+        String password = firstStepLoginRequest.getPassword();
 
         String sessionId = UUID.randomUUID().toString(); //UUID
 
-        User user = userService.getUserByUsernameAndPassword(username, passwordSha1);
+        User user = userService.getUserByUsernameAndPassword(username, password);
 
         Otp otp = otpUtil.generateOtp(user, sessionId);
 
-        otpService.saveOtp(otp);
-
-        emailService.sendEmail(user.getEmail(), "Chat4Me - OTP code", otp.getOtp());
+        transactionOperations.execute(status -> {
+            otpService.saveOtp(otp);
+            emailService.sendEmail(user.getEmail(), "Chat4Me - OTP code", otp.getOtp());
+            return otp;
+        });
 
         log.info("OTP generated {} and sent to: {}", otp.getOtp(), user.getEmail());
 
@@ -147,7 +275,7 @@ public class AutenticationServiceImpl implements AutenticationService {
         Otp newOtp = otpUtil.generateOtp(user, sessionId);
         otpService.saveOtp(newOtp);
 
-        String emailReceiver = newOtp.getUser().getEmail();
+        String emailReceiver = user.getEmail(); //l'utente già caricato, Otp.user è LAZY
         String emailSubject = "Chat4Me - OTP code";
         emailService.sendEmail(emailReceiver, emailSubject, newOtp.getOtp());
 
@@ -159,10 +287,7 @@ public class AutenticationServiceImpl implements AutenticationService {
     }
 
     @Override
-    public VerifyTokenResponse verifyToken() {
-        //voglio recuperarel 'access token
-        String accessToken = jwtService.extractAccessJwt();
-
+    public VerifyTokenResponse verifyToken(String accessToken) {
 //        if (accessToken == null || accessToken.isEmpty()) { isBlank sostituisce questo
         if(StringUtils.isBlank(accessToken)){
             log.error("Missing Access token");
@@ -171,15 +296,27 @@ public class AutenticationServiceImpl implements AutenticationService {
 
         log.debug("Access token: {}", accessToken);
 
+        //se il token è già stato verificato e non è scaduto evitiamo il parsing e la verifica della firma
+        Optional<VerifiedToken> cachedToken = verifiedTokenCache.get(accessToken);
+        if(cachedToken.isPresent()){
+            log.debug("Username from cached accessToken: {}", cachedToken.get().getUsername());
+            return VerifyTokenResponse.builder()
+                    .username(cachedToken.get().getUsername())
+                    .build();
+        }
+
+        //un solo parsing: firma, scadenza e username verificati insieme
+        VerifiedToken verifiedToken;
         try {
-//            refreshTokenJwt.validateToken(accessToken);
-            tokenService.validateRefreshToken(accessToken);
+            verifiedToken = tokenService.verifyAccessToken(accessToken)
+                    .orElseThrow(() -> new InvalidCredentialsException("Invalid access token"));
         } catch (ExpiredJwtException e) {
             log.error("Access token expired, attempting to obtain a new one via refresh token");
             throw new TokenExpiredException("Access token expired, attempting to obtain a new one via refresh token");
         }
+        verifiedTokenCache.put(accessToken, verifiedToken);
 
-        String username = tokenService.getUsernameFromToken(accessToken);
+        String username = verifiedToken.getUsername();
         log.debug("Username from accessToken: {}", username);
 
         return VerifyTokenResponse.builder()
@@ -188,23 +325,57 @@ public class AutenticationServiceImpl implements AutenticationService {
     }
 
     @Override
-    public GetAccessTokenByRefreshTokenResponse getNewAccessToken(GetAccessTokenByRefreshTokenRequest firstStepRequest) {
-        String refreshTokenString = jwtService.extractRefreshJwt();
+    public GetAccessTokenByRefreshTokenResponse getNewAccessToken(GetAccessTokenByRefreshTokenRequest firstStepRequest, String refreshTokenString) {
+        VerifiedToken verifiedToken = verifyRefreshToken(refreshTokenString);
+
+        //il token deve esistere a db ed essere ancora valido: le revoche di tutti i nodi sono solo lì
+        checkRefreshTokenValid(tokenService.getRefreshToken(refreshTokenString));
+
+        return newAccessToken(verifiedToken);
+    }
+
+    //stessi controlli di getNewAccessToken, con la lettura a db non bloccante (RefreshTokenFilter)
+    //gli errori arrivano come errori del Mono, con le stesse eccezioni
+    @Override
+    public Mono<GetAccessTokenByRefreshTokenResponse> getNewAccessTokenReactive(String refreshTokenString) {
+        return Mono.fromCallable(() -> verifyRefreshToken(refreshTokenString))
+                .flatMap(verifiedToken -> tokenService.findRefreshToken(refreshTokenString)
+                        .map(refreshToken -> {
+                            checkRefreshTokenValid(refreshToken);
+                            return newAccessToken(verifiedToken);
+                        }));
+    }
 
+    //firma e scadenza del JWT, senza query: la revoca la controlla checkRefreshTokenValid sulla riga letta a db
+    private VerifiedToken verifyRefreshToken(String refreshTokenString) {
         if(StringUtils.isBlank(refreshTokenString)){
             log.error("Missing Refresh token");
             throw new MissingTokenException("Missing refresh token, please Login");
         }
 
-        RefreshToken refreshToken = tokenService.getRefreshToken(refreshTokenString);
         log.debug("Refresh token: {}", refreshTokenString);
 
-        if (!tokenService.validateRefreshToken(refreshTokenString)) {
-                log.error("Refresh token not valid");
-                throw new MissingTokenException("Missing refresh token, please Login");
+        VerifiedToken verifiedToken;
+        try {
+            verifiedToken = tokenService.verifyRefreshToken(refreshTokenString)
+                    .orElseThrow(() -> new MissingTokenException("Missing refresh token, please Login"));
+        } catch (ExpiredJwtException e) {
+            log.error("Refresh token expired");
+            throw new MissingTokenException("Missing refresh token, please Login");
+        }
+        return verifiedToken;
+    }
+
+    private void checkRefreshTokenValid(RefreshToken refreshToken) {
+        if (!Boolean.TRUE.equals(refreshToken.getValid())) {
+            log.error("Refresh token revoked");
+            throw new MissingTokenException("Missing refresh token, please Login");
         }
+    }
 
-        String username = refreshToken.getUser().getUsername();
+    private GetAccessTokenByRefreshTokenResponse newAccessToken(VerifiedToken verifiedToken) {
+        //username preso dai claims già verificati, senza navigare refreshToken.getUser()
+        String username = verifiedToken.getUsername();
 
         String accessToken = tokenService.generateAccessToken(username);
         log.info("Access Token: {}", accessToken);
@@ -216,9 +387,8 @@ public class AutenticationServiceImpl implements AutenticationService {
     }
 
     @Override
-    public LogoutResponse logout() {
-        String refreshTokenString = jwtService.extractRefreshJwt();
-
+    public LogoutResponse logout(String refreshTokenString) {
+        //l'Access Token non viene revocato: resta valido fino alla scadenza e lo scarta il client
 //        if (!(refreshTokenString == null || refreshTokenString.isEmpty())) {
         if(!StringUtils.isBlank(refreshTokenString)){
             tokenService.invalidateRefreshToken(refreshTokenString);
@@ -231,15 +401,46 @@ public class AutenticationServiceImpl implements AutenticationService {
     }
 
     @Override
-    public List<GetUsernameResponse> getUsername() {
-        List<User> usernameList = userService.getUserList();
-        //prende l'oggetto user e ne ricava solo l'username e l'idUtente
-        List<GetUsernameResponse> responseList = usernameList.stream()
-                .map(user -> GetUsernameResponse.builder()
-                        .username(user.getUsername())
+    public GetUsernameListResponse getUsername(String after, Integer limit) {
+        //anche senza parametri solo la prima pagina: la lista completa si legge in streaming da /username-list/export
+        int pageSize = limit == null ? USERNAME_PAGE_SIZE : Math.max(1, Math.min(limit, USERNAME_PAGE_MAX_SIZE));
+
+        //si legge un username in più per sapere se esiste una pagina successiva
+        List<String> usernameList = userService.getUsernames(after, pageSize + 1);
+        boolean hasNext = usernameList.size() > pageSize;
+        List<String> page = hasNext ? usernameList.subList(0, pageSize) : usernameList;
+
+        List<GetUsernameResponse> responseList = page.stream()
+                .map(username -> GetUsernameResponse.builder()
+                        .username(username)
                         .build())
                 .toList();
 
-        return responseList;
+        return GetUsernameListResponse.builder()
+                .usernames(responseList)
+                .nextCursor(hasNext ? page.get(page.size() - 1) : null)
+                .build();
+    }
+
+    //tutti gli username, uno alla volta: chi li riceve li scrive subito senza accumularli
+    @Override
+    public void exportUsernames(Consumer<String> action) {
+        userService.forEachUsername(action);
+    }
+
+    //chiamato ad ogni tasto dal form di registrazione: la risposta "libero" non passa dal database
+    @Override
+    public GetUsernameAvailableResponse getUsernameAvailable(String username, String email) {
+        return GetUsernameAvailableResponse.builder()
+                .usernameAvailable(!userService.isUsernameTaken(username))
+                .emailAvailable(email == null ? null : !userService.isEmailTaken(email))
+                .build();
+    }
+
+    @Override
+    public GetJwksResponse getJwks() {
+        return GetJwksResponse.builder()
+                .keys(tokenService.getPublicJsonWebKeys())
+                .build();
     }
 }
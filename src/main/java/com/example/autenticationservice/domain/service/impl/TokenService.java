@@ -3,15 +3,21 @@ package com.example.autenticationservice.domain.service.impl;
 import com.example.autenticationservice.domain.exceptions.MissingTokenException;
 import com.example.autenticationservice.domain.model.RefreshToken;
 import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.model.jwks.JsonWebKey;
+import com.example.autenticationservice.domain.model.verifyToken.VerifiedToken;
 import com.example.autenticationservice.domain.repository.RefreshTokenServiceRepo;
 import com.example.autenticationservice.domain.util.jwt.AccessTokenJwt;
+import com.example.autenticationservice.domain.util.jwt.JwtKeyProvider;
 import com.example.autenticationservice.domain.util.jwt.RefreshTokenJwt;
 import lombok.AllArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 @Service
 @AllArgsConstructor
@@ -20,6 +26,7 @@ public class TokenService {
     private final AccessTokenJwt  accessTokenJwt;
     private final RefreshTokenJwt refreshTokenJwt;
     private final RefreshTokenServiceRepo refreshTokenServiceRepo;
+    private final JwtKeyProvider jwtKeyProvider;
 
     //lato refreshToken
     public void addRefreshToken(RefreshToken refreshToken) {
@@ -29,7 +36,7 @@ public class TokenService {
     public RefreshToken generateRefreshToken(User user) {
         String refreshToken = refreshTokenJwt.generateToken(user.getUsername());
         int maxAgeInt = refreshTokenJwt.getExpirationDate();
-        Duration maxAge = Duration.ofSeconds(maxAgeInt);
+        Duration maxAge = Duration.ofMillis(maxAgeInt); //jwtRefreshExpirations è in millisecondi, expireDate deve coincidere con la scadenza del JWT
 
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime expiresAt = now.plus(maxAge);
@@ -48,12 +55,18 @@ public class TokenService {
                 .orElseThrow(() -> new MissingTokenException("Missing refresh token, please Login"));
     }
 
+    //come getRefreshToken, senza bloccare: il token mancante arriva come errore del Mono
+    public Mono<RefreshToken> findRefreshToken(String refreshTokenString) {
+        return refreshTokenServiceRepo.findRefreshToken(refreshTokenString)
+                .switchIfEmpty(Mono.error(() -> new MissingTokenException("Missing refresh token, please Login")));
+    }
+
     public void invalidateRefreshToken(String refreshTokenString) {
         refreshTokenServiceRepo.invalidateRefreshToken(refreshTokenString);
     }
 
-    public boolean validateRefreshToken(String token) {
-        return refreshTokenJwt.validateToken(token);
+    public Optional<VerifiedToken> verifyRefreshToken(String token) {
+        return refreshTokenJwt.verify(token);
     }
 
     //lato accessToken
@@ -61,7 +74,12 @@ public class TokenService {
         return accessTokenJwt.generateToken(username);
     }
 
-    public String getUsernameFromToken(String token){
-        return accessTokenJwt.getUsernameFromToken(token);
+    public Optional<VerifiedToken> verifyAccessToken(String token) {
+        return accessTokenJwt.verify(token);
+    }
+
+    //chiavi pubbliche con cui i servizi esterni verificano localmente gli access token
+    public List<JsonWebKey> getPublicJsonWebKeys() {
+        return jwtKeyProvider.getPublicJsonWebKeys();
     }
 }
@@ -2,34 +2,108 @@ package com.example.autenticationservice.domain.service.impl;
 
 import com.example.autenticationservice.domain.repository.UserServiceRepo;
 import com.example.autenticationservice.domain.exceptions.InvalidCredentialsException;
+import com.example.autenticationservice.domain.exceptions.ServiceUnavailableException;
 import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.model.UserSummary;
+import com.example.autenticationservice.domain.util.PasswordHasher;
+import com.example.autenticationservice.domain.util.TakenCredentialFilter;
+import com.example.autenticationservice.domain.util.UserSummaryCache;
 import lombok.AllArgsConstructor;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 @AllArgsConstructor
+@Log4j2
 public class UserService {
 
     private final UserServiceRepo userServiceRepo;
+    private final PasswordHasher passwordHasher;
+    private final TakenCredentialFilter takenCredentialFilter;
+    private final UserSummaryCache userSummaryCache;
 
     public void register(User user) { //?!
         userServiceRepo.register(user);
+        userSummaryCache.invalidate(user.getUsername());
+        takenCredentialFilter.add(user.getUsername(), user.getEmail());
     }
 
+    public void registerAll(List<User> users) {
+        userServiceRepo.registerAll(users);
+        users.forEach(user -> {
+            userSummaryCache.invalidate(user.getUsername());
+            takenCredentialFilter.add(user.getUsername(), user.getEmail());
+        });
+    }
+
+    public boolean isUsernameTaken(String username) {
+        return takenCredentialFilter.isUsernameTaken(username);
+    }
+
+    public boolean isEmailTaken(String email) {
+        return takenCredentialFilter.isEmailTaken(email);
+    }
+
+    public Set<String> getTakenUsernames(Collection<String> usernames) {
+        return userServiceRepo.getTakenUsernames(usernames);
+    }
+
+    public Set<String> getTakenEmails(Collection<String> emails) {
+        return userServiceRepo.getTakenEmails(emails);
+    }
+
+    //per secondStepLogin e resendOtp: utente ridotto (id, username, email) da UserSummaryCache, senza password né liste
+    //basta come riferimento per la FK di Otp e RefreshToken (ha l'id, quindi JPA non lo considera nuovo) e per l'email
     public User getUserByUsername(String username) {
-        return userServiceRepo.getUserByUsername(username)
+        UserSummary summary = userSummaryCache.get(username, userServiceRepo::getUserSummaryByUsername)
                 .orElseThrow(() -> new InvalidCredentialsException("Invalid credentials"));
+        return User.builder()
+                .id(summary.getId())
+                .username(summary.getUsername())
+                .email(summary.getEmail())
+                .build();
     }
 
+    //l'hash salvato ha un salt casuale: si legge l'utente per username e si verifica la password in memoria
+    //anche per username inesistenti si calcola un hash, così il tempo di risposta non rivela quali esistono
     public User getUserByUsernameAndPassword(String username, String password) {
-        return userServiceRepo.getUserByUsernameAndPassword(username, password)
-                .orElseThrow(() -> new InvalidCredentialsException("Invalid credentials"));
+        Optional<User> user = userServiceRepo.getUserByUsername(username);
+        boolean passwordMatches = passwordHasher.matches(password, user.map(User::getPassword).orElse(null));
+        if (user.isEmpty() || !passwordMatches) {
+            throw new InvalidCredentialsException("Invalid credentials");
+        }
+        rehashIfNeeded(user.get(), password);
+        return user.get();
+    }
+
+    //la password in chiaro è disponibile solo qui: se l'hash salvato è SHA-1 o ha parametri vecchi lo si ricalcola
+    //l'hash si calcola fuori da transazioni, poi un solo UPDATE per id nella transazione breve di updatePassword
+    //l'entità letta non viene toccata: con open-in-view è ancora gestita e un setPassword produrrebbe un secondo UPDATE
+    //se il pool di hashing è saturo il login va avanti lo stesso, si riproverà al login successivo
+    private void rehashIfNeeded(User user, String password) {
+        if (!passwordHasher.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            String passwordHash = passwordHasher.hash(password);
+            userServiceRepo.updatePassword(user.getId(), passwordHash);
+            log.info("Password of user {} rehashed", user.getId());
+        } catch (ServiceUnavailableException e) {
+            log.warn("Password rehash of user {} postponed: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    public List<String> getUsernames(String after, int limit){
+        return userServiceRepo.getUsernames(after, limit);
     }
 
-    public List<User> getUserList(){
-        return userServiceRepo.getUserList();
+    public void forEachUsername(Consumer<String> action){
+        userServiceRepo.forEachUsername(action);
     }
 }
\ No newline at end of file
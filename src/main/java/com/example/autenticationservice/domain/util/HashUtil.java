@@ -2,6 +2,7 @@ package com.example.autenticationservice.domain.util;
 
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
@@ -19,4 +20,15 @@ public class HashUtil {
         }
 
     }
+
+    //SHA-256 per ricavare un'impronta a lunghezza fissa (44 caratteri base64) di un token, usata come chiave di lookup
+    public String stringToSha256(String value) {
+        try{
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hashBytes = messageDigest.digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hashBytes);
+        } catch (NoSuchAlgorithmException e){
+            throw new RuntimeException("SHA-256 Hash Failed");
+        }
+    }
 }
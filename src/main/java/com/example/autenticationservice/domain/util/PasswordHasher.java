@@ -0,0 +1,227 @@
+package com.example.autenticationservice.domain.util;
+
+import com.example.autenticationservice.domain.exceptions.AutenticationServiceException;
+import com.example.autenticationservice.domain.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Hash delle password con PBKDF2-HMAC-SHA256, formato salvato: pbkdf2_sha256$<iterazioni>$<salt base64>$<hash base64>
+//Le iterazioni stanno nell'hash: passwordHashIterations si può alzare senza invalidare le password già salvate
+//Il calcolo è volutamente lento, per questo gira su un pool dedicato di passwordHashThreads thread (default uno per core)
+//con una coda di passwordHashQueueSize richieste: a coda piena o oltre passwordHashTimeoutMs si risponde 503 invece di
+//accumulare richieste sui thread di Tomcat
+//Le password salvate prima (SHA-1 base64 di HashUtil) vengono ancora riconosciute e ricalcolate al login (needsRehash)
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class PasswordHasher {
+    public static final String PREFIX = "pbkdf2_sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private final HashUtil hashUtil;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.app.passwordHashIterations:600000}")
+    private int iterations;
+
+    @Value("${spring.app.passwordHashSaltBytes:16}")
+    private int saltBytes;
+
+    @Value("${spring.app.passwordHashKeyBits:256}")
+    private int keyBits;
+
+    //0 = un thread per core
+    @Value("${spring.app.passwordHashThreads:0}")
+    private int threads;
+
+    @Value("${spring.app.passwordHashQueueSize:64}")
+    private int queueSize;
+
+    @Value("${spring.app.passwordHashTimeoutMs:5000}")
+    private long timeoutMs;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private ThreadPoolExecutor executor;
+    private Counter rejected;
+
+    //hash di riferimento per gli username inesistenti, così il login impiega lo stesso tempo che esista o no
+    private String dummyHash;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.hash.queue", executor, e -> e.getQueue().size())
+                .description("Calcoli di hash in attesa di un thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Calcoli di hash in corso")
+                .register(meterRegistry);
+        rejected = meterRegistry.counter("password.hash.rejected");
+
+        dummyHash = encode("dummy-password", newSalt(), iterations);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public String hash(String password) {
+        byte[] salt = newSalt();
+        return submit(() -> encode(password, salt, iterations));
+    }
+
+    //hash di molte password per l'import massivo, nello stesso ordine
+    //al massimo un calcolo per thread del pool in coda alla volta: l'import non riempie la coda e login e register
+    //continuano a trovare posto
+    public List<String> hashAll(List<String> passwords) {
+        int window = executor.getMaximumPoolSize();
+        List<String> hashes = new ArrayList<>(passwords.size());
+        Deque<Future<String>> pending = new ArrayDeque<>(window);
+        try {
+            for (String password : passwords) {
+                if (pending.size() == window) {
+                    hashes.add(await(pending.removeFirst()));
+                }
+                byte[] salt = newSalt();
+                pending.addLast(enqueue(() -> encode(password, salt, iterations)));
+            }
+            while (!pending.isEmpty()) {
+                hashes.add(await(pending.removeFirst()));
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+        return hashes;
+    }
+
+    //encoded null = username inesistente, risultato sempre false
+    //per username inesistenti e password ancora SHA-1 si calcola comunque un PBKDF2 su dummyHash:
+    //il tempo di risposta non distingue gli utenti inesistenti né quelli non ancora migrati
+    public boolean matches(String password, String encoded) {
+        if (encoded == null || isLegacy(encoded)) {
+            String dummy = dummyHash;
+            submit(() -> verify(password, dummy));
+            return encoded != null && MessageDigest.isEqual(
+                    hashUtil.stringToSha1(password).getBytes(StandardCharsets.UTF_8),
+                    encoded.getBytes(StandardCharsets.UTF_8));
+        }
+        return submit(() -> verify(password, encoded));
+    }
+
+    //password salvata con il vecchio SHA-1 senza salt
+    public boolean isLegacy(String encoded) {
+        return !encoded.startsWith(PREFIX + "$");
+    }
+
+    //da ricalcolare al prossimo login riuscito: vecchio SHA-1 oppure PBKDF2 con iterazioni diverse da passwordHashIterations
+    public boolean needsRehash(String encoded) {
+        if (isLegacy(encoded)) {
+            return true;
+        }
+        String[] parts = encoded.split("\\$");
+        return parts.length != 4 || Integer.parseInt(parts[1]) != iterations;
+    }
+
+    private boolean verify(String password, String encoded) {
+        String[] parts = encoded.split("\\$");
+        if (parts.length != 4) {
+            throw new AutenticationServiceException("Invalid password hash format");
+        }
+        int hashIterations = Integer.parseInt(parts[1]);
+        byte[] salt = Base64.getDecoder().decode(parts[2]);
+        byte[] expected = Base64.getDecoder().decode(parts[3]);
+        byte[] actual = pbkdf2(password, salt, hashIterations, expected.length * 8);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    private String encode(String password, byte[] salt, int hashIterations) {
+        byte[] hash = pbkdf2(password, salt, hashIterations, keyBits);
+        return PREFIX + "$" + hashIterations
+                + "$" + Base64.getEncoder().encodeToString(salt)
+                + "$" + Base64.getEncoder().encodeToString(hash);
+    }
+
+    private byte[] pbkdf2(String password, byte[] salt, int hashIterations, int hashKeyBits) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, hashIterations, hashKeyBits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new AutenticationServiceException("PBKDF2 Hash Failed", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private byte[] newSalt() {
+        byte[] salt = new byte[saltBytes];
+        secureRandom.nextBytes(salt);
+        return salt;
+    }
+
+    private <T> T submit(Callable<T> task) {
+        return await(enqueue(task));
+    }
+
+    private <T> Future<T> enqueue(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing queue full ({} waiting)", executor.getQueue().size());
+            throw new ServiceUnavailableException("Server busy, retry later", e);
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            log.warn("Password hashing took longer than {} ms", timeoutMs);
+            throw new ServiceUnavailableException("Server busy, retry later", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Server busy, retry later", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new AutenticationServiceException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.autenticationservice.domain.util;
+
+import com.example.autenticationservice.domain.repository.UserServiceRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+//Username ed email già registrati in due filtri di Bloom, per rispondere a /username/available senza andare a db
+//"sicuramente libero" arriva dal filtro, i positivi (veri o falsi) vengono confermati con una query esatta
+//Caricati all'avvio e ricostruiti ogni credentialFilterRebuildMs, dimensionati sul numero di utenti di quel momento così
+//il falso positivo resta vicino a credentialFilterFalsePositiveRate anche quando gli utenti crescono
+//Le registrazioni di questa istanza entrano subito (add), quelle fatte su altre istanze alla ricostruzione successiva
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class TakenCredentialFilter {
+
+    private final UserServiceRepo userServiceRepo;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.app.credentialFilterExpectedInsertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${spring.app.credentialFilterFalsePositiveRate:0.01}")
+    private double falsePositiveRate;
+
+    record Filters(BloomFilter usernames, BloomFilter emails) {
+        long sizeInBytes() {
+            return usernames.sizeInBytes() + emails.sizeInBytes();
+        }
+    }
+
+    private volatile Filters filters;
+    //filtri in costruzione: chi registra nel frattempo li aggiorna insieme a quelli in uso
+    private volatile Filters rebuilding;
+    //una ricostruzione alla volta; ReentrantLock e non synchronized, che durante la lettura da db bloccherebbe
+    //il thread di piattaforma sotto un virtual thread
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    //add e lo scambio dei filtri non si sovrappongono: una add che ha letto i filtri vecchi finisce prima che vengano
+    //sostituiti, quindi scrive anche in rebuilding che è ancora impostato
+    private final ReentrantLock swapLock = new ReentrantLock();
+
+    private Counter negatives;
+    private Counter truePositives;
+    private Counter falsePositives;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("users.credential.filter.bytes", this, filter -> filter.filters.sizeInBytes())
+                .description("Memoria occupata dai filtri di Bloom di username ed email")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        //falsi positivi / (falsi positivi + negativi) = tasso di falso positivo osservato
+        negatives = checks("negative");
+        truePositives = checks("true_positive");
+        falsePositives = checks("false_positive");
+
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${spring.app.credentialFilterRebuildMs:3600000}",
+            fixedDelayString = "${spring.app.credentialFilterRebuildMs:3600000}")
+    public void rebuild() {
+        //una ricostruzione già in corso produce comunque filtri aggiornati, inutile accodarne un'altra
+        if (!rebuildLock.tryLock()) {
+            log.debug("Credential filter rebuild already running, skipped");
+            return;
+        }
+        try {
+            rebuildFilters();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildFilters() {
+        long users = userServiceRepo.countUsers();
+        long insertions = Math.max(expectedInsertions, users * 2);
+        Filters next = new Filters(
+                new BloomFilter(insertions, falsePositiveRate),
+                new BloomFilter(insertions, falsePositiveRate));
+
+        //rebuilding va impostato prima di leggere: una registrazione committata dopo l'inizio della lettura
+        //potrebbe non esserci, ma la sua add la trova qui
+        rebuilding = next;
+        try {
+            userServiceRepo.forEachUsername(next.usernames()::put);
+            userServiceRepo.forEachEmail(next.emails()::put);
+            swapLock.lock();
+            try {
+                filters = next;
+            } finally {
+                swapLock.unlock();
+            }
+        } finally {
+            rebuilding = null;
+        }
+        log.info("Credential filter rebuilt for {} users, {} bytes with {} hash functions",
+                users, next.sizeInBytes(), next.usernames().getHashFunctions());
+    }
+
+    //da chiamare dopo il commit della registrazione
+    public void add(String username, String email) {
+        swapLock.lock();
+        try {
+            put(filters, username, email);
+            put(rebuilding, username, email);
+        } finally {
+            swapLock.unlock();
+        }
+    }
+
+    public boolean isUsernameTaken(String username) {
+        if (!filters.usernames().mightContain(username)) {
+            negatives.increment();
+            return false;
+        }
+        return confirm(userServiceRepo.isUsernameTaken(username));
+    }
+
+    public boolean isEmailTaken(String email) {
+        if (!filters.emails().mightContain(email)) {
+            negatives.increment();
+            return false;
+        }
+        return confirm(userServiceRepo.isEmailTaken(email));
+    }
+
+    private boolean confirm(boolean taken) {
+        (taken ? truePositives : falsePositives).increment();
+        return taken;
+    }
+
+    private void put(Filters target, String username, String email) {
+        if (target != null) {
+            target.usernames().put(username);
+            target.emails().put(email);
+        }
+    }
+
+    private Counter checks(String result) {
+        return Counter.builder("users.credential.filter.checks")
+                .description("Verifiche di /username/available per esito del filtro di Bloom")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.autenticationservice.domain.util;
+
+import com.example.autenticationservice.domain.model.UserSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+//Cache read-through per username degli utenti ridotti (id, username, email) letti da secondStepLogin e resendOtp
+//Gli username inesistenti non vengono messi in cache, così una registrazione successiva si vede subito
+//Ogni voce scade dopo userCacheTtlMs dalla scrittura: è il ritardo massimo con cui si vedono le modifiche fatte da altre istanze
+//Le metriche (cache.gets hit/miss, cache.evictions, cache.size) sono esposte su /actuator/metrics con name=userSummaryCache
+@Component
+@RequiredArgsConstructor
+public class UserSummaryCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.app.userCacheMaxSize:100000}")
+    private long maximumSize;
+
+    @Value("${spring.app.userCacheTtlMs:600000}")
+    private long ttlMs;
+
+    private Cache<String, UserSummary> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userSummaryCache");
+    }
+
+    //richieste contemporanee per lo stesso username aspettano un'unica lettura
+    public Optional<UserSummary> get(String username, Function<String, Optional<UserSummary>> loader) {
+        return Optional.ofNullable(cache.get(username, key -> loader.apply(key).orElse(null)));
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+}
@@ -1,22 +1,17 @@
 package com.example.autenticationservice.domain.util.jwt;
 
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
 import java.util.Date;
 
 @Component
 @RequiredArgsConstructor
 public class AccessTokenJwt extends TokenManager {
 
-    @Value("${spring.app.jwtSecret}")
-    private String jwtSecret;
+    private final JwtKeyProvider jwtKeyProvider;
 
     @Value("${spring.app.jwtAccessExpirations}")
     private int jwtAccessExpireMs;
@@ -24,23 +19,26 @@ public class AccessTokenJwt extends TokenManager {
 
     //Genera un nuovo JWT per il nome utente specificato
     //Imposta il soggetto (setSubject) con il nome utente
+    //Imposta il tipo di token (claim typ) per non accettarlo al posto dell'altro tipo
     //Imposta la data di emissione (setIssuedAt) e la data di scadenza (setExpiration)
-    //Firma il token utilizzando l'algoritmo HS512 con la chiave segreta
+    //Firma il token con l'algoritmo e la chiave forniti da JwtKeyProvider
     @Override
     public String generateToken(String username) {
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .setSubject(username)
+                .claim(TOKEN_TYPE_CLAIM, tokenType())
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtAccessExpireMs))
-                .signWith(key(), SignatureAlgorithm.HS512)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + jwtAccessExpireMs)));
     }
 
-    //Restituisce la chiave segreta utilizzata per firmare e verificare i JWT
-    //Utilizza Keys.hmacShaKeyFor per decodificare il segreto base64 configurato
     @Override
-    public Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    protected JwtKeyRing keyRing() {
+        return jwtKeyProvider.getAccessKeyRing();
+    }
+
+    @Override
+    protected String tokenType() {
+        return "access";
     }
 
 }
@@ -0,0 +1,18 @@
+package com.example.autenticationservice.domain.util.jwt;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.security.Key;
+
+//Materiale chiave immutabile: kid, algoritmo, chiave di firma e chiave di verifica già decodificate
+//Con HS512 firma e verifica usano la stessa chiave segreta, con ES256 la privata firma e la pubblica verifica
+@Getter
+@Builder
+public class JwtKeyMaterial {
+    private final String keyId;
+    private final SignatureAlgorithm algorithm;
+    private final Key signingKey;
+    private final Key verificationKey;
+}
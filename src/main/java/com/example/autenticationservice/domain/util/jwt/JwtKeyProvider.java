@@ -0,0 +1,224 @@
+package com.example.autenticationservice.domain.util.jwt;
+
+import com.example.autenticationservice.domain.model.jwks.JsonWebKey;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class JwtKeyProvider {
+
+    //kid della chiave derivata da spring.app.jwtSecret, attiva da sempre
+    public static final String DEFAULT_KEY_ID = "default";
+
+    private final JwtKeyRingProperties jwtKeyRingProperties;
+
+    @Value("${spring.app.jwtSecret}")
+    private String jwtSecret;
+
+    //per quanto tempo una chiave sostituita continua a verificare (di default quanto dura un refresh token)
+    @Value("${spring.app.jwtKeyGraceMs:${spring.app.jwtRefreshExpirations}}")
+    private long keyGraceMs;
+
+    //HS512 (segreto condiviso) oppure ES256/ES384/ES512 (chiave asimmetrica pubblicata su /.well-known/jwks.json)
+    @Value("${spring.app.jwtAccessSigningAlgorithm:HS512}")
+    private String accessSigningAlgorithm;
+
+    //chiave privata PKCS#8 e chiave pubblica X.509 in base64, usate solo con gli algoritmi ES*
+    @Value("${spring.app.jwtAccessPrivateKey:}")
+    private String accessPrivateKey;
+
+    @Value("${spring.app.jwtAccessPublicKey:}")
+    private String accessPublicKey;
+
+    @Value("${spring.app.jwtAccessKeyId:access-key}")
+    private String accessKeyId;
+
+    //chiavi HMAC decodificate una sola volta all'avvio e ordinate per activeFrom
+    private List<ScheduledKey> scheduledKeys;
+
+    //anello asimmetrico per gli access token, null se gli access token usano HS512
+    private JwtKeyRing ellipticCurveKeyRing;
+
+    //volatile: dopo una rotazione tutti i thread vedono subito il nuovo anello
+    private volatile JwtKeyRing refreshKeyRing;
+    private volatile JwtKeyRing accessKeyRing;
+
+    private record ScheduledKey(Instant activeFrom, JwtKeyMaterial keyMaterial) {}
+
+    @PostConstruct
+    public void init() {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(accessSigningAlgorithm);
+        if (algorithm.isEllipticCurve()) {
+            JwtKeyMaterial keyMaterial = ellipticCurveKeyMaterial(algorithm);
+            ellipticCurveKeyRing = new JwtKeyRing(keyMaterial, keyMaterial, List.of(keyMaterial));
+        } else if (algorithm != SignatureAlgorithm.HS512) {
+            throw new IllegalStateException("Unsupported access token signing algorithm: " + accessSigningAlgorithm);
+        }
+
+        List<ScheduledKey> keys = new ArrayList<>();
+        keys.add(new ScheduledKey(Instant.EPOCH, hmacKeyMaterial(DEFAULT_KEY_ID, jwtSecret)));
+        Set<String> kids = new HashSet<>(Set.of(DEFAULT_KEY_ID));
+        for (JwtKeyRingProperties.JwtKeyProperties key : jwtKeyRingProperties.getJwtKeys()) {
+            if (!kids.add(key.getKid())) {
+                throw new IllegalStateException("Duplicate JWT key id: " + key.getKid());
+            }
+            keys.add(new ScheduledKey(Instant.parse(key.getActiveFrom()), hmacKeyMaterial(key.getKid(), key.getSecret())));
+        }
+        keys.sort(Comparator.comparing(ScheduledKey::activeFrom));
+        scheduledKeys = List.copyOf(keys);
+
+        rotateKeys();
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.jwtKeyRotationCheckMs:60000}", initialDelayString = "${spring.app.jwtKeyRotationCheckMs:60000}")
+    public void rotateKeys() {
+        rotateKeys(Instant.now());
+    }
+
+    //Firma la chiave più recente già attiva, verificano anche quelle future (pubblicate in anticipo per tollerare
+    //differenze di orologio tra nodi) e quelle sostituite da meno di keyGraceMs, così non si forza un nuovo login
+    //L'anello viene ricostruito solo se cambia qualcosa: ad ogni controllo non si alloca nulla
+    public void rotateKeys(Instant now) {
+        int currentIndex = 0;
+        for (int i = 0; i < scheduledKeys.size(); i++) {
+            if (!scheduledKeys.get(i).activeFrom().isAfter(now)) {
+                currentIndex = i;
+            }
+        }
+
+        List<JwtKeyMaterial> verificationKeys = new ArrayList<>();
+        for (int i = 0; i < scheduledKeys.size(); i++) {
+            if (i >= currentIndex) {
+                verificationKeys.add(scheduledKeys.get(i).keyMaterial());
+            } else {
+                Instant supersededAt = scheduledKeys.get(i + 1).activeFrom();
+                if (now.isBefore(supersededAt.plusMillis(keyGraceMs))) {
+                    verificationKeys.add(scheduledKeys.get(i).keyMaterial());
+                }
+            }
+        }
+
+        JwtKeyMaterial current = scheduledKeys.get(currentIndex).keyMaterial();
+        JwtKeyRing previous = refreshKeyRing;
+        if (previous != null && previous.getCurrent() == current && previous.getKeys().size() == verificationKeys.size()) {
+            return;
+        }
+
+        JwtKeyMaterial legacy = verificationKeys.stream()
+                .filter(key -> DEFAULT_KEY_ID.equals(key.getKeyId()))
+                .findFirst()
+                .orElse(null);
+        JwtKeyRing hmacKeyRing = new JwtKeyRing(current, legacy, verificationKeys);
+
+        refreshKeyRing = hmacKeyRing;
+        accessKeyRing = ellipticCurveKeyRing != null ? ellipticCurveKeyRing : hmacKeyRing;
+        log.info("JWT signing key '{}' active, {} key(s) accepted for verification", current.getKeyId(), verificationKeys.size());
+    }
+
+    public JwtKeyRing getAccessKeyRing() {
+        return accessKeyRing;
+    }
+
+    public JwtKeyRing getRefreshKeyRing() {
+        return refreshKeyRing;
+    }
+
+    //Chiavi pubbliche da esporre come JWKS, con HS512 la lista è vuota (il segreto non si pubblica)
+    public List<JsonWebKey> getPublicJsonWebKeys() {
+        if (ellipticCurveKeyRing == null) {
+            return List.of();
+        }
+        return ellipticCurveKeyRing.getKeys().stream()
+                .map(this::toJsonWebKey)
+                .toList();
+    }
+
+    //Decodifica il segreto base64 e costruisce la chiave HMAC una sola volta
+    private JwtKeyMaterial hmacKeyMaterial(String kid, String secret) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        return JwtKeyMaterial.builder()
+                .keyId(kid)
+                .algorithm(SignatureAlgorithm.HS512)
+                .signingKey(key)
+                .verificationKey(key)
+                .build();
+    }
+
+    private JwtKeyMaterial ellipticCurveKeyMaterial(SignatureAlgorithm algorithm) {
+        PrivateKey privateKey;
+        PublicKey publicKey;
+        if (accessPrivateKey.isBlank() || accessPublicKey.isBlank()) {
+            //chiavi effimere: vanno bene in sviluppo, in produzione ogni nodo e ogni riavvio avrebbero chiavi diverse
+            log.warn("No {} key pair configured, generating an ephemeral one", algorithm.getValue());
+            KeyPair keyPair = Keys.keyPairFor(algorithm);
+            privateKey = keyPair.getPrivate();
+            publicKey = keyPair.getPublic();
+        } else {
+            try {
+                KeyFactory keyFactory = KeyFactory.getInstance("EC");
+                privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(accessPrivateKey)));
+                publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(accessPublicKey)));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Invalid " + algorithm.getValue() + " key pair", e);
+            }
+        }
+
+        return JwtKeyMaterial.builder()
+                .keyId(accessKeyId)
+                .algorithm(algorithm)
+                .signingKey(privateKey)
+                .verificationKey(publicKey)
+                .build();
+    }
+
+    private JsonWebKey toJsonWebKey(JwtKeyMaterial keyMaterial) {
+        ECPublicKey publicKey = (ECPublicKey) keyMaterial.getVerificationKey();
+        int fieldSize = publicKey.getParams().getCurve().getField().getFieldSize();
+        int coordinateLength = (fieldSize + 7) / 8;
+        return JsonWebKey.builder()
+                .kty("EC")
+                .crv("P-" + fieldSize)
+                .x(toBase64Url(publicKey.getW().getAffineX(), coordinateLength))
+                .y(toBase64Url(publicKey.getW().getAffineY(), coordinateLength))
+                .kid(keyMaterial.getKeyId())
+                .use("sig")
+                .alg(keyMaterial.getAlgorithm().getValue())
+                .build();
+    }
+
+    //le coordinate JWK sono big-endian senza segno e di lunghezza fissa per la curva
+    private String toBase64Url(BigInteger coordinate, int length) {
+        byte[] bytes = coordinate.toByteArray();
+        byte[] fixed = new byte[length];
+        int copy = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copy, fixed, length - copy, copy);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.autenticationservice.domain.util.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.Getter;
+
+import java.security.Key;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+//Anello di chiavi immutabile: la chiave corrente firma, tutte quelle presenti verificano
+//Il parser viene costruito una sola volta per anello e risolve la chiave dal kid dell'header con un lookup O(1)
+//I token senza kid (emessi prima della rotazione) vengono verificati con la chiave legacy, se ancora presente
+@Getter
+public class JwtKeyRing {
+    private final JwtKeyMaterial current;
+    private final JwtKeyMaterial legacy;
+    private final Map<String, JwtKeyMaterial> keysByKid;
+    private final JwtParser parser;
+
+    public JwtKeyRing(JwtKeyMaterial current, JwtKeyMaterial legacy, Collection<JwtKeyMaterial> keys) {
+        this.current = current;
+        this.legacy = legacy;
+
+        Map<String, JwtKeyMaterial> keysByKid = new HashMap<>();
+        for (JwtKeyMaterial key : keys) {
+            keysByKid.put(key.getKeyId(), key);
+        }
+        this.keysByKid = Map.copyOf(keysByKid);
+
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveVerificationKey(header.getKeyId());
+                    }
+
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, String plaintext) {
+                        return resolveVerificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    public Key resolveVerificationKey(String kid) {
+        JwtKeyMaterial keyMaterial = kid == null ? legacy : keysByKid.get(kid);
+        if (keyMaterial == null) {
+            throw new SignatureException("Unknown JWT key id: " + kid);
+        }
+        return keyMaterial.getVerificationKey();
+    }
+
+    public Collection<JwtKeyMaterial> getKeys() {
+        return keysByKid.values();
+    }
+}
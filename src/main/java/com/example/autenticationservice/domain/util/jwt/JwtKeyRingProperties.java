@@ -0,0 +1,24 @@
+package com.example.autenticationservice.domain.util.jwt;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Chiavi HMAC aggiuntive per la rotazione (spring.app.jwtKeys), ognuna con il proprio kid e l'istante da cui inizia a firmare
+@Data
+@Component
+@ConfigurationProperties(prefix = "spring.app")
+public class JwtKeyRingProperties {
+
+    private List<JwtKeyProperties> jwtKeys = new ArrayList<>();
+
+    @Data
+    public static class JwtKeyProperties {
+        private String kid;
+        private String secret;
+        private String activeFrom; //ISO-8601, es. 2025-01-01T00:00:00Z
+    }
+}
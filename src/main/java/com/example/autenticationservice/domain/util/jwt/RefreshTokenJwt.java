@@ -1,22 +1,18 @@
 package com.example.autenticationservice.domain.util.jwt;
 
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
 public class RefreshTokenJwt extends TokenManager {
-    @Value("${spring.app.jwtSecret}")
-    private String jwtSecret;
+    private final JwtKeyProvider jwtKeyProvider;
 
     @Value("${spring.app.jwtRefreshExpirations}")
     private int jwtRefreshExpireMs;
@@ -24,25 +20,30 @@ public class RefreshTokenJwt extends TokenManager {
 
     //Genera un nuovo JWT per il nome utente specificato
     //Imposta il soggetto (setSubject) con il nome utente
+    //Imposta il tipo di token (claim typ) per non accettarlo al posto dell'altro tipo
     //Imposta la data di emissione (setIssuedAt) e la data di scadenza (setExpiration)
-    //Firma il token utilizzando l'algoritmo HS512 con la chiave segreta
+    //Imposta un id univoco (setId), altrimenti due login nello stesso secondo darebbero lo stesso token e lo stesso hash a db
+    //Firma il token con l'algoritmo e la chiave forniti da JwtKeyProvider
     @Override
     public String generateToken(String username) {
-        return Jwts.builder()
+        return sign(Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
+                .claim(TOKEN_TYPE_CLAIM, tokenType())
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtRefreshExpireMs))
-                .signWith(key(), SignatureAlgorithm.HS512)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + jwtRefreshExpireMs)));
     }
 
-    //Restituisce la chiave segreta utilizzata per firmare e verificare i JWT
-    //Utilizza Keys.hmacShaKeyFor per decodificare il segreto base64 configurato
     @Override
-    public Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    protected JwtKeyRing keyRing() {
+        return jwtKeyProvider.getRefreshKeyRing();
     } //domain
 
+    @Override
+    protected String tokenType() {
+        return "refresh";
+    }
+
     public int getExpirationDate(){
         return jwtRefreshExpireMs;
     }
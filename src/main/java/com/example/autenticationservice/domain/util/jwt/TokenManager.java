@@ -1,34 +1,66 @@
 package com.example.autenticationservice.domain.util.jwt;
 
+import com.example.autenticationservice.domain.model.verifyToken.VerifiedToken;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import lombok.extern.log4j.Log4j2;
 
 import java.security.Key;
+import java.util.Optional;
 
 @Log4j2
 public abstract class TokenManager {
 
+    //Claim che distingue access e refresh token: con HS512 i due anelli condividono le chiavi
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+
     protected String path = "api/";
 
     //Genera un nuovo JWT per il nome utente specificato
     //Imposta il soggetto (setSubject) con il nome utente
     //Imposta la data di emissione (setIssuedAt) e la data di scadenza (setExpiration)
-    //Firma il token utilizzando l'algoritmo HS512 con la chiave segreta
+    //Firma il token con l'algoritmo configurato (HS512 con la chiave segreta o ES256 con la chiave privata)
     public abstract String generateToken(String username);
 
-    //Restituisce la chiave segreta utilizzata per firmare e verificare i JWT
-    //Utilizza Keys.hmacShaKeyFor per decodificare il segreto base64 configurato
-    public abstract Key key();
+    //Restituisce l'anello di chiavi corrente di JwtKeyProvider per il tipo di token
+    protected abstract JwtKeyRing keyRing();
+
+    //Valore del claim typ scritto da generateToken e richiesto da verify
+    protected abstract String tokenType();
+
+    //Restituisce la chiave corrente utilizzata per firmare i JWT
+    //La chiave viene decodificata una sola volta da JwtKeyProvider
+    public Key key() {
+        return keyRing().getCurrent().getSigningKey();
+    }
+
+    //Restituisce il parser immutabile e thread-safe dell'anello, che sceglie la chiave di verifica dal kid
+    protected JwtParser parser() {
+        return keyRing().getParser();
+    }
+
+    //Firma i claims con chiave e algoritmo della chiave corrente, mettendo il kid nell'header se presente
+    protected String sign(JwtBuilder builder) {
+        JwtKeyMaterial keyMaterial = keyRing().getCurrent();
+        if (keyMaterial.getKeyId() != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, keyMaterial.getKeyId());
+        }
+        return builder.signWith(keyMaterial.getSigningKey(), keyMaterial.getAlgorithm()).compact();
+    }
 
     //Verifica la validità del token JWT fornito
     //Gestisce eccezioni per token malformati, scaduti, non supportati o con argomenti non validi
     //Restituisce true se il token è valido, altrimenti registra un errore specifico e restituisce false
     public boolean validateToken(String authToken) throws ExpiredJwtException { //facciamo salire l'ExpiredJwtException per lavorarci
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
+            parser().parse(authToken);
             return true;
         } catch (MalformedJwtException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
@@ -43,9 +75,38 @@ public abstract class TokenManager {
         return false;
     }
 
+    //Verifica firma e scadenza ed estrae i claims con un solo parsing del token
+    //Come validateToken fa salire l'ExpiredJwtException, per gli altri errori restituisce un Optional vuoto
+    //Un token di un altro tipo viene rifiutato, così un access token non vale come refresh token
+    //Senza typ passano solo i token senza kid, emessi prima della rotazione delle chiavi, finché non scadono:
+    //da allora ogni token ha kid e typ, quindi la finestra si chiude da sola dopo jwtRefreshExpirations
+    public Optional<VerifiedToken> verify(String token) throws ExpiredJwtException {
+        try {
+            Jws<Claims> jws = parser().parseClaimsJws(token);
+            Claims claims = jws.getBody();
+            String type = claims.get(TOKEN_TYPE_CLAIM, String.class);
+            boolean legacyToken = type == null && jws.getHeader().getKeyId() == null;
+            if (!legacyToken && !tokenType().equals(type)) {
+                log.error("Invalid JWT token type: {}", type);
+                return Optional.empty();
+            }
+            return Optional.of(VerifiedToken.builder()
+                    .username(claims.getSubject())
+                    .expiresAt(claims.getExpiration().getTime())
+                    .build());
+        } catch (ExpiredJwtException e) {
+            log.error("JWT token is expired: {}", e.getMessage());
+            throw e;
+        } catch (JwtException e) {
+            log.error("Invalid JWT token: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.error("JWT claims string is empty: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+
     //Estrae il nome utente dal JWT fornito
     public String getUsernameFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return parser().parseClaimsJws(token).getBody().getSubject();
     }
 }
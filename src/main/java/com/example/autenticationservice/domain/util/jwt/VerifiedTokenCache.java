@@ -0,0 +1,69 @@
+package com.example.autenticationservice.domain.util.jwt;
+
+import com.example.autenticationservice.domain.model.verifyToken.VerifiedToken;
+import com.example.autenticationservice.domain.util.HashUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+//Cache in memoria dei token già verificati, consultata da /verify-token prima di qualsiasi operazione crittografica
+//La chiave è lo SHA-256 del token (non teniamo in memoria il JWT in chiaro), ogni voce scade insieme al token
+//Le metriche (cache.gets hit/miss, cache.evictions, cache.size) sono esposte su /actuator/metrics con name=verifiedTokenCache
+@Component
+@RequiredArgsConstructor
+public class VerifiedTokenCache {
+
+    private final HashUtil hashUtil;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.app.verifiedTokenCacheMaxSize}")
+    private long maximumSize;
+
+    private Cache<String, VerifiedToken> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedTokenCache");
+    }
+
+    public Optional<VerifiedToken> get(String token) {
+        return Optional.ofNullable(cache.getIfPresent(hashUtil.stringToSha256(token)));
+    }
+
+    public void put(String token, VerifiedToken verifiedToken) {
+        cache.put(hashUtil.stringToSha256(token), verifiedToken);
+    }
+
+    //la voce vive esattamente fino alla scadenza del token, una lettura non la prolunga
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMs = value.getExpiresAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.autenticationservice.infrastructure.migration;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+//Database di destinazione delle migrazioni: Oracle in produzione, H2 nei test
+final class DatabaseProduct {
+
+    private DatabaseProduct() {
+    }
+
+    static boolean isOracle(JdbcTemplate jdbcTemplate) {
+        String productName = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return productName != null && productName.toLowerCase().contains("oracle");
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.autenticationservice.infrastructure.migration;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+
+//Migrazione una tantum degli id di Users, Otp, RefreshToken ed EmailOutbox da IDENTITY a sequence
+//Sulle tabelle create prima la colonna id è ancora IDENTITY (su Oracle GENERATED ALWAYS, che rifiuta gli id assegnati
+//da Hibernate) e ddl-auto crea la sequence da 1: si toglie l'identity e si fa ripartire la sequence oltre l'id massimo
+//Con l'ottimizzatore pooled il valore letto è il limite alto di un blocco di ALLOCATION_SIZE id, quindi si riparte
+//da max(id) + ALLOCATION_SIZE + 1. Una volta tolta l'identity la migrazione non fa più nulla
+@Component
+@RequiredArgsConstructor
+@Log4j2
+@DependsOn("entityManagerFactory")
+public class IdSequenceMigration {
+    private static final int ALLOCATION_SIZE = 50;
+
+    record IdTable(String table, String sequence) {}
+
+    private static final List<IdTable> TABLES = List.of(
+            new IdTable("users", "users_seq"),
+            new IdTable("otp", "otp_seq"),
+            new IdTable("refresh_token", "refresh_token_seq"),
+            new IdTable("email_outbox", "email_outbox_seq"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        boolean oracle = DatabaseProduct.isOracle(jdbcTemplate);
+        for (IdTable idTable : TABLES) {
+            if (!isIdentity(idTable.table(), oracle)) {
+                continue;
+            }
+
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + idTable.table(), Long.class);
+            long restartWith = (maxId == null ? 0 : maxId) + ALLOCATION_SIZE + 1;
+
+            if (oracle) {
+                jdbcTemplate.execute("ALTER TABLE " + idTable.table() + " MODIFY (id DROP IDENTITY)");
+                jdbcTemplate.execute("ALTER SEQUENCE " + idTable.sequence() + " RESTART START WITH " + restartWith);
+            } else {
+                jdbcTemplate.execute("ALTER TABLE " + idTable.table() + " ALTER COLUMN id DROP IDENTITY");
+                jdbcTemplate.execute("ALTER SEQUENCE " + idTable.sequence() + " RESTART WITH " + restartWith);
+            }
+            log.info("Table {} moved from identity to sequence {}, restarting at {}", idTable.table(), idTable.sequence(), restartWith);
+        }
+    }
+
+    private boolean isIdentity(String table, boolean oracle) {
+        if (oracle) {
+            //il driver Oracle non valorizza IS_AUTOINCREMENT, le colonne identity sono nel dizionario dati
+            Integer count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM user_tab_identity_cols WHERE table_name = ? AND column_name = 'ID'",
+                    Integer.class, table.toUpperCase());
+            return count != null && count > 0;
+        }
+        Boolean identity = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(null, connection.getSchema(), table.toUpperCase(), "ID")) {
+                return columns.next() && "YES".equals(columns.getString("IS_AUTOINCREMENT"));
+            }
+        });
+        return Boolean.TRUE.equals(identity);
+    }
+}
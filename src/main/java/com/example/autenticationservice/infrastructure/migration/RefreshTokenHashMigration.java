@@ -0,0 +1,95 @@
+package com.example.autenticationservice.infrastructure.migration;
+
+import com.example.autenticationservice.domain.util.HashUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+
+//Migrazione una tantum delle righe salvate prima della colonna refresh_token_hash:
+//calcola l'hash SHA-256 del vecchio JWT in chiaro e svuota la colonna refresh_token, a blocchi di batchSize righe
+//Dipende da entityManagerFactory perché ddl-auto deve aver già aggiunto la colonna e l'indice univoco
+//La colonna refresh_token resta a NULL e può essere eliminata a mano quando nessuna istanza vecchia è più in esecuzione
+@Component
+@RequiredArgsConstructor
+@Log4j2
+@DependsOn("entityManagerFactory")
+public class RefreshTokenHashMigration {
+    private static final String LEGACY_TABLE = "REFRESH_TOKEN";
+    private static final String LEGACY_COLUMN = "REFRESH_TOKEN";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HashUtil hashUtil;
+
+    @Value("${spring.app.refreshTokenMigrationBatchSize:500}")
+    private int batchSize;
+
+    record LegacyRefreshToken(int id, String refreshToken) {}
+
+    @PostConstruct
+    public void migrate() {
+        if (!legacyColumnExists()) {
+            return;
+        }
+
+        int migrated = 0;
+        List<LegacyRefreshToken> batch;
+        do {
+            batch = jdbcTemplate.query(
+                    "SELECT id, refresh_token FROM refresh_token WHERE refresh_token IS NOT NULL FETCH FIRST ? ROWS ONLY",
+                    (rs, rowNum) -> new LegacyRefreshToken(rs.getInt("id"), rs.getString("refresh_token")),
+                    batchSize);
+            migrateBatch(batch);
+            migrated += batch.size();
+        } while (batch.size() == batchSize);
+
+        if (migrated > 0) {
+            log.info("Migrated {} refresh tokens to refresh_token_hash", migrated);
+        }
+    }
+
+    private void migrateBatch(List<LegacyRefreshToken> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate("UPDATE refresh_token SET refresh_token_hash = ?, refresh_token = NULL WHERE id = ?",
+                    batch.stream()
+                            .map(row -> new Object[]{hashUtil.stringToSha256(row.refreshToken()), row.id()})
+                            .toList());
+        } catch (DuplicateKeyException e) {
+            //token identici (stesso utente e stesso secondo, prima dell'id univoco nel JWT): riga per riga,
+            //il duplicato perde solo il token in chiaro e resta senza hash, la prima riga rappresenta entrambi
+            batch.forEach(this::migrateRow);
+        }
+    }
+
+    private void migrateRow(LegacyRefreshToken row) {
+        try {
+            jdbcTemplate.update("UPDATE refresh_token SET refresh_token_hash = ?, refresh_token = NULL WHERE id = ?",
+                    hashUtil.stringToSha256(row.refreshToken()), row.id());
+        } catch (DuplicateKeyException e) {
+            log.warn("Duplicate refresh token on row {}, clearing it without hash", row.id());
+            jdbcTemplate.update("UPDATE refresh_token SET refresh_token = NULL WHERE id = ?", row.id());
+        }
+    }
+
+    private boolean legacyColumnExists() {
+        Boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(null, connection.getSchema(), LEGACY_TABLE, LEGACY_COLUMN)) {
+                return columns.next();
+            }
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+}
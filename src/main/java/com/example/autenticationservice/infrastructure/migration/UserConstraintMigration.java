@@ -0,0 +1,77 @@
+package com.example.autenticationservice.infrastructure.migration;
+
+import com.example.autenticationservice.domain.model.User;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Migrazione una tantum dei vincoli univoci di Users su username ed email ai nomi fissi di User
+//register riconosce la credenziale già presa dal nome del vincolo violato, ma le tabelle create prima hanno nomi
+//generati (SYS_C... su Oracle, UK... da Hibernate) e ddl-auto non riesce ad aggiungere un secondo vincolo sulla stessa
+//colonna su Oracle, mentre su H2 lo aggiunge come doppione: si rinomina quello esistente e si tolgono i doppioni
+//Una volta rinominati la migrazione non fa più nulla
+@Component
+@RequiredArgsConstructor
+@Log4j2
+@DependsOn("entityManagerFactory")
+public class UserConstraintMigration {
+
+    private static final Map<String, String> CONSTRAINTS = Map.of(
+            "USERNAME", User.USERNAME_CONSTRAINT,
+            "EMAIL", User.EMAIL_CONSTRAINT);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        Map<String, List<String>> constraintsByColumn = singleColumnUniqueConstraints(DatabaseProduct.isOracle(jdbcTemplate));
+        CONSTRAINTS.forEach((column, expectedName) -> {
+            List<String> names = new ArrayList<>(constraintsByColumn.getOrDefault(column, List.of()));
+            if (names.isEmpty()) {
+                return;
+            }
+            if (!names.remove(expectedName)) {
+                String current = names.removeFirst();
+                jdbcTemplate.execute("ALTER TABLE users RENAME CONSTRAINT \"" + current + "\" TO " + expectedName);
+                log.info("Unique constraint {} on users({}) renamed to {}", current, column.toLowerCase(), expectedName);
+            }
+            for (String duplicate : names) {
+                jdbcTemplate.execute("ALTER TABLE users DROP CONSTRAINT \"" + duplicate + "\"");
+                log.info("Duplicate unique constraint {} on users({}) dropped", duplicate, column.toLowerCase());
+            }
+        });
+    }
+
+    //colonna -> vincoli univoci su quella sola colonna
+    private Map<String, List<String>> singleColumnUniqueConstraints(boolean oracle) {
+        String sql = oracle
+                ? "SELECT c.constraint_name, cc.column_name FROM user_constraints c "
+                + "JOIN user_cons_columns cc ON cc.constraint_name = c.constraint_name "
+                + "WHERE c.table_name = 'USERS' AND c.constraint_type = 'U'"
+                : "SELECT tc.constraint_name, kcu.column_name FROM information_schema.table_constraints tc "
+                + "JOIN information_schema.key_column_usage kcu ON kcu.constraint_schema = tc.constraint_schema "
+                + "AND kcu.constraint_name = tc.constraint_name "
+                + "WHERE tc.table_schema = SCHEMA() AND tc.table_name = 'USERS' AND tc.constraint_type = 'UNIQUE'";
+
+        Map<String, List<String>> columnsByConstraint = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            columnsByConstraint.computeIfAbsent(rs.getString(1), name -> new ArrayList<>()).add(rs.getString(2));
+        });
+
+        Map<String, List<String>> constraintsByColumn = new LinkedHashMap<>();
+        columnsByConstraint.forEach((name, columns) -> {
+            if (columns.size() == 1) {
+                constraintsByColumn.computeIfAbsent(columns.getFirst().toUpperCase(), column -> new ArrayList<>()).add(name);
+            }
+        });
+        return constraintsByColumn;
+    }
+}
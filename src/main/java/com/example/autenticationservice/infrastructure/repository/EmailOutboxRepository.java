@@ -0,0 +1,25 @@
+package com.example.autenticationservice.infrastructure.repository;
+
+import com.example.autenticationservice.domain.model.EmailOutbox;
+import com.example.autenticationservice.domain.model.EmailOutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Integer> {
+
+    //email da inviare adesso, le più vecchie per prime, servite dall'indice (status, nextAttemptAt)
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt")
+    List<EmailOutbox> findDue(@Param("status") EmailOutboxStatus status, @Param("now") long now, Pageable pageable);
+
+    long countByStatus(EmailOutboxStatus status);
+
+    //id delle email DEAD il cui ultimo tentativo è prima di cutoff, servite dallo stesso indice (status, nextAttemptAt)
+    @Query("SELECT e.id FROM EmailOutbox e WHERE e.status = :status AND e.nextAttemptAt < :cutoff")
+    List<Integer> findPurgeableIds(@Param("status") EmailOutboxStatus status, @Param("cutoff") long cutoff, Pageable pageable);
+}
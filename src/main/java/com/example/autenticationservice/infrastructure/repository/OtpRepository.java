@@ -1,20 +1,31 @@
 package com.example.autenticationservice.infrastructure.repository;
 
 import com.example.autenticationservice.domain.model.Otp;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OtpRepository extends JpaRepository<Otp, Integer> {
     Optional<Otp> findOtpBySessionIdAndValidTrue(String sessionId);
 
+    //per chiave primaria: tocca solo la riga della sessione, non tutti gli OTP con lo stesso codice a 6 cifre
     @Modifying
-    @Query("UPDATE Otp o SET o.valid = false WHERE o.otp = :otp")
-    void invalidateOtp(@Param("otp") String otp);
+    @Query("UPDATE Otp o SET o.valid = false WHERE o.id = :id")
+    void invalidateOtp(@Param("id") Integer id);
+
+    //id degli OTP scaduti prima di cutoff, a blocchi di pageable.getPageSize() righe, serviti da IX_OTP_EXPIRES_AT
+    @Query("SELECT o.id FROM Otp o WHERE o.expiresAt < :cutoff")
+    List<Integer> findExpiredIds(@Param("cutoff") long cutoff, Pageable pageable);
+
+    //id degli OTP invalidati (usati o sostituiti da un reSend) creati prima di cutoff, serviti da IX_OTP_VALID_CREATED_AT
+    @Query("SELECT o.id FROM Otp o WHERE o.valid = false AND o.createdAt < :cutoff")
+    List<Integer> findInvalidatedIds(@Param("cutoff") long cutoff, Pageable pageable);
 
 }
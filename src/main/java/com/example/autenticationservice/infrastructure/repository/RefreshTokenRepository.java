@@ -1,19 +1,29 @@
 package com.example.autenticationservice.infrastructure.repository;
 
 import com.example.autenticationservice.domain.model.RefreshToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Integer> {
-    Optional<RefreshToken> findByRefreshToken(String refreshToken);
+    Optional<RefreshToken> findByRefreshTokenHash(String refreshTokenHash);
 
+    //logout non apre una transazione: l'UPDATE ne ha una sua
+    @Transactional
     @Modifying
-    @Query("UPDATE RefreshToken r SET r.valid = false WHERE r.refreshToken = :refreshToken")
-    void invalidateRefreshToken(@Param("refreshToken") String refreshToken);
+    @Query("UPDATE RefreshToken r SET r.valid = false WHERE r.refreshTokenHash = :refreshTokenHash")
+    void invalidateRefreshToken(@Param("refreshTokenHash") String refreshTokenHash);
+
+    //solo i token scaduti: quelli revocati ma non scaduti restano come storico
+    @Query("SELECT r.id FROM RefreshToken r WHERE r.expireDate < :cutoff")
+    List<Integer> findPurgeableIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
 }
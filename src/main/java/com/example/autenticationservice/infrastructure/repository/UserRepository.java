@@ -1,16 +1,69 @@
 package com.example.autenticationservice.infrastructure.repository;
 
 import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.model.UserSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByUsername(String username);
-    Optional<User> findByEmail(String email);
-    Optional<User> findByUsernameAndPassword(String username, String password);
+
+    //solo le colonne della cache di UserSummaryCache, senza entity nel persistence context
+    @Query("SELECT new com.example.autenticationservice.domain.model.UserSummary(u.id, u.username, u.email) FROM User u WHERE u.username = :username")
+    Optional<UserSummary> findSummaryByUsername(@Param("username") String username);
+
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    void updatePassword(@Param("id") Integer id, @Param("password") String password);
+
+    long countByPasswordNotLike(String pattern);
+
+    //conferma esatta dei "forse già preso" del filtro di Bloom di /username/available
+    boolean existsByUsername(String username);
+
+    boolean existsByEmail(String email);
+
+    //duplicati dell'import massivo: una query per blocco di righe invece di una per utente
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    Set<String> findTakenUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findTakenEmails(@Param("emails") Collection<String> emails);
+
+    //keyset sull'indice univoco di username: si legge solo la colonna, senza caricare le entity User
+    @Query("SELECT u.username FROM User u ORDER BY u.username")
+    List<String> findUsernames(Limit limit);
+
+    @Query("SELECT u.username FROM User u WHERE u.username > :after ORDER BY u.username")
+    List<String> findUsernamesAfter(@Param("after") String after, Limit limit);
+
+    //tutti gli username letti dal ResultSet a blocchi di fetch size, senza entity nel persistence context
+    //va consumato e chiuso dentro una transazione
+    @Query("SELECT u.username FROM User u ORDER BY u.username")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<String> streamUsernames();
+
+    @Query("SELECT u.email FROM User u")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<String> streamEmails();
 }
@@ -0,0 +1,51 @@
+package com.example.autenticationservice.infrastructure.scheduler;
+
+import com.example.autenticationservice.domain.model.SchedulerLock;
+import com.example.autenticationservice.infrastructure.repository.SchedulerLockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+//Lock a tempo su tabella SchedulerLock, così con più istanze un job schedulato gira su un nodo solo
+//lockFor deve superare la durata del job: se il nodo muore il lock scade da solo e un altro nodo lo riprende
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class DatabaseLock {
+    private final SchedulerLockRepository schedulerLockRepository;
+
+    //identifica questa istanza come proprietaria del lock
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public boolean tryAcquire(String name, Duration lockFor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lockedUntil = now.plus(lockFor);
+        if (schedulerLockRepository.acquire(name, instanceId, now, lockedUntil) == 1) {
+            return true;
+        }
+        if (schedulerLockRepository.existsById(name)) {
+            return false;
+        }
+        //prima esecuzione: la riga non esiste ancora, la crea chi arriva primo
+        try {
+            schedulerLockRepository.saveAndFlush(SchedulerLock.builder()
+                    .name(name)
+                    .lockedUntil(lockedUntil)
+                    .lockedBy(instanceId)
+                    .build());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Lock {} created by another instance", name);
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        schedulerLockRepository.release(name, instanceId, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.autenticationservice.infrastructure.scheduler;
+
+import com.example.autenticationservice.application.service.PooledSmtpEmailSender;
+import com.example.autenticationservice.domain.model.EmailOutbox;
+import com.example.autenticationservice.domain.model.EmailOutboxStatus;
+import com.example.autenticationservice.infrastructure.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Svuota la tabella EmailOutbox con PooledSmtpEmailSender: le email dovute vengono divise tra emailOutboxThreads thread
+//e ogni thread spedisce il suo blocco su una connessione SMTP già aperta del pool
+//Un solo nodo alla volta tramite DatabaseLock, così la stessa email non viene spedita da due istanze
+//In caso di errore riprova con backoff esponenziale (emailOutboxBackoffMs, 2x, 4x... fino a emailOutboxMaxBackoffMs),
+//dopo emailOutboxMaxAttempts tentativi l'email passa a DEAD e non viene più ritentata
+//Le metriche email.outbox.pending e email.outbox.dead sono ricontate ogni emailOutboxGaugeRefreshMs, non ad ogni giro
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class EmailOutboxDispatcher {
+    public static final String LOCK_NAME = "emailOutboxDispatcher";
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final PooledSmtpEmailSender pooledSmtpEmailSender;
+    private final DatabaseLock databaseLock;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.app.emailOutboxBatchSize:50}")
+    private int batchSize;
+
+    @Value("${spring.app.emailOutboxThreads:4}")
+    private int threads;
+
+    @Value("${spring.app.emailOutboxMaxAttempts:5}")
+    private int maxAttempts;
+
+    @Value("${spring.app.emailOutboxBackoffMs:2000}")
+    private long backoffMs;
+
+    @Value("${spring.app.emailOutboxMaxBackoffMs:300000}")
+    private long maxBackoffMs;
+
+    @Value("${spring.app.emailOutboxLockMs:60000}")
+    private long lockMs;
+
+    private ExecutorService executorService;
+
+    //aggiornati da refreshGauges, così lo scrape delle metriche non interroga il database
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+
+    private Counter sent;
+    private Counter retried;
+    private Counter deadLettered;
+
+    @PostConstruct
+    public void init() {
+        //thread di piattaforma anche con spring.threads.virtual.enabled: SMTPTransport.sendMessage è synchronized
+        //e su Java 21 un virtual thread fermo sull'I/O SMTP bloccherebbe il suo carrier thread
+        executorService = Executors.newFixedThreadPool(threads);
+
+        Gauge.builder("email.outbox.pending", pending, AtomicLong::get)
+                .description("Email in coda nella tabella EmailOutbox")
+                .register(meterRegistry);
+        Gauge.builder("email.outbox.dead", dead, AtomicLong::get)
+                .description("Email con i tentativi esauriti")
+                .register(meterRegistry);
+        sent = meterRegistry.counter("email.outbox.sent");
+        retried = meterRegistry.counter("email.outbox.retried");
+        deadLettered = meterRegistry.counter("email.outbox.dead.lettered");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.emailOutboxPollMs:1000}")
+    public void dispatch() {
+        if (!databaseLock.tryAcquire(LOCK_NAME, Duration.ofMillis(lockMs))) {
+            return;
+        }
+
+        try {
+            List<EmailOutbox> due = emailOutboxRepository.findDue(EmailOutboxStatus.PENDING, System.currentTimeMillis(), PageRequest.of(0, batchSize));
+            if (!due.isEmpty()) {
+                //un blocco per thread, ognuno spedito su una sola connessione SMTP del pool
+                //aspetta tutti i blocchi prima di rilasciare il lock: nessuna email viene presa due volte
+                int chunkSize = (due.size() + threads - 1) / threads;
+                List<Callable<Void>> deliveries = new ArrayList<>();
+                for (int from = 0; from < due.size(); from += chunkSize) {
+                    List<EmailOutbox> chunk = due.subList(from, Math.min(from + chunkSize, due.size()));
+                    deliveries.add(() -> {
+                        deliver(chunk);
+                        return null;
+                    });
+                }
+                executorService.invokeAll(deliveries);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            databaseLock.release(LOCK_NAME);
+        }
+    }
+
+    //due COUNT sulla tabella: con il polling a 1 s li faremmo ad ogni giro, qui bastano i tempi dello scrape
+    @Scheduled(fixedDelayString = "${spring.app.emailOutboxGaugeRefreshMs:60000}")
+    public void refreshGauges() {
+        pending.set(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING));
+        dead.set(emailOutboxRepository.countByStatus(EmailOutboxStatus.DEAD));
+    }
+
+    private void deliver(List<EmailOutbox> emails) {
+        List<SimpleMailMessage> messages = emails.stream()
+                .map(email -> {
+                    SimpleMailMessage message = new SimpleMailMessage();
+                    message.setTo(email.getRecipient());
+                    message.setSubject(email.getSubject());
+                    message.setText(email.getBody());
+                    return message;
+                })
+                .toList();
+
+        Map<Integer, Exception> failures = pooledSmtpEmailSender.sendAll(messages);
+        for (int i = 0; i < emails.size(); i++) {
+            EmailOutbox email = emails.get(i);
+            Exception failure = failures.get(i);
+            if (failure == null) {
+                emailOutboxRepository.deleteById(email.getId());
+                sent.increment();
+            } else {
+                fail(email, failure);
+            }
+        }
+    }
+
+    private void fail(EmailOutbox email, Exception e) {
+        int attempts = email.getAttempts() + 1;
+        EmailOutbox.EmailOutboxBuilder failed = email.toBuilder()
+                .attempts(attempts)
+                .lastError(truncate(e.toString()));
+        if (attempts >= maxAttempts) {
+            log.error("Email {} to {} dead-lettered after {} attempts", email.getId(), email.getRecipient(), attempts, e);
+            emailOutboxRepository.save(failed.status(EmailOutboxStatus.DEAD).build());
+            deadLettered.increment();
+        } else {
+            log.warn("Email {} to {} failed, attempt {} of {}", email.getId(), email.getRecipient(), attempts, maxAttempts);
+            emailOutboxRepository.save(failed.nextAttemptAt(System.currentTimeMillis() + backoff(attempts)).build());
+            retried.increment();
+        }
+    }
+
+    private long backoff(int attempts) {
+        long delay = backoffMs << Math.min(attempts - 1, 30);
+        return Math.min(delay, maxBackoffMs);
+    }
+
+    private String truncate(String error) {
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
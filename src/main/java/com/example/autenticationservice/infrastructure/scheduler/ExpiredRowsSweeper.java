@@ -0,0 +1,111 @@
+package com.example.autenticationservice.infrastructure.scheduler;
+
+import com.example.autenticationservice.domain.model.EmailOutboxStatus;
+import com.example.autenticationservice.infrastructure.repository.EmailOutboxRepository;
+import com.example.autenticationservice.infrastructure.repository.OtpRepository;
+import com.example.autenticationservice.infrastructure.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+//Cancella periodicamente le righe che non servono più:
+//- Otp scaduti da più di purgeRetentionMs + otpPurgeGraceMs: nel margine chi arriva tardi riceve ancora "OTP expired"
+//  e non "Invalid Session"; Otp invalidati da più di purgeRetentionMs. Due SELECT separate, ognuna sul suo indice
+//- RefreshToken scaduti da più di purgeRetentionMs (quelli revocati ma non scaduti restano come storico fino alla scadenza)
+//- EmailOutbox DEAD con l'ultimo tentativo più vecchio di emailOutboxDeadRetentionMs: il corpo contiene il codice OTP
+//Le cancellazioni vanno a blocchi di purgeBatchSize righe e al massimo purgeMaxBatches blocchi per tabella,
+//così ogni transazione resta corta e lo sweep finisce entro la durata del lock
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class ExpiredRowsSweeper {
+    public static final String LOCK_NAME = "expiredRowsSweeper";
+
+    private final OtpRepository otpRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final DatabaseLock databaseLock;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.app.purgeRetentionMs:0}")
+    private long retentionMs;
+
+    @Value("${spring.app.otpPurgeGraceMs:300000}")
+    private long otpGraceMs;
+
+    @Value("${spring.app.emailOutboxDeadRetentionMs:604800000}")
+    private long deadEmailRetentionMs;
+
+    @Value("${spring.app.purgeBatchSize:500}")
+    private int batchSize;
+
+    @Value("${spring.app.purgeMaxBatches:100}")
+    private int maxBatches;
+
+    @Value("${spring.app.purgeLockMs:600000}")
+    private long lockMs;
+
+    @Scheduled(fixedDelayString = "${spring.app.purgeIntervalMs:3600000}", initialDelayString = "${spring.app.purgeIntervalMs:3600000}")
+    public void sweep() {
+        if (!databaseLock.tryAcquire(LOCK_NAME, Duration.ofMillis(lockMs))) {
+            log.debug("Sweep skipped, lock held by another instance");
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            long otpCutoff = System.currentTimeMillis() - retentionMs;
+            long otpPurged = purge("otp",
+                    () -> otpRepository.findExpiredIds(otpCutoff - otpGraceMs, PageRequest.of(0, batchSize)),
+                    otpRepository::deleteAllByIdInBatch);
+            otpPurged += purge("otp",
+                    () -> otpRepository.findInvalidatedIds(otpCutoff, PageRequest.of(0, batchSize)),
+                    otpRepository::deleteAllByIdInBatch);
+
+            LocalDateTime refreshTokenCutoff = LocalDateTime.now().minus(Duration.ofMillis(retentionMs));
+            long refreshTokenPurged = purge("refresh_token",
+                    () -> refreshTokenRepository.findPurgeableIds(refreshTokenCutoff, PageRequest.of(0, batchSize)),
+                    refreshTokenRepository::deleteAllByIdInBatch);
+
+            long deadEmailCutoff = System.currentTimeMillis() - deadEmailRetentionMs;
+            long deadEmailPurged = purge("email_outbox",
+                    () -> emailOutboxRepository.findPurgeableIds(EmailOutboxStatus.DEAD, deadEmailCutoff, PageRequest.of(0, batchSize)),
+                    emailOutboxRepository::deleteAllByIdInBatch);
+            log.info("Sweep completed: {} otp, {} refresh tokens and {} dead emails deleted", otpPurged, refreshTokenPurged, deadEmailPurged);
+        } finally {
+            sample.stop(meterRegistry.timer("purge.sweep.duration"));
+            databaseLock.release(LOCK_NAME);
+        }
+    }
+
+    //ogni blocco è una SELECT degli id limitata a batchSize più una DELETE ... WHERE id IN (...)
+    private long purge(String table, Supplier<List<Integer>> findPurgeableIds, Consumer<List<Integer>> deleteByIds) {
+        Counter purged = meterRegistry.counter("purge.rows", "table", table);
+        long total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            List<Integer> ids = findPurgeableIds.get();
+            if (ids.isEmpty()) {
+                break;
+            }
+            deleteByIds.accept(ids);
+            purged.increment(ids.size());
+            total += ids.size();
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.autenticationservice.infrastructure.scheduler;
+
+import com.example.autenticationservice.domain.repository.UserServiceRepo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//Quanti utenti hanno ancora la password in SHA-1: scende man mano che fanno login e l'hash viene ricalcolato
+//Quando arriva a zero il fallback SHA-1 di PasswordHasher si può togliere
+//Il conteggio è aggiornato ogni passwordLegacyCountMs, così lo scrape delle metriche non interroga il database
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class LegacyPasswordGauge {
+
+    private final UserServiceRepo userServiceRepo;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong legacyPasswords = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("users.password.legacy", legacyPasswords, AtomicLong::get)
+                .description("Utenti con la password ancora in SHA-1")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.passwordLegacyCountMs:300000}")
+    public void refresh() {
+        legacyPasswords.set(userServiceRepo.countLegacyPasswords());
+        log.debug("Users with legacy password hash: {}", legacyPasswords.get());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.autenticationservice.infrastructure.service.impl;
+
+import com.example.autenticationservice.domain.model.Otp;
+import com.example.autenticationservice.domain.repository.OtpServiceRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+//OTP tenuti in memoria per sessionId invece che su Oracle (spring.app.otpStore: memory)
+//Ogni voce viene rimossa da sola a expiresAt + otpMemoryGraceMs: il margine permette ancora di rispondere "OTP expired"
+//e di fare il resend su una sessione appena scaduta, come con il database
+//Gli OTP non sopravvivono a un riavvio e non sono condivisi tra istanze: con più nodi serve la sticky session sul login
+@Service
+@Log4j2
+@ConditionalOnProperty(name = "spring.app.otpStore", havingValue = "memory")
+public class InMemoryOtpServiceImpl implements OtpServiceRepo {
+
+    @Value("${spring.app.otpMemoryMaxSize:100000}")
+    private long maximumSize;
+
+    @Value("${spring.app.otpMemoryGraceMs:300000}")
+    private long graceMs;
+
+    //solo gli OTP validi, uno per sessione
+    private Cache<String, Otp> otpBySessionId;
+
+    @PostConstruct
+    public void init() {
+        otpBySessionId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Otp>() {
+                    @Override
+                    public long expireAfterCreate(String sessionId, Otp otp, long currentTime) {
+                        return remainingNanos(otp);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String sessionId, Otp otp, long currentTime, long currentDuration) {
+                        return remainingNanos(otp);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String sessionId, Otp otp, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        log.info("OTP store: in memory, max {} entries", maximumSize);
+    }
+
+    private long remainingNanos(Otp otp) {
+        long remainingMs = otp.getExpiresAt() + graceMs - System.currentTimeMillis();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+    }
+
+    //salviamo sempre una copia: chi chiama modifica l'oggetto (es. i tentativi) e poi chiama updateOtp, come con JPA
+    @Override
+    public void saveOtp(Otp otp) {
+        otpBySessionId.put(otp.getSessionId(), otp.toBuilder().build());
+    }
+
+    @Override
+    public void updateOtp(Otp otp) {
+        if (!otp.isValid()) {
+            invalidateOtp(otp);
+            return;
+        }
+        otpBySessionId.asMap().computeIfPresent(otp.getSessionId(),
+                (sessionId, stored) -> sameOtp(stored, otp) ? otp.toBuilder().build() : stored);
+    }
+
+    @Override
+    public Optional<Otp> getValidOtpBySessionId(String sessionId) {
+        return Optional.ofNullable(otpBySessionId.getIfPresent(sessionId))
+                .map(otp -> otp.toBuilder().build());
+    }
+
+    //rimuove la voce solo se è ancora lo stesso OTP, così un resend concorrente non viene cancellato
+    @Override
+    public void invalidateOtp(Otp otp) {
+        otpBySessionId.asMap().computeIfPresent(otp.getSessionId(),
+                (sessionId, stored) -> sameOtp(stored, otp) ? null : stored);
+    }
+
+    private boolean sameOtp(Otp stored, Otp otp) {
+        return stored.getOtp().equals(otp.getOtp()) && stored.getCreatedAt() == otp.getCreatedAt();
+    }
+
+    long size() {
+        otpBySessionId.cleanUp();
+        return otpBySessionId.estimatedSize();
+    }
+}
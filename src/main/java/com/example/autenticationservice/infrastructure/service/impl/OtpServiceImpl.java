@@ -4,11 +4,13 @@ import com.example.autenticationservice.domain.repository.OtpServiceRepo;
 import com.example.autenticationservice.domain.model.Otp;
 import com.example.autenticationservice.infrastructure.repository.OtpRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
 
 @Service //sempre un servizio
+@ConditionalOnProperty(name = "spring.app.otpStore", havingValue = "jpa", matchIfMissing = true) //implementazione di default
 @RequiredArgsConstructor
 public class OtpServiceImpl implements OtpServiceRepo {
     private final OtpRepository otpRepository;
@@ -30,6 +32,6 @@ public class OtpServiceImpl implements OtpServiceRepo {
 
     @Override
     public void invalidateOtp(Otp otp) {
-        otpRepository.invalidateOtp(otp.getOtp());
+        otpRepository.invalidateOtp(otp.getId());
     }
 }
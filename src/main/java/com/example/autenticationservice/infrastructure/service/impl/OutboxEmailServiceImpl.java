@@ -0,0 +1,31 @@
+package com.example.autenticationservice.infrastructure.service.impl;
+
+import com.example.autenticationservice.domain.api.EmailService;
+import com.example.autenticationservice.domain.model.EmailOutbox;
+import com.example.autenticationservice.domain.model.EmailOutboxStatus;
+import com.example.autenticationservice.infrastructure.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+//EmailService usato dal dominio: non apre connessioni SMTP, accoda l'email nella tabella EmailOutbox
+//nella transazione del chiamante (firstStepLogin, resendOtp), così se il login fa rollback l'email non parte
+//L'invio vero e proprio lo fa EmailOutboxDispatcher, a blocchi sulle connessioni di PooledSmtpEmailSender
+@Service
+@RequiredArgsConstructor
+public class OutboxEmailServiceImpl implements EmailService {
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    @Override
+    public void sendEmail(String to, String subject, String body) {
+        long now = System.currentTimeMillis();
+        emailOutboxRepository.save(EmailOutbox.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(body)
+                .status(EmailOutboxStatus.PENDING)
+                .attempts(0)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
+    }
+}
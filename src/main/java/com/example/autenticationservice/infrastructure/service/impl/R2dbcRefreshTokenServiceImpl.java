@@ -0,0 +1,120 @@
+package com.example.autenticationservice.infrastructure.service.impl;
+
+import com.example.autenticationservice.domain.model.RefreshToken;
+import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.repository.RefreshTokenServiceRepo;
+import com.example.autenticationservice.domain.util.HashUtil;
+import com.example.autenticationservice.infrastructure.repository.RefreshTokenRepository;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+//Refresh token con la lettura di /token/refresh su R2DBC (spring.app.refreshTokenStore: r2dbc)
+//Scritture e letture bloccanti restano su JPA come in RefreshTokenServiceImpl: l'INSERT del login partecipa alla transazione
+//di secondStepLogin e un rollback non lascia righe di token mai consegnati
+//findRefreshToken legge la stessa tabella refresh_token con un pool R2DBC suo e non occupa nessun thread mentre aspetta il database
+@Service
+@ConditionalOnProperty(name = "spring.app.refreshTokenStore", havingValue = "r2dbc")
+@RequiredArgsConstructor
+@Log4j2
+@DependsOn("refreshTokenHashMigration") //le ricerche sono per hash, dopo la migrazione delle righe vecchie
+public class R2dbcRefreshTokenServiceImpl implements RefreshTokenServiceRepo {
+    private static final String COLUMNS = "id, users_id, refresh_token_hash, created_at, expire_date, valid";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final HashUtil hashUtil;
+
+    @Value("${spring.app.r2dbcUrl}")
+    private String url;
+
+    @Value("${spring.app.r2dbcUsername}")
+    private String username;
+
+    @Value("${spring.app.r2dbcPassword}")
+    private String password;
+
+    @Value("${spring.app.r2dbcPoolSize:10}")
+    private int poolSize;
+
+    @Value("${spring.app.r2dbcTimeoutMs:5000}")
+    private long timeoutMs;
+
+    private ConnectionPool connectionPool;
+    private DatabaseClient databaseClient;
+
+    @PostConstruct
+    public void init() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(poolSize)
+                .build());
+        databaseClient = DatabaseClient.create(connectionPool);
+        log.info("Refresh token reads: r2dbc, pool of {} connections", poolSize);
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionPool.dispose();
+    }
+
+    @Override
+    public void addRefreshToken(RefreshToken refreshToken) {
+        //a db va solo l'impronta a lunghezza fissa, indicizzata univoca
+        refreshToken.setRefreshTokenHash(hashUtil.stringToSha256(refreshToken.getRefreshToken()));
+        refreshTokenRepository.save(refreshToken);
+    }
+
+    @Override
+    public Optional<RefreshToken> getRefreshToken(String refreshToken) {
+        return refreshTokenRepository.findByRefreshTokenHash(hashUtil.stringToSha256(refreshToken))
+                .map(found -> {
+                    found.setRefreshToken(refreshToken); //campo transient, lo ripopoliamo col token cercato
+                    return found;
+                });
+    }
+
+    @Override
+    public Mono<RefreshToken> findRefreshToken(String refreshToken) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM refresh_token WHERE refresh_token_hash = :refreshTokenHash")
+                .bind("refreshTokenHash", hashUtil.stringToSha256(refreshToken))
+                .map(row -> toRefreshToken(row, refreshToken))
+                .one()
+                .timeout(Duration.ofMillis(timeoutMs));
+    }
+
+    @Override
+    public void invalidateRefreshToken(String refreshTokenString) {
+        refreshTokenRepository.invalidateRefreshToken(hashUtil.stringToSha256(refreshTokenString));
+    }
+
+    private RefreshToken toRefreshToken(Readable row, String refreshToken) {
+        return RefreshToken.builder()
+                .id(row.get("id", Integer.class))
+                .user(User.builder().id(row.get("users_id", Integer.class)).build()) //solo l'id, come il proxy LAZY di JPA
+                .refreshToken(refreshToken) //campo transient, lo ripopoliamo col token cercato
+                .refreshTokenHash(row.get("refresh_token_hash", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .expireDate(row.get("expire_date", LocalDateTime.class))
+                .valid(row.get("valid", Boolean.class))
+                .build();
+    }
+}
@@ -2,29 +2,51 @@ package com.example.autenticationservice.infrastructure.service.impl;
 
 import com.example.autenticationservice.domain.repository.RefreshTokenServiceRepo;
 import com.example.autenticationservice.domain.model.RefreshToken;
+import com.example.autenticationservice.domain.util.HashUtil;
 import com.example.autenticationservice.infrastructure.repository.RefreshTokenRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.Optional;
 
 @Service
+@ConditionalOnProperty(name = "spring.app.refreshTokenStore", havingValue = "jpa", matchIfMissing = true) //implementazione di default
 @RequiredArgsConstructor
+@DependsOn("refreshTokenHashMigration") //le ricerche sono per hash, dopo la migrazione delle righe vecchie
 public class RefreshTokenServiceImpl implements RefreshTokenServiceRepo {
     private final RefreshTokenRepository refreshTokenRepository;
+    private final HashUtil hashUtil;
 
     @Override
     public void addRefreshToken(RefreshToken refreshToken) {
+        //a db va solo l'impronta a lunghezza fissa, indicizzata univoca
+        refreshToken.setRefreshTokenHash(hashUtil.stringToSha256(refreshToken.getRefreshToken()));
         refreshTokenRepository.save(refreshToken);
     }
 
     @Override
     public Optional<RefreshToken> getRefreshToken(String refreshToken) {
-        return refreshTokenRepository.findByRefreshToken(refreshToken);
+        return refreshTokenRepository.findByRefreshTokenHash(hashUtil.stringToSha256(refreshToken))
+                .map(found -> {
+                    found.setRefreshToken(refreshToken); //campo transient, lo ripopoliamo col token cercato
+                    return found;
+                });
+    }
+
+    //JDBC non ha letture non bloccanti: la query gira su boundedElastic, chi si sottoscrive non resta fermo ad aspettarla
+    //Per non occupare nessun thread durante l'attesa serve refreshTokenStore: r2dbc
+    @Override
+    public Mono<RefreshToken> findRefreshToken(String refreshToken) {
+        return Mono.fromCallable(() -> getRefreshToken(refreshToken).orElse(null))
+                .subscribeOn(Schedulers.boundedElastic());
     }
 
     @Override
     public void invalidateRefreshToken(String refreshTokenString) {
-        refreshTokenRepository.invalidateRefreshToken(refreshTokenString);
+        refreshTokenRepository.invalidateRefreshToken(hashUtil.stringToSha256(refreshTokenString));
     }
 }
@@ -3,18 +3,34 @@ package com.example.autenticationservice.infrastructure.service.impl;
 import com.example.autenticationservice.domain.repository.UserServiceRepo;
 import com.example.autenticationservice.domain.exceptions.CredentialTakenException;
 import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.model.UserSummary;
+import com.example.autenticationservice.domain.util.PasswordHasher;
 import com.example.autenticationservice.infrastructure.repository.UserRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceRepoImpl implements UserServiceRepo {
     private final UserRepository userRepository;
+
+    //limite in secondi di una lettura in streaming (export, lista completa, ricostruzione dei filtri), 0 = nessun limite
+    @Value("${spring.app.userStreamTimeoutSeconds:300}")
+    private int streamTimeoutSeconds;
 //userEntity per staccare?
     @Override
     public Optional<User> getUserByUsername(String username) {
@@ -22,34 +38,138 @@ public class UserServiceRepoImpl implements UserServiceRepo {
     }
 
     @Override
-    public Optional<User> getUserByUsernameAndPassword(String username, String password) {
-        return userRepository.findByUsernameAndPassword(username, password);
+    public Optional<UserSummary> getUserSummaryByUsername(String username) {
+        return userRepository.findSummaryByUsername(username);
     }
 
+    //nessuna SELECT preventiva: decidono i vincoli univoci su username ed email, anche con registrazioni contemporanee
+    //saveAndFlush fa partire subito l'INSERT, così la violazione arriva qui e non al commit
     @Override
     @Transactional
     public void register(User user) {
-        Optional<User> existingUserByUsername = userRepository.findByUsername(user.getUsername());
-        Optional<User> existingUserByEmail = userRepository.findByEmail(user.getEmail());
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateViolation(e);
+        }
+    }
 
-        if (existingUserByUsername.isPresent() && existingUserByEmail.isPresent()) {
-            throw new CredentialTakenException("Username and email already exists");
+    //un blocco dell'import massivo in una transazione: con hibernate.jdbc.batch_size le INSERT partono a gruppi
+    //se qualcuno ha registrato nel frattempo uno degli username o delle email il blocco intero va in rollback
+    @Override
+    @Transactional
+    public void registerAll(List<User> users) {
+        try {
+            userRepository.saveAll(users);
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw translateViolation(e);
         }
+    }
 
-        if (existingUserByUsername.isPresent()) {
-            throw new CredentialTakenException("Username is already taken");
+    @Override
+    public Set<String> getTakenUsernames(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return Set.of();
         }
+        return userRepository.findTakenUsernames(usernames);
+    }
 
-        if (existingUserByEmail.isPresent()) {
-            throw new CredentialTakenException("Email is already taken");
+    @Override
+    public Set<String> getTakenEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
         }
+        return userRepository.findTakenEmails(emails);
+    }
 
-        userRepository.save(user);
+    //il nome del vincolo violato dice quale credenziale è già presa
+    //(Oracle lo riporta come SCHEMA.NOME, H2 come nome dell'indice con un suffisso)
+    //restituisce l'eccezione da lanciare: CredentialTakenException, oppure quella originale per gli altri vincoli
+    private RuntimeException translateViolation(DataIntegrityViolationException e) {
+        String constraintName = e.getCause() instanceof ConstraintViolationException constraintViolation
+                ? constraintViolation.getConstraintName()
+                : null;
+        if (constraintName == null) {
+            return e;
+        }
+        String name = constraintName.toUpperCase();
+        if (name.contains(User.USERNAME_CONSTRAINT)) {
+            return new CredentialTakenException("Username is already taken");
+        }
+        if (name.contains(User.EMAIL_CONSTRAINT)) {
+            return new CredentialTakenException("Email is already taken");
+        }
+        return e;
+    }
+
+    @Override
+    @Transactional
+    public void updatePassword(Integer id, String password) {
+        userRepository.updatePassword(id, password);
     }
 
+    //utenti con la password ancora nel vecchio formato SHA-1, cioè senza il prefisso di PasswordHasher
     @Override
-    public List<User> getUserList(){
-        return userRepository.findAll();
+    public long countLegacyPasswords() {
+        return userRepository.countByPasswordNotLike(PasswordHasher.PREFIX + "$%");
+    }
+
+    @Override
+    public long countUsers() {
+        return userRepository.count();
+    }
+
+    @Override
+    public boolean isUsernameTaken(String username) {
+        return userRepository.existsByUsername(username);
+    }
+
+    @Override
+    public boolean isEmailTaken(String email) {
+        return userRepository.existsByEmail(email);
+    }
+
+    //after null = prima pagina (su Oracle la stringa vuota è NULL, quindi niente "username > ''")
+    @Override
+    public List<String> getUsernames(String after, int limit){
+        if (after == null) {
+            return userRepository.findUsernames(Limit.of(limit));
+        }
+        return userRepository.findUsernamesAfter(after, Limit.of(limit));
+    }
+
+    //la transazione resta aperta per tutta la lettura: lo stream tiene il cursore JDBC sulla connessione
+    //il timeout della transazione diventa il query timeout degli statement, ma non conta il tempo passato a scrivere
+    //verso un client lento: per quello si controlla la scadenza ad ogni riga e si interrompe la lettura
+    @Override
+    @Transactional(readOnly = true, timeoutString = "${spring.app.userStreamTimeoutSeconds:300}")
+    public void forEachUsername(Consumer<String> action){
+        try (Stream<String> usernames = userRepository.streamUsernames()) {
+            forEachWithinTimeout(usernames, action);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true, timeoutString = "${spring.app.userStreamTimeoutSeconds:300}")
+    public void forEachEmail(Consumer<String> action){
+        try (Stream<String> emails = userRepository.streamEmails()) {
+            forEachWithinTimeout(emails, action);
+        }
+    }
+
+    private void forEachWithinTimeout(Stream<String> values, Consumer<String> action) {
+        if (streamTimeoutSeconds <= 0) {
+            values.forEach(action);
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(streamTimeoutSeconds);
+        values.forEach(value -> {
+            if (System.nanoTime() - deadline > 0) {
+                throw new TransactionTimedOutException("Streaming read exceeded " + streamTimeoutSeconds + " seconds");
+            }
+            action.accept(value);
+        });
     }
 
 }
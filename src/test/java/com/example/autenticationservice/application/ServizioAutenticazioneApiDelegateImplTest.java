@@ -2,9 +2,13 @@ package com.example.autenticationservice.application;
 
 import com.example.autenticationService.generated.application.model.*;
 import com.example.autenticationservice.application.mapper.AutenticationMappers;
-import com.example.autenticationservice.application.service.JwtServiceImpl;
+import com.example.autenticationservice.application.jwt.AccessTokenApp;
+import com.example.autenticationservice.application.jwt.RefreshTokenApp;
+import com.example.autenticationservice.domain.model.GetUsernameAvailableResponse;
+import com.example.autenticationservice.domain.model.GetUsernameListResponse;
 import com.example.autenticationservice.domain.model.GetUsernameResponse;
 import com.example.autenticationservice.domain.model.autentication.*;
+import com.example.autenticationservice.domain.model.jwks.GetJwksResponse;
 import com.example.autenticationservice.domain.model.register.StepRegisterRequest;
 import com.example.autenticationservice.domain.model.register.StepRegisterResponse;
 import com.example.autenticationservice.domain.model.verifyToken.GetAccessTokenByRefreshTokenRequest;
@@ -12,7 +16,9 @@ import com.example.autenticationservice.domain.model.verifyToken.GetAccessTokenB
 import com.example.autenticationservice.domain.model.verifyToken.VerifyTokenResponse;
 import com.example.autenticationservice.domain.service.AutenticationService;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -22,6 +28,9 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -41,7 +50,24 @@ public class ServizioAutenticazioneApiDelegateImplTest {
     private AutenticationService autenticationService;
 
     @Mock
-    private JwtServiceImpl  jwtServiceImpl;
+    private AccessTokenApp accessTokenApp;
+
+    @Mock
+    private RefreshTokenApp refreshTokenApp;
+
+    private MockHttpServletRequest httpServletRequest;
+
+    @BeforeEach
+    void setUp() {
+        //richiesta corrente come la vede il controller dentro DispatcherServlet
+        httpServletRequest = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(httpServletRequest));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
 
     @Test
     void shouldRegister_whenAllOk(){
@@ -129,13 +155,15 @@ public class ServizioAutenticazioneApiDelegateImplTest {
         VerifyOTPRequest verifyOtpRequest = new VerifyOTPRequest();
         SecondStepLoginRequest request = new SecondStepLoginRequest();
         SecondStepLoginResponse response = new SecondStepLoginResponse();
+        response.setAccessToken("accessToken");
+        response.setRefreshToken("refreshToken");
+        ResponseCookie refreshCookie = ResponseCookie.from("jwtRefreshCookie", "refreshToken").path("api/").httpOnly(true).build();
         VerifyOTP200Response convertedResponse = new VerifyOTP200Response();
 
         //MOCK
         doReturn(request).when(autenticationMappers).convertToDomain(verifyOtpRequest);
         doReturn(response).when(autenticationService).secondStepLogin(request);
-        doNothing().when(jwtServiceImpl).setAuthorizationHeader(response.getAccessToken());
-        doNothing().when(jwtServiceImpl).generateRefreshCookie(response.getRefreshToken());
+        doReturn(refreshCookie).when(refreshTokenApp).generateCookie("refreshToken");
         doReturn(convertedResponse).when(autenticationMappers).convertFromDomain(response);
 
         //TEST
@@ -147,9 +175,11 @@ public class ServizioAutenticazioneApiDelegateImplTest {
         Assertions.assertEquals(convertedResponse, result.getBody());
 
         verify(autenticationMappers).convertToDomain(verifyOtpRequest);
+        Assertions.assertEquals("Bearer accessToken", result.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        Assertions.assertEquals(refreshCookie.toString(), result.getHeaders().getFirst(HttpHeaders.SET_COOKIE));
+
         verify(autenticationService).secondStepLogin(request);
-        verify(jwtServiceImpl).setAuthorizationHeader(response.getAccessToken());
-        verify(jwtServiceImpl).generateRefreshCookie(response.getRefreshToken());
+        verify(refreshTokenApp).generateCookie("refreshToken");
         verify(autenticationMappers).convertFromDomain(response);
     }
 
@@ -179,7 +209,7 @@ public class ServizioAutenticazioneApiDelegateImplTest {
     }
 
     @Test
-    void shouldThrowException_whenVerifyOtpSetAuthorizationHeaderThrowsException() {
+    void shouldThrowException_whenVerifyOtpGenerateCookieThrowsException() {
         //PARAMETERS
         VerifyOTPRequest verifyOtpRequest = new VerifyOTPRequest();
         SecondStepLoginRequest request = new SecondStepLoginRequest();
@@ -188,7 +218,7 @@ public class ServizioAutenticazioneApiDelegateImplTest {
         //MOCK
         doReturn(request).when(autenticationMappers).convertToDomain(verifyOtpRequest);
         doReturn(response).when(autenticationService).secondStepLogin(request);
-        doThrow(RuntimeException.class).when(jwtServiceImpl).setAuthorizationHeader(response.getAccessToken());
+        doThrow(RuntimeException.class).when(refreshTokenApp).generateCookie(response.getRefreshToken());
 
         //TEST + RESULTS
         Assertions.assertThrows(RuntimeException.class, () ->
@@ -260,8 +290,11 @@ public class ServizioAutenticazioneApiDelegateImplTest {
         VerifyTokenResponse response = new VerifyTokenResponse();
         VerifyToken200Response convertedResponse = new VerifyToken200Response();
 
+        httpServletRequest.addHeader(HttpHeaders.AUTHORIZATION, "Bearer accessToken");
+
         //MOCK
-        doReturn(response).when(autenticationService).verifyToken();
+        doReturn("accessToken").when(accessTokenApp).getAccessJwtFromHeader("Bearer accessToken");
+        doReturn(response).when(autenticationService).verifyToken("accessToken");
         doReturn(convertedResponse).when(autenticationMappers).convertFromDomain(response);
 
         //TEST
@@ -272,22 +305,22 @@ public class ServizioAutenticazioneApiDelegateImplTest {
         Assertions.assertEquals(HttpStatus.OK, result.getStatusCode());
         Assertions.assertEquals(convertedResponse, result.getBody());
 
-        verify(autenticationMappers).convertFromDomain(response);
-        verify(autenticationService).verifyToken();
+        verify(accessTokenApp).getAccessJwtFromHeader("Bearer accessToken");
+        verify(autenticationService).verifyToken("accessToken");
         verify(autenticationMappers).convertFromDomain(response);
     }
 
     @Test
     void shouldThrowException_whenVerifyTokenFails() {
         //MOCK
-        doThrow(RuntimeException.class).when(autenticationService).verifyToken();
+        doThrow(RuntimeException.class).when(autenticationService).verifyToken(null);
 
         //TEST + RESULTS
         Assertions.assertThrows(RuntimeException.class, () ->
                 servizioAutenticazioneApiDelegateImpl.verifyToken()
         );
 
-        verify(autenticationService).verifyToken();
+        verify(autenticationService).verifyToken(null);
         verifyNoMoreInteractions(autenticationService, autenticationMappers);
     }
 
@@ -297,12 +330,13 @@ public class ServizioAutenticazioneApiDelegateImplTest {
         RefreshTokenRequest refreshTokenRequest = new RefreshTokenRequest();
         GetAccessTokenByRefreshTokenRequest request = new GetAccessTokenByRefreshTokenRequest();
         GetAccessTokenByRefreshTokenResponse response = new GetAccessTokenByRefreshTokenResponse();
+        response.setAccessToken("accessToken");
         RefreshToken200Response convertedResponse = new RefreshToken200Response();
 
         //MOCK
         doReturn(request).when(autenticationMappers).convertToDomain(refreshTokenRequest);
-        doReturn(response).when(autenticationService).getNewAccessToken(request);
-        doNothing().when(jwtServiceImpl).setAuthorizationHeader(response.getAccessToken());
+        doReturn("refreshToken").when(refreshTokenApp).getJwtFromCookie(httpServletRequest);
+        doReturn(response).when(autenticationService).getNewAccessToken(request, "refreshToken");
         doReturn(convertedResponse).when(autenticationMappers).convertFromDomain(response);
 
         //TEST
@@ -314,8 +348,10 @@ public class ServizioAutenticazioneApiDelegateImplTest {
         Assertions.assertEquals(convertedResponse, result.getBody());
 
         verify(autenticationMappers).convertToDomain(refreshTokenRequest);
-        verify(autenticationService).getNewAccessToken(request);
-        verify(jwtServiceImpl).setAuthorizationHeader(response.getAccessToken());
+        Assertions.assertEquals("Bearer accessToken", result.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+
+        verify(refreshTokenApp).getJwtFromCookie(httpServletRequest);
+        verify(autenticationService).getNewAccessToken(request, "refreshToken");
         verify(autenticationMappers).convertFromDomain(response);
     }
 
@@ -336,7 +372,7 @@ public class ServizioAutenticazioneApiDelegateImplTest {
 
         //MOCK
         doReturn(request).when(autenticationMappers).convertToDomain(refreshTokenRequest);
-        doReturn(null).when(autenticationService).getNewAccessToken(request);
+        doReturn(null).when(autenticationService).getNewAccessToken(request, null);
 
         //TEST + RESULTS
         Assertions.assertThrows(NullPointerException.class, () ->
@@ -345,16 +381,14 @@ public class ServizioAutenticazioneApiDelegateImplTest {
     }
 
     @Test
-    void shouldThrowException_whenRefreshTokenSetAuthorizationHeaderThrowsException() {
+    void shouldThrowException_whenRefreshTokenGetJwtFromCookieThrowsException() {
         //PARAMETERS
         RefreshTokenRequest refreshTokenRequest = new RefreshTokenRequest();
         GetAccessTokenByRefreshTokenRequest request = new GetAccessTokenByRefreshTokenRequest();
-        GetAccessTokenByRefreshTokenResponse response = new GetAccessTokenByRefreshTokenResponse();
 
         //MOCK
         doReturn(request).when(autenticationMappers).convertToDomain(refreshTokenRequest);
-        doReturn(response).when(autenticationService).getNewAccessToken(request);
-        doThrow(RuntimeException.class).when(jwtServiceImpl).setAuthorizationHeader(response.getAccessToken());
+        doThrow(RuntimeException.class).when(refreshTokenApp).getJwtFromCookie(httpServletRequest);
 
         //TEST + RESULTS
         Assertions.assertThrows(RuntimeException.class, () ->
@@ -371,7 +405,7 @@ public class ServizioAutenticazioneApiDelegateImplTest {
 
         //MOCK
         doReturn(request).when(autenticationMappers).convertToDomain(refreshTokenRequest);
-        doReturn(response).when(autenticationService).getNewAccessToken(request);
+        doReturn(response).when(autenticationService).getNewAccessToken(request, null);
         doThrow(RuntimeException.class).when(autenticationMappers).convertFromDomain(response);
 
         //TEST + RESULTS
@@ -388,8 +422,9 @@ public class ServizioAutenticazioneApiDelegateImplTest {
         Logout200Response convertedResponse = new Logout200Response();
 
         //MOCK
-        doReturn(response).when(autenticationService).logout();
-        doReturn(cleanRefreshCookie).when(jwtServiceImpl).getCleanJwtCookie();
+        doReturn("refreshToken").when(refreshTokenApp).getJwtFromCookie(httpServletRequest);
+        doReturn(response).when(autenticationService).logout("refreshToken");
+        doReturn(cleanRefreshCookie).when(refreshTokenApp).getCleanJwtCookie();
         doReturn(convertedResponse).when(autenticationMappers).convertFromDomain(response);
 
         //TEST
@@ -405,19 +440,19 @@ public class ServizioAutenticazioneApiDelegateImplTest {
         Assertions.assertEquals("", result.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
 
         verify(autenticationMappers).convertFromDomain(response);
-        verify(autenticationService).logout();
-        verify(jwtServiceImpl).getCleanJwtCookie();
+        verify(autenticationService).logout("refreshToken");
+        verify(refreshTokenApp).getCleanJwtCookie();
     }
 
     @Test
     void shouldThrowException_whenLogoutFails() {
         //MOCK
-        doThrow(RuntimeException.class).when(autenticationService).logout();
+        doThrow(RuntimeException.class).when(autenticationService).logout(null);
 
         //TEST + RESULTS
         Assertions.assertThrows(RuntimeException.class, () -> servizioAutenticazioneApiDelegateImpl.logout());
 
-        verify(autenticationService).logout();
+        verify(autenticationService).logout(null);
     }
 
     @Test
@@ -426,14 +461,14 @@ public class ServizioAutenticazioneApiDelegateImplTest {
         LogoutResponse response = new LogoutResponse();
 
         //MOCK
-        doReturn(response).when(autenticationService).logout();
-        doThrow(RuntimeException.class).when(jwtServiceImpl).getCleanJwtCookie();
+        doReturn(response).when(autenticationService).logout(null);
+        doThrow(RuntimeException.class).when(refreshTokenApp).getCleanJwtCookie();
 
         //TEST + RESULTS
         Assertions.assertThrows(RuntimeException.class, () -> servizioAutenticazioneApiDelegateImpl.logout());
 
-        verify(autenticationService).logout();
-        verify(jwtServiceImpl).getCleanJwtCookie();
+        verify(autenticationService).logout(null);
+        verify(refreshTokenApp).getCleanJwtCookie();
     }
 
     @Test
@@ -443,65 +478,135 @@ public class ServizioAutenticazioneApiDelegateImplTest {
         ResponseCookie cleanRefreshCookie = ResponseCookie.from("token", "").build();
 
         //MOCK
-        doReturn(response).when(autenticationService).logout();
-        doReturn(cleanRefreshCookie).when(jwtServiceImpl).getCleanJwtCookie();
+        doReturn(response).when(autenticationService).logout(null);
+        doReturn(cleanRefreshCookie).when(refreshTokenApp).getCleanJwtCookie();
         doThrow(RuntimeException.class).when(autenticationMappers).convertFromDomain(response);
 
         //TEST + RESULTS
         Assertions.assertThrows(RuntimeException.class, () -> servizioAutenticazioneApiDelegateImpl.logout());
 
-        verify(autenticationService).logout();
-        verify(jwtServiceImpl).getCleanJwtCookie();
+        verify(autenticationService).logout(null);
+        verify(refreshTokenApp).getCleanJwtCookie();
         verify(autenticationMappers).convertFromDomain(response);
     }
 
     @Test
     void shouldReturnUsernameList_whenAllOk(){
         //PARAMETERS
-        List<GetUsernameResponse> response =  List.of(new GetUsernameResponse());
+        List<GetUsernameResponse> usernames = List.of(new GetUsernameResponse());
+        GetUsernameListResponse response = GetUsernameListResponse.builder()
+                .usernames(usernames)
+                .nextCursor("usernameTest")
+                .build();
         List<GetUsernameList200ResponseInner> convertedResponse = List.of(new GetUsernameList200ResponseInner());
 
         //MOCK
-        doReturn(response).when(autenticationService).getUsername();
-        doReturn(convertedResponse.get(0)).when(autenticationMappers).convertFromDomain(response.get(0));
+        doReturn(response).when(autenticationService).getUsername("after", 10);
+        doReturn(convertedResponse).when(autenticationMappers).convertFromDomain(usernames);
 
         //TEST
-        ResponseEntity<List<GetUsernameList200ResponseInner>> result = servizioAutenticazioneApiDelegateImpl.getUsernameList();
+        ResponseEntity<List<GetUsernameList200ResponseInner>> result = servizioAutenticazioneApiDelegateImpl.getUsernameList("after", 10);
 
         //RESULT
         Assertions.assertNotNull(result);
         Assertions.assertEquals(HttpStatus.OK, result.getStatusCode());
         Assertions.assertEquals(convertedResponse, result.getBody());
+        Assertions.assertEquals("usernameTest", result.getHeaders().getFirst("X-Next-Cursor"));
 
-        verify(autenticationService).getUsername();
+        verify(autenticationService).getUsername("after", 10);
+    }
+
+    @Test
+    void shouldNotSetNextCursor_whenLastPage(){
+        //PARAMETERS
+        List<GetUsernameResponse> usernames = List.of(new GetUsernameResponse());
+        GetUsernameListResponse response = GetUsernameListResponse.builder()
+                .usernames(usernames)
+                .build();
+
+        //MOCK
+        doReturn(response).when(autenticationService).getUsername(null, 100);
+        doReturn(List.of(new GetUsernameList200ResponseInner())).when(autenticationMappers).convertFromDomain(usernames);
+
+        //TEST
+        ResponseEntity<List<GetUsernameList200ResponseInner>> result = servizioAutenticazioneApiDelegateImpl.getUsernameList(null, 100);
+
+        //RESULT
+        Assertions.assertEquals(HttpStatus.OK, result.getStatusCode());
+        Assertions.assertFalse(result.getHeaders().containsKey("X-Next-Cursor"));
     }
 
     @Test
     void shouldThrowException_whenGetUsernameListFails() {
         //MOCK
-        doThrow(RuntimeException.class).when(autenticationService).getUsername();
+        doThrow(RuntimeException.class).when(autenticationService).getUsername(null, 100);
 
         //TEST + RESULT
-        Assertions.assertThrows(RuntimeException.class, () -> servizioAutenticazioneApiDelegateImpl.getUsernameList());
+        Assertions.assertThrows(RuntimeException.class, () -> servizioAutenticazioneApiDelegateImpl.getUsernameList(null, 100));
 
-        verify(autenticationService).getUsername();
+        verify(autenticationService).getUsername(null, 100);
         verifyNoMoreInteractions(autenticationService, autenticationMappers);
     }
 
     @Test
     void shouldThrowException_whenGetUsernameListConversionFails() {
         //PARAMETERS
-        List<GetUsernameResponse> response = List.of(new GetUsernameResponse());
+        List<GetUsernameResponse> usernames = List.of(new GetUsernameResponse());
+        GetUsernameListResponse response = GetUsernameListResponse.builder()
+                .usernames(usernames)
+                .build();
 
         //MOCK
-        doReturn(response).when(autenticationService).getUsername();
-        doThrow(RuntimeException.class).when(autenticationMappers).convertFromDomain(any(GetUsernameResponse.class));
+        doReturn(response).when(autenticationService).getUsername(null, 100);
+        doThrow(RuntimeException.class).when(autenticationMappers).convertFromDomain(usernames);
 
         //TEST + RESULTS
-        Assertions.assertThrows(RuntimeException.class, () -> servizioAutenticazioneApiDelegateImpl.getUsernameList());
+        Assertions.assertThrows(RuntimeException.class, () -> servizioAutenticazioneApiDelegateImpl.getUsernameList(null, 100));
 
-        verify(autenticationService).getUsername();
-        verify(autenticationMappers).convertFromDomain(any(GetUsernameResponse.class));
+        verify(autenticationService).getUsername(null, 100);
+        verify(autenticationMappers).convertFromDomain(usernames);
         verifyNoMoreInteractions(autenticationService, autenticationMappers);
     }
+
+    @Test
+    void shouldGetJwks_whenAllOk(){
+        //PARAMETERS
+        GetJwksResponse response = new GetJwksResponse();
+        GetJwks200Response convertedResponse = new GetJwks200Response();
+
+        //MOCK
+        doReturn(response).when(autenticationService).getJwks();
+        doReturn(convertedResponse).when(autenticationMappers).convertFromDomain(response);
+
+        //TEST
+        ResponseEntity<GetJwks200Response> result = servizioAutenticazioneApiDelegateImpl.getJwks();
+
+        //RESULTS
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(HttpStatus.OK, result.getStatusCode());
+        Assertions.assertEquals(convertedResponse, result.getBody());
+        verify(autenticationService).getJwks();
+    }
+
+    @Test
+    void shouldGetUsernameAvailable_whenAllOk(){
+        //PARAMETERS
+        GetUsernameAvailableResponse response = GetUsernameAvailableResponse.builder()
+                .usernameAvailable(true)
+                .emailAvailable(false)
+                .build();
+        GetUsernameAvailable200Response convertedResponse = new GetUsernameAvailable200Response();
+
+        //MOCK
+        doReturn(response).when(autenticationService).getUsernameAvailable("usernameTest", "emailTest");
+        doReturn(convertedResponse).when(autenticationMappers).convertFromDomain(response);
+
+        //TEST
+        ResponseEntity<GetUsernameAvailable200Response> result = servizioAutenticazioneApiDelegateImpl.getUsernameAvailable("usernameTest", "emailTest");
+
+        //RESULTS
+        Assertions.assertEquals(HttpStatus.OK, result.getStatusCode());
+        Assertions.assertEquals(convertedResponse, result.getBody());
+        verify(autenticationService).getUsernameAvailable("usernameTest", "emailTest");
+    }
 }
@@ -0,0 +1,169 @@
+package com.example.autenticationservice.application;
+
+import com.example.autenticationservice.application.mapper.AutenticationMappers;
+import com.example.autenticationservice.domain.model.register.ImportUserResult;
+import com.example.autenticationservice.domain.model.register.ImportUserStatus;
+import com.example.autenticationservice.domain.model.register.StepRegisterRequest;
+import com.example.autenticationservice.domain.service.AutenticationService;
+import com.example.autenticationService.generated.application.model.RegisterRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mapstruct.factory.Mappers;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserImportControllerTest {
+
+    private UserImportController userImportController;
+
+    @Mock
+    private AutenticationService autenticationService;
+
+    @BeforeEach
+    void setUp() {
+        userImportController = new UserImportController(autenticationService, Mappers.getMapper(AutenticationMappers.class));
+        ReflectionTestUtils.setField(userImportController, "batchSize", 2);
+    }
+
+    @Test
+    void shouldImportCsvInBlocks_whenAllOk() throws Exception {
+        //PARAMETERS
+        MockHttpServletRequest request = upload("text/csv",
+                "username,name,email,password\n"
+                        + "anna,\"Rossi, Anna\",anna@test.it,psw0\n"
+                        + "\n"
+                        + "bruno,Bruno,bruno@test.it,psw1\n"
+                        + "carla,Carla,carla@test.it,psw2\n");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //MOCK
+        doReturn(List.of(created("anna"), created("bruno"))).when(autenticationService).importUsers(List.of(
+                StepRegisterRequest.builder().name("Rossi, Anna").username("anna").email("anna@test.it").password("psw0").build(),
+                StepRegisterRequest.builder().name("Bruno").username("bruno").email("bruno@test.it").password("psw1").build()));
+        doReturn(List.of(ImportUserResult.builder().username("carla").status(ImportUserStatus.DUPLICATE).message("Username is already taken").build()))
+                .when(autenticationService).importUsers(List.of(
+                        StepRegisterRequest.builder().name("Carla").username("carla").email("carla@test.it").password("psw2").build()));
+
+        //TEST
+        userImportController.importUsers(request, response);
+
+        //RESULTS
+        Assertions.assertEquals("application/x-ndjson;charset=UTF-8", response.getContentType());
+        Assertions.assertEquals(
+                "{\"line\":2,\"username\":\"anna\",\"status\":\"CREATED\",\"message\":\"Registration completed\"}\n"
+                        + "{\"line\":4,\"username\":\"bruno\",\"status\":\"CREATED\",\"message\":\"Registration completed\"}\n"
+                        + "{\"line\":5,\"username\":\"carla\",\"status\":\"DUPLICATE\",\"message\":\"Username is already taken\"}\n",
+                response.getContentAsString());
+        verify(autenticationService, times(2)).importUsers(anyList());
+    }
+
+    @Test
+    void shouldReportInvalidLine_whenNdjsonMalformed() throws Exception {
+        //PARAMETERS
+        MockHttpServletRequest request = upload("application/x-ndjson",
+                "{\"name\":\"Anna\",\"username\":\"anna\",\"email\":\"anna@test.it\",\"password\":\"psw0\",\"role\":\"x\"}\n"
+                        + "{not json\n");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //MOCK
+        doReturn(List.of(created("anna"))).when(autenticationService).importUsers(List.of(
+                StepRegisterRequest.builder().name("Anna").username("anna").email("anna@test.it").password("psw0").build()));
+
+        //TEST
+        userImportController.importUsers(request, response);
+
+        //RESULTS
+        Assertions.assertEquals(
+                "{\"line\":2,\"status\":\"INVALID\",\"message\":\"Invalid JSON\"}\n"
+                        + "{\"line\":1,\"username\":\"anna\",\"status\":\"CREATED\",\"message\":\"Registration completed\"}\n",
+                response.getContentAsString());
+    }
+
+    @Test
+    void shouldReportInvalidLine_whenRowFailsImportChecks() throws Exception {
+        //PARAMETERS
+        MockHttpServletRequest request = upload("text/csv",
+                "name,username,email,password\n"
+                        + "Anna,anna,not-an-email,psw0\n"
+                        + "Bruno,bruno,,psw1\n"
+                        + "Carla,carla,carla@test.it,psw2\n");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //MOCK
+        doReturn(List.of(created("carla"))).when(autenticationService).importUsers(List.of(
+                StepRegisterRequest.builder().name("Carla").username("carla").email("carla@test.it").password("psw2").build()));
+
+        //TEST
+        userImportController.importUsers(request, response);
+
+        //RESULTS
+        String[] lines = response.getContentAsString().split("\n");
+        Assertions.assertEquals(3, lines.length);
+        Assertions.assertEquals("{\"line\":2,\"username\":\"anna\",\"status\":\"INVALID\",\"message\":\"email: must be a well-formed email address\"}", lines[0]);
+        Assertions.assertEquals("{\"line\":3,\"username\":\"bruno\",\"status\":\"INVALID\",\"message\":\"email: must not be blank\"}", lines[1]);
+        Assertions.assertEquals("{\"line\":4,\"username\":\"carla\",\"status\":\"CREATED\",\"message\":\"Registration completed\"}", lines[2]);
+        verify(autenticationService, times(1)).importUsers(anyList());
+    }
+
+    @Test
+    void shouldListEveryViolation_whenRowTooLongOrIncomplete() {
+        //PARAMETERS
+        RegisterRequest row = new RegisterRequest()
+                .name("a".repeat(256))
+                .username(" ")
+                .email("dario@test.it");
+
+        //TEST
+        String result = UserImportController.violations(row);
+
+        //RESULTS
+        Assertions.assertEquals("name: size must be at most 255, password: must not be blank, username: must not be blank", result);
+    }
+
+    @Test
+    void shouldReturnNoViolations_whenRowValid() {
+        //PARAMETERS
+        RegisterRequest row = new RegisterRequest().name("Dario").username("dario").email("dario@test.it").password("psw");
+
+        //TEST
+        String result = UserImportController.violations(row);
+
+        //RESULTS
+        Assertions.assertNull(result);
+    }
+
+    @Test
+    void shouldSplitQuotedCsvValues() {
+        //TEST
+        List<String> result = UserImportController.splitCsv("a,\"b, \"\"c\"\"\",,d");
+
+        //RESULTS
+        Assertions.assertEquals(List.of("a", "b, \"c\"", "", "d"), result);
+    }
+
+    private MockHttpServletRequest upload(String contentType, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/register/import");
+        request.setContentType(contentType);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private ImportUserResult created(String username) {
+        return ImportUserResult.builder()
+                .username(username)
+                .status(ImportUserStatus.CREATED)
+                .message("Registration completed")
+                .build();
+    }
+}
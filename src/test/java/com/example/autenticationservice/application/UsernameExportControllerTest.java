@@ -0,0 +1,96 @@
+package com.example.autenticationservice.application;
+
+import com.example.autenticationservice.domain.service.AutenticationService;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UsernameExportControllerTest {
+
+    @InjectMocks
+    private UsernameExportController usernameExportController;
+
+    @Mock
+    private AutenticationService autenticationService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWriteOneJsonLinePerUsername_whenAllOk() throws Exception {
+        //PARAMETERS
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //MOCK
+        doAnswer(invocation -> {
+            Consumer<String> action = invocation.getArgument(0);
+            List.of("usernameTest1", "user\"Test2").forEach(action);
+            return null;
+        }).when(autenticationService).exportUsernames(any(Consumer.class));
+
+        //TEST
+        usernameExportController.exportUsernames(response);
+
+        //RESULTS
+        Assertions.assertEquals("application/x-ndjson;charset=UTF-8", response.getContentType());
+        Assertions.assertEquals("{\"username\":\"usernameTest1\"}\n{\"username\":\"user\\\"Test2\"}\n", response.getContentAsString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStopReading_whenClientDisconnects() throws Exception {
+        //PARAMETERS
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        ServletOutputStream brokenStream = new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+        int[] read = {0};
+
+        //MOCK
+        doReturn(brokenStream).when(response).getOutputStream();
+        doAnswer(invocation -> {
+            Consumer<String> action = invocation.getArgument(0);
+            //righe più grandi del buffer, così la scrittura arriva subito allo stream del client
+            String username = "u".repeat(70 * 1024);
+            for (int i = 0; i < 10; i++) {
+                read[0]++;
+                action.accept(username);
+            }
+            return null;
+        }).when(autenticationService).exportUsernames(any(Consumer.class));
+
+        //TEST + RESULTS
+        IOException exception = Assertions.assertThrows(IOException.class, () -> usernameExportController.exportUsernames(response));
+        Assertions.assertEquals("Broken pipe", exception.getMessage());
+        Assertions.assertEquals(1, read[0]);
+    }
+}
@@ -3,6 +3,7 @@ package com.example.autenticationservice.application.exceptions;
 import com.example.autenticationservice.application.jwt.RefreshTokenApp;
 import com.example.autenticationservice.domain.exceptions.ApplicationException;
 import com.example.autenticationservice.domain.exceptions.MissingTokenException;
+import com.example.autenticationservice.domain.exceptions.ServiceUnavailableException;
 import com.example.autenticationservice.domain.exceptions.TokenExpiredException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.Assertions;
@@ -92,4 +93,25 @@ public class ApplicationExceptionHandlerTest {
         Assertions.assertEquals(HttpStatus.FORBIDDEN, result.getStatusCode());
         Assertions.assertEquals("Forbidden", result.getBody());
     }
+
+    @Test
+    void shouldHandleServiceUnavailableException_whenExceptionThrown() {
+        //PARAMETERS
+        ServiceUnavailableException exception = new ServiceUnavailableException("Server busy, retry later");
+        ServletWebRequest servletWebRequest = mock(ServletWebRequest.class);
+        HttpServletRequest httpServletRequest = mock(HttpServletRequest.class);
+
+        //MOCK
+        doReturn(httpServletRequest).when(servletWebRequest).getRequest();
+        doReturn("/test-endpoint").when(httpServletRequest).getRequestURI();
+
+        //TEST
+        ResponseEntity<Object> result = applicationExceptionHandler.handleServiceUnavailableException(exception, servletWebRequest);
+
+        //RESULTS
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.getStatusCode());
+        Assertions.assertEquals("1", result.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        Assertions.assertEquals("Server busy, retry later", result.getBody());
+    }
 }
@@ -0,0 +1,151 @@
+package com.example.autenticationservice.application.filter;
+
+import com.example.autenticationservice.application.jwt.RefreshTokenApp;
+import com.example.autenticationservice.application.mapper.AutenticationMappersImpl;
+import com.example.autenticationservice.domain.exceptions.MissingTokenException;
+import com.example.autenticationservice.domain.model.verifyToken.GetAccessTokenByRefreshTokenResponse;
+import com.example.autenticationservice.domain.service.AutenticationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenFilterTest {
+
+    @Mock
+    private AutenticationService autenticationService;
+
+    @Mock
+    private RefreshTokenApp refreshTokenApp;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private RefreshTokenFilter refreshTokenFilter;
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private MockFilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenFilter = new RefreshTokenFilter(autenticationService, new AutenticationMappersImpl(), refreshTokenApp, objectMapper);
+        ReflectionTestUtils.setField(refreshTokenFilter, "timeoutMs", 10000L);
+        request = new MockHttpServletRequest("POST", "/token/refresh");
+        request.setAsyncSupported(true);
+        response = new MockHttpServletResponse();
+        filterChain = new MockFilterChain();
+    }
+
+    @Test
+    void shouldWriteAccessToken_whenAllOk() throws Exception {
+        //PARAMETERS
+        GetAccessTokenByRefreshTokenResponse refreshResponse = GetAccessTokenByRefreshTokenResponse.builder()
+                .accessToken("newAccessToken")
+                .message("Access Token regenerated")
+                .build();
+
+        //MOCK
+        doReturn("refreshToken").when(refreshTokenApp).getJwtFromCookie(request);
+        doReturn(Mono.just(refreshResponse)).when(autenticationService).getNewAccessTokenReactive("refreshToken");
+
+        //TEST
+        refreshTokenFilter.doFilter(request, response, filterChain);
+
+        //RESULTS
+        JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+        Assertions.assertEquals(200, response.getStatus());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        Assertions.assertEquals("Bearer newAccessToken", response.getHeader(HttpHeaders.AUTHORIZATION));
+        Assertions.assertEquals("newAccessToken", body.get("accessToken").asText());
+        Assertions.assertEquals("Access Token regenerated", body.get("message").asText());
+        Assertions.assertFalse(request.isAsyncStarted()); //risposta completata
+        Assertions.assertNull(filterChain.getRequest()); //il DispatcherServlet non viene raggiunto
+    }
+
+    @Test
+    void shouldReleaseRequestThread_whenDatabasePending() throws Exception {
+        //PARAMETERS
+        Sinks.One<GetAccessTokenByRefreshTokenResponse> pending = Sinks.one();
+
+        //MOCK
+        doReturn("refreshToken").when(refreshTokenApp).getJwtFromCookie(request);
+        doReturn(pending.asMono()).when(autenticationService).getNewAccessTokenReactive("refreshToken");
+
+        //TEST
+        refreshTokenFilter.doFilter(request, response, filterChain);
+        boolean startedBeforeResult = request.isAsyncStarted();
+        pending.tryEmitValue(GetAccessTokenByRefreshTokenResponse.builder()
+                .accessToken("newAccessToken")
+                .message("Access Token regenerated")
+                .build());
+
+        //RESULTS
+        Assertions.assertTrue(startedBeforeResult); //doFilter è tornato prima della risposta
+        Assertions.assertFalse(request.isAsyncStarted());
+        Assertions.assertEquals(200, response.getStatus());
+        Assertions.assertEquals("Bearer newAccessToken", response.getHeader(HttpHeaders.AUTHORIZATION));
+    }
+
+    @Test
+    void shouldReturn401AndCleanCookie_whenRefreshTokenMissing() throws Exception {
+        //PARAMETERS
+        ResponseCookie cleanRefreshCookie = ResponseCookie.from("token", "").build();
+
+        //MOCK
+        doReturn(null).when(refreshTokenApp).getJwtFromCookie(request);
+        doReturn(Mono.error(new MissingTokenException("Missing refresh token, please Login"))).when(autenticationService).getNewAccessTokenReactive(null);
+        doReturn(cleanRefreshCookie).when(refreshTokenApp).getCleanJwtCookie();
+
+        //TEST
+        refreshTokenFilter.doFilter(request, response, filterChain);
+
+        //RESULTS
+        Assertions.assertEquals(401, response.getStatus());
+        Assertions.assertEquals("Missing refresh token, please Login", response.getContentAsString());
+        Assertions.assertEquals(cleanRefreshCookie.toString(), response.getHeader(HttpHeaders.SET_COOKIE));
+        Assertions.assertFalse(request.isAsyncStarted());
+    }
+
+    @Test
+    void shouldReturn500_whenUnexpectedError() throws Exception {
+        //MOCK
+        doReturn("refreshToken").when(refreshTokenApp).getJwtFromCookie(request);
+        doReturn(Mono.error(new IllegalStateException("r2dbc down"))).when(autenticationService).getNewAccessTokenReactive("refreshToken");
+
+        //TEST
+        refreshTokenFilter.doFilter(request, response, filterChain);
+
+        //RESULTS
+        Assertions.assertEquals(500, response.getStatus());
+        Assertions.assertFalse(request.isAsyncStarted());
+    }
+
+    @Test
+    void shouldPassToChain_whenOtherPath() throws Exception {
+        //PARAMETERS
+        request.setRequestURI("/verify-token");
+
+        //TEST
+        refreshTokenFilter.doFilter(request, response, filterChain);
+
+        //RESULTS
+        Assertions.assertSame(request, filterChain.getRequest());
+        verifyNoInteractions(autenticationService, refreshTokenApp);
+    }
+}
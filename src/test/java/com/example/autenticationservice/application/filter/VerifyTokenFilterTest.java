@@ -0,0 +1,164 @@
+package com.example.autenticationservice.application.filter;
+
+import com.example.autenticationservice.application.jwt.AccessTokenApp;
+import com.example.autenticationservice.application.jwt.RefreshTokenApp;
+import com.example.autenticationservice.domain.exceptions.InvalidCredentialsException;
+import com.example.autenticationservice.domain.exceptions.MissingTokenException;
+import com.example.autenticationservice.domain.exceptions.TokenExpiredException;
+import com.example.autenticationservice.domain.model.verifyToken.VerifyTokenResponse;
+import com.example.autenticationservice.domain.service.AutenticationService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VerifyTokenFilterTest {
+
+    @Mock
+    private AutenticationService autenticationService;
+
+    @Mock
+    private RefreshTokenApp refreshTokenApp;
+
+    private VerifyTokenFilter verifyTokenFilter;
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private MockFilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        verifyTokenFilter = new VerifyTokenFilter(autenticationService, new AccessTokenApp(), refreshTokenApp);
+        request = new MockHttpServletRequest("POST", "/verify-token");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer accessToken");
+        response = new MockHttpServletResponse();
+        filterChain = new MockFilterChain();
+    }
+
+    @Test
+    void shouldWriteUsername_whenAllOk() throws Exception {
+        //PARAMETERS
+        VerifyTokenResponse verifyTokenResponse = VerifyTokenResponse.builder()
+                .username("user\"Test")
+                .build();
+
+        //MOCK
+        doReturn(verifyTokenResponse).when(autenticationService).verifyToken("accessToken");
+
+        //TEST
+        verifyTokenFilter.doFilter(request, response, filterChain);
+
+        //RESULTS
+        Assertions.assertEquals(200, response.getStatus());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        Assertions.assertEquals("{\"username\":\"user\\\"Test\"}", response.getContentAsString());
+        Assertions.assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+        Assertions.assertNull(filterChain.getRequest()); //il DispatcherServlet non viene raggiunto
+        verify(autenticationService).verifyToken("accessToken");
+    }
+
+    @Test
+    void shouldPassToChain_whenOtherPath() throws Exception {
+        //PARAMETERS
+        request.setRequestURI("/login");
+
+        //TEST
+        verifyTokenFilter.doFilter(request, response, filterChain);
+
+        //RESULTS
+        Assertions.assertSame(request, filterChain.getRequest());
+        verifyNoInteractions(autenticationService, refreshTokenApp);
+    }
+
+    @Test
+    void shouldPassToChain_whenNotPost() throws Exception {
+        //PARAMETERS
+        request.setMethod("GET");
+
+        //TEST
+        verifyTokenFilter.doFilter(request, response, filterChain);
+
+        //RESULTS
+        Assertions.assertSame(request, filterChain.getRequest());
+        verifyNoInteractions(autenticationService, refreshTokenApp);
+    }
+
+    @Test
+    void shouldMatchPath_whenContextPathSet() throws Exception {
+        //PARAMETERS
+        request.setContextPath("/auth");
+        request.setRequestURI("/auth/verify-token");
+        VerifyTokenResponse verifyTokenResponse = VerifyTokenResponse.builder()
+                .username("usernameTest")
+                .build();
+
+        //MOCK
+        doReturn(verifyTokenResponse).when(autenticationService).verifyToken("accessToken");
+
+        //TEST
+        verifyTokenFilter.doFilter(request, response, filterChain);
+
+        //RESULTS
+        Assertions.assertEquals("{\"username\":\"usernameTest\"}", response.getContentAsString());
+        Assertions.assertNull(filterChain.getRequest());
+    }
+
+    @Test
+    void shouldReturn401AndCleanCookie_whenTokenMissing() throws Exception {
+        //PARAMETERS
+        request.removeHeader(HttpHeaders.AUTHORIZATION);
+        ResponseCookie cleanRefreshCookie = ResponseCookie.from("token", "").build();
+
+        //MOCK
+        doThrow(new MissingTokenException("Missing or non-existent token")).when(autenticationService).verifyToken(null);
+        doReturn(cleanRefreshCookie).when(refreshTokenApp).getCleanJwtCookie();
+
+        //TEST
+        verifyTokenFilter.doFilter(request, response, filterChain);
+
+        //RESULTS
+        Assertions.assertEquals(401, response.getStatus());
+        Assertions.assertEquals("Missing or non-existent token", response.getContentAsString());
+        Assertions.assertEquals(cleanRefreshCookie.toString(), response.getHeader(HttpHeaders.SET_COOKIE));
+        Assertions.assertNull(filterChain.getRequest());
+    }
+
+    @Test
+    void shouldReturn403_whenTokenExpired() throws Exception {
+        //MOCK
+        doThrow(new TokenExpiredException("expired")).when(autenticationService).verifyToken("accessToken");
+
+        //TEST
+        verifyTokenFilter.doFilter(request, response, filterChain);
+
+        //RESULTS
+        Assertions.assertEquals(403, response.getStatus());
+        Assertions.assertEquals("expired", response.getContentAsString());
+        verifyNoInteractions(refreshTokenApp);
+    }
+
+    @Test
+    void shouldReturn401_whenTokenInvalid() throws Exception {
+        //MOCK
+        doThrow(new InvalidCredentialsException("Invalid access token")).when(autenticationService).verifyToken("accessToken");
+
+        //TEST
+        verifyTokenFilter.doFilter(request, response, filterChain);
+
+        //RESULTS
+        Assertions.assertEquals(401, response.getStatus());
+        Assertions.assertEquals("Invalid access token", response.getContentAsString());
+        verifyNoInteractions(refreshTokenApp);
+    }
+}
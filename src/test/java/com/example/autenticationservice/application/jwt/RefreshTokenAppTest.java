@@ -43,7 +43,6 @@ public class RefreshTokenAppTest {
     @BeforeEach
     public void setUp() {
         mockedWebUtils = mockStatic(WebUtils.class);
-        ReflectionTestUtils.setField(refreshTokenApp, "request", request);
         ReflectionTestUtils.setField(refreshTokenApp, "jwtRefreshCookie", jwtRefreshCookie);
         ReflectionTestUtils.setField(refreshTokenApp, "jwtRefreshExpireMs", jwtRefreshExpireMs);
         ReflectionTestUtils.setField(refreshTokenApp, "path", path);
@@ -66,7 +65,7 @@ public class RefreshTokenAppTest {
                 .thenReturn(cookie);
 
         //TEST
-        String result = refreshTokenApp.getJwtFromCookie();
+        String result = refreshTokenApp.getJwtFromCookie(request);
         System.out.println("Returned token: " + result);
 
         //RESULTS
@@ -81,7 +80,7 @@ public class RefreshTokenAppTest {
                 .thenReturn(null);
 
         //TEST
-        String result = refreshTokenApp.getJwtFromCookie();
+        String result = refreshTokenApp.getJwtFromCookie(request);
 
         //RESULTS
         Assertions.assertNull(result);
@@ -95,7 +94,7 @@ public class RefreshTokenAppTest {
 
         //TEST
         Assertions.assertThrows(RuntimeException.class, () -> {
-            refreshTokenApp.getJwtFromCookie();
+            refreshTokenApp.getJwtFromCookie(request);
         });
     }
 
@@ -2,6 +2,8 @@ package com.example.autenticationservice.application.mapper;
 
 import com.example.autenticationservice.domain.model.GetUsernameResponse;
 import com.example.autenticationservice.domain.model.autentication.*;
+import com.example.autenticationservice.domain.model.jwks.GetJwksResponse;
+import com.example.autenticationservice.domain.model.jwks.JsonWebKey;
 import com.example.autenticationservice.domain.model.register.StepRegisterRequest;
 import com.example.autenticationservice.domain.model.register.StepRegisterResponse;
 import com.example.autenticationservice.domain.model.verifyToken.GetAccessTokenByRefreshTokenRequest;
@@ -14,6 +16,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 @ExtendWith(MockitoExtension.class)
 public class AutenticationMappersImplTest {
 
@@ -370,4 +374,59 @@ public class AutenticationMappersImplTest {
         //RESULTS
         Assertions.assertNull(result);
     }
+
+    @Test
+    void shouldConvertFromDomainGetUsernameList_whenAllOk(){
+        //PARAMETERS
+        List<GetUsernameResponse> usernames = List.of(
+                GetUsernameResponse.builder().username("usernameTest1").build(),
+                GetUsernameResponse.builder().username("usernameTest2").build());
+
+        //TEST
+        List<GetUsernameList200ResponseInner> result = autenticationMappersImpl.convertFromDomain(usernames);
+
+        //RESULTS
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals("usernameTest1", result.get(0).getUsername());
+        Assertions.assertEquals("usernameTest2", result.get(1).getUsername());
+    }
+
+    @Test
+    void shouldConvertFromDomainGetJwks200Response_whenAllOk(){
+        //PARAMETERS
+        JsonWebKey jsonWebKey = JsonWebKey.builder()
+                .kty("EC")
+                .crv("P-256")
+                .x("xTest")
+                .y("yTest")
+                .kid("access-key")
+                .use("sig")
+                .alg("ES256")
+                .build();
+        GetJwksResponse getJwksResponse = GetJwksResponse.builder()
+                .keys(List.of(jsonWebKey))
+                .build();
+
+        //TEST
+        GetJwks200Response result = autenticationMappersImpl.convertFromDomain(getJwksResponse);
+
+        //RESULTS
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(1, result.getKeys().size());
+        Assertions.assertEquals("P-256", result.getKeys().get(0).getCrv());
+        Assertions.assertEquals("access-key", result.getKeys().get(0).getKid());
+        Assertions.assertEquals("ES256", result.getKeys().get(0).getAlg());
+    }
+
+    @Test
+    void shouldReturnNullGetJwks200Response_whenResponseIsNull(){
+        //PARAMETERS
+        GetJwksResponse getJwksResponse = null;
+
+        //TEST
+        GetJwks200Response result = autenticationMappersImpl.convertFromDomain(getJwksResponse);
+
+        //RESULTS
+        Assertions.assertNull(result);
+    }
 }
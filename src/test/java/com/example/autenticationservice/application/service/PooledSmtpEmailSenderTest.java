@@ -0,0 +1,141 @@
+package com.example.autenticationservice.application.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+//Invio su un server SMTP locale (GreenMail) al posto di smtp.gmail.com
+public class PooledSmtpEmailSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private PooledSmtpEmailSender pooledSmtpEmailSender;
+
+    private String mailSenderAddress = "test@test.it";
+
+    @BeforeEach
+    void setUp() {
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        pooledSmtpEmailSender = new PooledSmtpEmailSender(javaMailSender);
+        ReflectionTestUtils.setField(pooledSmtpEmailSender, "mailSenderAddress", mailSenderAddress);
+        ReflectionTestUtils.setField(pooledSmtpEmailSender, "poolSize", 2);
+        ReflectionTestUtils.setField(pooledSmtpEmailSender, "idleTimeoutMs", 60000L);
+        ReflectionTestUtils.setField(pooledSmtpEmailSender, "maxMessagesPerConnection", 100);
+        pooledSmtpEmailSender.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pooledSmtpEmailSender.shutdown();
+    }
+
+    @Test
+    void shouldSendAllMessages_whenAllOk() throws Exception {
+        //PARAMETERS
+        List<SimpleMailMessage> messages = List.of(
+                message("first@test.it", "subjectTest1"),
+                message("second@test.it", "subjectTest2"),
+                message("third@test.it", "subjectTest3"));
+
+        //TEST
+        Map<Integer, Exception> result = pooledSmtpEmailSender.sendAll(messages);
+
+        //RESULTS
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        Assertions.assertTrue(result.isEmpty());
+        Assertions.assertEquals(3, received.length);
+        Assertions.assertEquals("subjectTest1", received[0].getSubject());
+        Assertions.assertEquals(mailSenderAddress, received[0].getFrom()[0].toString());
+        Assertions.assertEquals(1, pooledSmtpEmailSender.idleConnections());
+    }
+
+    @Test
+    void shouldReuseConnection_whenSendingSecondBatch() {
+        //PARAMETERS
+        List<SimpleMailMessage> messages = List.of(message("first@test.it", "subjectTest"));
+
+        //TEST
+        pooledSmtpEmailSender.sendAll(messages);
+        Map<Integer, Exception> result = pooledSmtpEmailSender.sendAll(messages);
+
+        //RESULTS
+        Assertions.assertTrue(result.isEmpty());
+        Assertions.assertEquals(2, greenMail.getReceivedMessages().length);
+        Assertions.assertEquals(1, pooledSmtpEmailSender.idleConnections());
+    }
+
+    @Test
+    void shouldCloseConnection_whenMaxMessagesPerConnectionReached() {
+        //PARAMETERS
+        ReflectionTestUtils.setField(pooledSmtpEmailSender, "maxMessagesPerConnection", 2);
+        List<SimpleMailMessage> messages = List.of(
+                message("first@test.it", "subjectTest1"),
+                message("second@test.it", "subjectTest2"));
+
+        //TEST
+        Map<Integer, Exception> result = pooledSmtpEmailSender.sendAll(messages);
+
+        //RESULTS
+        Assertions.assertTrue(result.isEmpty());
+        Assertions.assertEquals(2, greenMail.getReceivedMessages().length);
+        Assertions.assertEquals(0, pooledSmtpEmailSender.idleConnections());
+    }
+
+    @Test
+    void shouldEvictIdleConnection_whenIdleTimeoutExpired() {
+        //PARAMETERS
+        pooledSmtpEmailSender.sendAll(List.of(message("first@test.it", "subjectTest")));
+        ReflectionTestUtils.setField(pooledSmtpEmailSender, "idleTimeoutMs", 0L);
+
+        //TEST
+        pooledSmtpEmailSender.evictIdle();
+
+        //RESULTS
+        Assertions.assertEquals(0, pooledSmtpEmailSender.idleConnections());
+    }
+
+    @Test
+    void shouldFailAllMessages_whenSmtpUnavailable() {
+        //PARAMETERS
+        greenMail.stop();
+        List<SimpleMailMessage> messages = List.of(
+                message("first@test.it", "subjectTest1"),
+                message("second@test.it", "subjectTest2"));
+
+        try {
+            //TEST
+            Map<Integer, Exception> result = pooledSmtpEmailSender.sendAll(messages);
+
+            //RESULTS
+            Assertions.assertEquals(2, result.size());
+            Assertions.assertNotNull(result.get(0));
+            Assertions.assertNotNull(result.get(1));
+            Assertions.assertEquals(0, pooledSmtpEmailSender.idleConnections());
+        } finally {
+            greenMail.start();
+        }
+    }
+
+    private SimpleMailMessage message(String to, String subject) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText("bodyTest");
+        return message;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.autenticationservice.benchmark;
+
+import com.example.autenticationservice.domain.model.Otp;
+import com.example.autenticationservice.domain.model.RefreshToken;
+import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.infrastructure.repository.OtpRepository;
+import com.example.autenticationservice.infrastructure.repository.RefreshTokenRepository;
+import com.example.autenticationservice.infrastructure.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//Throughput di inserimento di OTP e refresh token alternati (come in una serie di login) in una transazione,
+//con id da sequence: batchSize=1 è un INSERT per riga, batchSize=50 è la configurazione di application.yaml
+//H2 è nello stesso processo e un round trip costa pochissimo: con Oracle in rete il guadagno del batching è maggiore
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BulkInsertBenchmark {
+    private static final int ROWS_PER_TABLE = 500;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private OtpRepository otpRepository;
+    private RefreshTokenRepository refreshTokenRepository;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        context = H2JpaContext.start("bulkInsert" + batchSize,
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        otpRepository = context.getBean(OtpRepository.class);
+        refreshTokenRepository = context.getBean(RefreshTokenRepository.class);
+
+        user = context.getBean(UserRepository.class).save(User.builder()
+                .name("nameTest")
+                .username("usernameTest")
+                .email("emailTest")
+                .password("pswTest")
+                .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * ROWS_PER_TABLE)
+    public void insertOtpAndRefreshTokens() {
+        transactionTemplate.executeWithoutResult(status -> {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < ROWS_PER_TABLE; i++) {
+                otpRepository.save(Otp.builder()
+                        .user(user)
+                        .otp("123456")
+                        .sessionId(UUID.randomUUID().toString())
+                        .createdAt(now)
+                        .expiresAt(now + 60000)
+                        .attempts(0)
+                        .valid(true)
+                        .build());
+                refreshTokenRepository.save(RefreshToken.builder()
+                        .user(user)
+                        .refreshTokenHash(UUID.randomUUID().toString())
+                        .createdAt(LocalDateTime.now())
+                        .expireDate(LocalDateTime.now().plusDays(7))
+                        .valid(true)
+                        .build());
+            }
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BulkInsertBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -1,19 +1,17 @@
-package com.example.autenticationservice.application.service;
+package com.example.autenticationservice.benchmark;
 
 import com.example.autenticationservice.domain.api.EmailService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.stereotype.Service;
 
-@Service
+//Il vecchio invio sincrono diretto, una sessione SMTP per email: il servizio usa OutboxEmailServiceImpl e PooledSmtpEmailSender
+//Resta qui solo come riferimento per SmtpSenderBenchmark, mailSenderAddress lo imposta il benchmark
 @RequiredArgsConstructor //setta le final
 public class EmailServiceImpl implements EmailService {
 
     private final JavaMailSender mailSender;
 
-    @Value("${spring.mail.sender}")  //ci prendiamo la mail dall'application.yaml
     private String mailSenderAddress;
 
 
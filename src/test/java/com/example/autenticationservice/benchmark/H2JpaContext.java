@@ -0,0 +1,44 @@
+package com.example.autenticationservice.benchmark;
+
+import com.example.autenticationservice.domain.model.Otp;
+import com.example.autenticationservice.infrastructure.repository.OtpRepository;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Contesto Spring minimo per i benchmark: solo entità e repository JPA su un database H2 in memoria
+//Gli argomenti da riga di comando hanno la precedenza sulla configurazione Oracle di application.yaml
+final class H2JpaContext {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Otp.class)
+    @EnableJpaRepositories(basePackageClasses = OtpRepository.class)
+    static class JpaConfig {
+    }
+
+    private H2JpaContext() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.root=WARN"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(JpaConfig.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.autenticationservice.benchmark;
+
+import com.example.autenticationservice.domain.util.jwt.AccessTokenJwt;
+import com.example.autenticationservice.domain.util.jwt.JwtKeyProvider;
+import com.example.autenticationservice.domain.util.jwt.JwtKeyRingProperties;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+//Confronta la verifica di un access token ricostruendo chiave e parser ad ogni chiamata (vecchio comportamento)
+//con la verifica tramite il materiale chiave di JwtKeyProvider
+//Con il GCProfiler la metrica gc.alloc.rate.norm mostra i byte allocati per singola verifica
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "testSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecret";
+
+    private AccessTokenJwt accessTokenJwt;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyProvider jwtKeyProvider = new JwtKeyProvider(new JwtKeyRingProperties());
+        ReflectionTestUtils.setField(jwtKeyProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessSigningAlgorithm", "HS512");
+        jwtKeyProvider.init();
+
+        accessTokenJwt = new AccessTokenJwt(jwtKeyProvider);
+        ReflectionTestUtils.setField(accessTokenJwt, "jwtAccessExpireMs", 6000000);
+        token = accessTokenJwt.generateToken("usernameTest");
+    }
+
+    @Benchmark
+    public String rebuildKeyAndParser() {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parserBuilder().setSigningKey(key).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String cachedKeyAndParser() {
+        return accessTokenJwt.getUsernameFromToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.autenticationservice.benchmark;
+
+import com.example.autenticationservice.domain.model.Otp;
+import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.service.impl.OtpService;
+import com.example.autenticationservice.domain.service.impl.UserService;
+import com.example.autenticationservice.domain.util.HashUtil;
+import com.example.autenticationservice.domain.util.OtpUtil;
+import com.example.autenticationservice.domain.util.PasswordHasher;
+import com.example.autenticationservice.domain.util.TakenCredentialFilter;
+import com.example.autenticationservice.domain.util.UserSummaryCache;
+import com.example.autenticationservice.infrastructure.repository.EmailOutboxRepository;
+import com.example.autenticationservice.infrastructure.repository.OtpRepository;
+import com.example.autenticationservice.infrastructure.repository.UserRepository;
+import com.example.autenticationservice.infrastructure.service.impl.OtpServiceImpl;
+import com.example.autenticationservice.infrastructure.service.impl.OutboxEmailServiceImpl;
+import com.example.autenticationservice.infrastructure.service.impl.UserServiceRepoImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+//Prova di carico di firstStepLogin (utente per username, verifica password, save OTP, email in EmailOutbox) con una
+//raffica di BURST login contemporanei, serviti da 200 thread di piattaforma (il default di Tomcat) o da un virtual
+//thread per login come con spring.threads.virtual.enabled=true
+//H2 è nello stesso processo: NETWORK_LATENCY_MS dentro la transazione delle scritture simula il round trip verso Oracle, tenendo
+//occupata la connessione come farebbe una query reale
+//Con i virtual thread il limite passa da 200 thread al pool di connessioni (hikariPoolSize)
+//-Djdk.tracePinnedThreads=short stampa lo stack di ogni virtual thread bloccato su un synchronized
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoginConcurrencyBenchmark {
+    private static final int BURST = 2000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long NETWORK_LATENCY_MS = 5;
+
+    @Param({"platform", "virtual"})
+    private String threadMode;
+
+    @Param({"50", "400"})
+    private int hikariPoolSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService requestExecutor;
+    private PasswordHasher passwordHasher;
+    private UserService userService;
+    private OtpService otpService;
+    private OutboxEmailServiceImpl outboxEmailServiceImpl;
+    private OtpUtil otpUtil;
+
+    @Setup
+    public void setUp() {
+        context = H2JpaContext.start("loginConcurrency" + threadMode + hikariPoolSize,
+                "--spring.datasource.hikari.maximum-pool-size=" + hikariPoolSize);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        //poche iterazioni: qui si misura l'attesa sull'I/O, non il costo dell'hash
+        passwordHasher = new PasswordHasher(new HashUtil(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(passwordHasher, "iterations", 1000);
+        ReflectionTestUtils.setField(passwordHasher, "saltBytes", 16);
+        ReflectionTestUtils.setField(passwordHasher, "keyBits", 256);
+        ReflectionTestUtils.setField(passwordHasher, "threads", 0);
+        ReflectionTestUtils.setField(passwordHasher, "queueSize", BURST);
+        ReflectionTestUtils.setField(passwordHasher, "timeoutMs", 60000L);
+        passwordHasher.init();
+
+        context.getBean(UserRepository.class).save(User.builder()
+                .name("nameTest")
+                .username("usernameTest")
+                .email("emailTest")
+                .password(passwordHasher.hash("pswTest"))
+                .build());
+
+        UserServiceRepoImpl userServiceRepo = new UserServiceRepoImpl(context.getBean(UserRepository.class));
+        TakenCredentialFilter takenCredentialFilter = new TakenCredentialFilter(userServiceRepo, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(takenCredentialFilter, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(takenCredentialFilter, "falsePositiveRate", 0.01);
+        transactionTemplate.executeWithoutResult(status -> takenCredentialFilter.init());
+        UserSummaryCache userSummaryCache = new UserSummaryCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userSummaryCache, "maximumSize", 1000L);
+        ReflectionTestUtils.setField(userSummaryCache, "ttlMs", 600000L);
+        userSummaryCache.init();
+        userService = new UserService(userServiceRepo, passwordHasher, takenCredentialFilter, userSummaryCache);
+        otpService = new OtpService(new OtpServiceImpl(context.getBean(OtpRepository.class)));
+        outboxEmailServiceImpl = new OutboxEmailServiceImpl(context.getBean(EmailOutboxRepository.class));
+        otpUtil = new OtpUtil();
+
+        requestExecutor = "virtual".equals(threadMode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestExecutor.shutdownNow();
+        passwordHasher.shutdown();
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void firstStepLoginBurst() throws InterruptedException {
+        List<Callable<Otp>> logins = new ArrayList<>(BURST);
+        for (int i = 0; i < BURST; i++) {
+            logins.add(this::firstStepLogin);
+        }
+        requestExecutor.invokeAll(logins);
+    }
+
+    //come AutenticationServiceImpl.firstStepLogin: verifica della password fuori dalla transazione, solo le scritture dentro
+    private Otp firstStepLogin() {
+        User user = userService.getUserByUsernameAndPassword("usernameTest", "pswTest");
+        Otp otp = otpUtil.generateOtp(user, UUID.randomUUID().toString());
+        return transactionTemplate.execute(status -> {
+            otpService.saveOtp(otp);
+            outboxEmailServiceImpl.sendEmail(user.getEmail(), "Chat4Me - OTP code", otp.getOtp());
+            simulateNetworkLatency();
+            return otp;
+        });
+    }
+
+    private void simulateNetworkLatency() {
+        try {
+            Thread.sleep(NETWORK_LATENCY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LoginConcurrencyBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.autenticationservice.benchmark;
+
+import com.example.autenticationservice.domain.model.Otp;
+import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.service.impl.OtpService;
+import com.example.autenticationservice.domain.util.OtpUtil;
+import com.example.autenticationservice.infrastructure.repository.OtpRepository;
+import com.example.autenticationservice.infrastructure.repository.UserRepository;
+import com.example.autenticationservice.infrastructure.service.impl.OtpServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//Prova di carico sul backend JPA degli OTP: latenza di lookup per sessionId e invalidazione con la tabella Otp
+//già piena di storico (righe invalidate), al crescere delle righe
+//Con l'indice (sessionId, valid) e l'invalidazione per id la latenza resta piatta; con il vecchio UPDATE per valore
+//dell'OTP cresceva con la tabella
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OtpLookupBenchmark {
+    private static final int INSERT_BATCH_SIZE = 10000;
+
+    @Param({"10000", "1000000", "3000000"})
+    private int existingRows;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private OtpService otpService;
+    private OtpUtil otpUtil;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        context = H2JpaContext.start("otpLookup" + existingRows);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        otpService = new OtpService(new OtpServiceImpl(context.getBean(OtpRepository.class)));
+        otpUtil = new OtpUtil();
+
+        user = context.getBean(UserRepository.class).save(User.builder()
+                .name("nameTest")
+                .username("usernameTest")
+                .email("emailTest")
+                .password("pswTest")
+                .build());
+
+        populate(context.getBean(JdbcTemplate.class));
+    }
+
+    //storico: OTP già usati, quindi invalidati, con codici casuali come in produzione
+    private void populate(JdbcTemplate jdbcTemplate) {
+        long now = System.currentTimeMillis();
+        for (int inserted = 0; inserted < existingRows; inserted += INSERT_BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (int i = 0; i < Math.min(INSERT_BATCH_SIZE, existingRows - inserted); i++) {
+                batch.add(new Object[]{
+                        0, now, now + 60000,
+                        String.format("%06d", ThreadLocalRandom.current().nextInt(1000000)),
+                        UUID.randomUUID().toString(), false, user.getId()});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO otp (id, attempts, created_at, expires_at, otp, session_id, valid, users_id) VALUES (NEXT VALUE FOR otp_seq, ?, ?, ?, ?, ?, ?, ?)", batch);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Otp secondStepLogin() {
+        String sessionId = UUID.randomUUID().toString();
+        Otp otp = otpUtil.generateOtp(user, sessionId);
+        transactionTemplate.executeWithoutResult(status -> otpService.saveOtp(otp));
+
+        return transactionTemplate.execute(status -> {
+            Otp stored = otpService.getOtpBySessionId(sessionId);
+            otpService.invalidateOtp(stored);
+            return stored;
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(OtpLookupBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.autenticationservice.benchmark;
+
+import com.example.autenticationservice.domain.model.Otp;
+import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.repository.OtpServiceRepo;
+import com.example.autenticationservice.domain.service.impl.OtpService;
+import com.example.autenticationservice.domain.util.OtpUtil;
+import com.example.autenticationservice.infrastructure.repository.OtpRepository;
+import com.example.autenticationservice.infrastructure.repository.UserRepository;
+import com.example.autenticationservice.infrastructure.service.impl.InMemoryOtpServiceImpl;
+import com.example.autenticationservice.infrastructure.service.impl.OtpServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//Throughput delle operazioni OTP di firstStepLogin + secondStepLogin (save, poi get e invalidate per sessionId)
+//con i due OtpServiceRepo: jpa su H2 in memoria e memory su Caffeine
+//Ogni step gira nella sua transazione come i metodi @Transactional di AutenticationServiceImpl
+//H2 è nello stesso processo: con Oracle in rete il divario tra i due backend è più ampio
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OtpStoreBenchmark {
+
+    @Param({"jpa", "memory"})
+    private String otpStore;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private OtpService otpService;
+    private OtpUtil otpUtil;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        context = H2JpaContext.start("otpStore");
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        user = context.getBean(UserRepository.class).save(User.builder()
+                .name("nameTest")
+                .username("usernameTest")
+                .email("emailTest")
+                .password("pswTest")
+                .build());
+
+        OtpServiceRepo otpServiceRepo;
+        if ("memory".equals(otpStore)) {
+            InMemoryOtpServiceImpl inMemoryOtpServiceImpl = new InMemoryOtpServiceImpl();
+            ReflectionTestUtils.setField(inMemoryOtpServiceImpl, "maximumSize", 100000L);
+            ReflectionTestUtils.setField(inMemoryOtpServiceImpl, "graceMs", 300000L);
+            inMemoryOtpServiceImpl.init();
+            otpServiceRepo = inMemoryOtpServiceImpl;
+        } else {
+            otpServiceRepo = new OtpServiceImpl(context.getBean(OtpRepository.class));
+        }
+        otpService = new OtpService(otpServiceRepo);
+        otpUtil = new OtpUtil();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Otp firstAndSecondStepLogin() {
+        String sessionId = UUID.randomUUID().toString();
+        Otp otp = otpUtil.generateOtp(user, sessionId);
+
+        //firstStepLogin
+        transactionTemplate.executeWithoutResult(status -> otpService.saveOtp(otp));
+
+        //secondStepLogin
+        return transactionTemplate.execute(status -> {
+            Otp stored = otpService.getOtpBySessionId(sessionId);
+            otpService.invalidateOtp(stored);
+            return stored;
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(OtpStoreBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
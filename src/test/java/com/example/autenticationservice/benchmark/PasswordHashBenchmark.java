@@ -0,0 +1,76 @@
+package com.example.autenticationservice.benchmark;
+
+import com.example.autenticationservice.domain.util.HashUtil;
+import com.example.autenticationservice.domain.util.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+//Latenza di hash (register) e verifica (firstStepLogin) delle password con PasswordHasher al variare delle iterazioni PBKDF2
+//SampleTime riporta i percentili: si sceglie passwordHashIterations con p0.99 di verifyPbkdf2 dentro il budget del login
+//Con -t <n> (n thread JMH) si misura la latenza quando il pool di passwordHashThreads thread è conteso
+//verifyLegacySha1 è il costo del vecchio SHA-1, come riferimento
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PasswordHashBenchmark {
+
+    @Param({"210000", "310000", "600000"})
+    private int iterations;
+
+    private PasswordHasher passwordHasher;
+    private String pbkdf2Hash;
+    private String legacyHash;
+
+    @Setup
+    public void setUp() {
+        HashUtil hashUtil = new HashUtil();
+        passwordHasher = new PasswordHasher(hashUtil, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(passwordHasher, "iterations", iterations);
+        ReflectionTestUtils.setField(passwordHasher, "saltBytes", 16);
+        ReflectionTestUtils.setField(passwordHasher, "keyBits", 256);
+        ReflectionTestUtils.setField(passwordHasher, "threads", 0);
+        ReflectionTestUtils.setField(passwordHasher, "queueSize", 1024);
+        ReflectionTestUtils.setField(passwordHasher, "timeoutMs", 60000L);
+        passwordHasher.init();
+
+        pbkdf2Hash = passwordHasher.hash("pswTest");
+        legacyHash = hashUtil.stringToSha1("pswTest");
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Benchmark
+    public String hashPbkdf2() {
+        return passwordHasher.hash("pswTest");
+    }
+
+    @Benchmark
+    public boolean verifyPbkdf2() {
+        return passwordHasher.matches("pswTest", pbkdf2Hash);
+    }
+
+    @Benchmark
+    public boolean verifyLegacySha1() {
+        return passwordHasher.matches("pswTest", legacyHash);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PasswordHashBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
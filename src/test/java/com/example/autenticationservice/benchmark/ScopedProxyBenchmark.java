@@ -0,0 +1,91 @@
+package com.example.autenticationservice.benchmark;
+
+import com.example.autenticationservice.application.jwt.AccessTokenApp;
+import com.example.autenticationservice.application.jwt.RefreshTokenApp;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+//Lettura di access token (header Authorization) e refresh token (cookie) per una richiesta di logout
+//scopedProxy: come prima, HttpServletRequest iniettato nei singleton; ogni chiamata passa da un proxy JDK che risolve
+//la richiesta corrente su RequestContextHolder (lo stesso meccanismo dell'ObjectFactoryDelegatingInvocationHandler di Spring)
+//resolvedOnce: come ora, il controller prende la richiesta una volta sola e passa header e token come valori
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ScopedProxyBenchmark {
+
+    private HttpServletRequest requestProxy;
+    private AccessTokenApp accessTokenApp;
+    private RefreshTokenApp refreshTokenApp;
+
+    @Setup
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer accessToken");
+        request.setCookies(new Cookie("jwtRefreshCookie", "refreshToken"));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        requestProxy = (HttpServletRequest) Proxy.newProxyInstance(
+                HttpServletRequest.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class},
+                (proxy, method, args) -> {
+                    HttpServletRequest current = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+                    try {
+                        return method.invoke(current, args);
+                    } catch (InvocationTargetException e) {
+                        ReflectionUtils.rethrowRuntimeException(e.getTargetException());
+                        return null;
+                    }
+                });
+
+        accessTokenApp = new AccessTokenApp();
+        refreshTokenApp = new RefreshTokenApp();
+        ReflectionTestUtils.setField(refreshTokenApp, "jwtRefreshCookie", "jwtRefreshCookie");
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public String[] scopedProxy() {
+        String accessToken = accessTokenApp.getAccessJwtFromHeader(requestProxy.getHeader(HttpHeaders.AUTHORIZATION));
+        Cookie cookie = WebUtils.getCookie(requestProxy, "jwtRefreshCookie");
+        return new String[]{accessToken, cookie != null ? cookie.getValue() : null};
+    }
+
+    @Benchmark
+    public String[] resolvedOnce() {
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        String accessToken = accessTokenApp.getAccessJwtFromHeader(request.getHeader(HttpHeaders.AUTHORIZATION));
+        String refreshToken = refreshTokenApp.getJwtFromCookie(request);
+        return new String[]{accessToken, refreshToken};
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ScopedProxyBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
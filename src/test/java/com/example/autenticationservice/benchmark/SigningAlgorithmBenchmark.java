@@ -0,0 +1,116 @@
+package com.example.autenticationservice.benchmark;
+
+import com.example.autenticationservice.domain.model.verifyToken.VerifiedToken;
+import com.example.autenticationservice.domain.util.jwt.AccessTokenJwt;
+import com.example.autenticationservice.domain.util.jwt.JwtKeyProvider;
+import com.example.autenticationservice.domain.util.jwt.JwtKeyRingProperties;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+//Costo di firma e verifica degli access token con HS512 ed ES256 tramite AccessTokenJwt
+//jjwt 0.11.5 non supporta EdDSA: Ed25519 è misurato direttamente con il provider JDK sullo stesso input firmato
+//(header.payload di un token reale), quindi esclude solo la serializzazione JSON/base64 di jjwt
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SigningAlgorithmBenchmark {
+
+    private static final String SECRET = "testSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecret";
+
+    private AccessTokenJwt hs512AccessTokenJwt;
+    private AccessTokenJwt es256AccessTokenJwt;
+    private String hs512Token;
+    private String es256Token;
+
+    private KeyPair ed25519KeyPair;
+    private byte[] signingInput;
+    private byte[] ed25519Signature;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        hs512AccessTokenJwt = accessTokenJwt("HS512");
+        es256AccessTokenJwt = accessTokenJwt("ES256");
+        hs512Token = hs512AccessTokenJwt.generateToken("usernameTest");
+        es256Token = es256AccessTokenJwt.generateToken("usernameTest");
+
+        ed25519KeyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        signingInput = es256Token.substring(0, es256Token.lastIndexOf('.')).getBytes(StandardCharsets.US_ASCII);
+        ed25519Signature = ed25519Sign();
+    }
+
+    @Benchmark
+    public String signHs512() {
+        return hs512AccessTokenJwt.generateToken("usernameTest");
+    }
+
+    @Benchmark
+    public String signEs256() {
+        return es256AccessTokenJwt.generateToken("usernameTest");
+    }
+
+    @Benchmark
+    public byte[] signEd25519() throws GeneralSecurityException {
+        return ed25519Sign();
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyHs512() {
+        return hs512AccessTokenJwt.verify(hs512Token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyEs256() {
+        return es256AccessTokenJwt.verify(es256Token);
+    }
+
+    @Benchmark
+    public boolean verifyEd25519() throws GeneralSecurityException {
+        Signature signature = Signature.getInstance("Ed25519");
+        signature.initVerify(ed25519KeyPair.getPublic());
+        signature.update(signingInput);
+        return signature.verify(ed25519Signature);
+    }
+
+    private byte[] ed25519Sign() throws GeneralSecurityException {
+        Signature signature = Signature.getInstance("Ed25519");
+        signature.initSign(ed25519KeyPair.getPrivate());
+        signature.update(signingInput);
+        return signature.sign();
+    }
+
+    private static AccessTokenJwt accessTokenJwt(String algorithm) {
+        JwtKeyProvider jwtKeyProvider = new JwtKeyProvider(new JwtKeyRingProperties());
+        ReflectionTestUtils.setField(jwtKeyProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessSigningAlgorithm", algorithm);
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessPrivateKey", "");
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessPublicKey", "");
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessKeyId", "access-key");
+        jwtKeyProvider.init();
+
+        AccessTokenJwt accessTokenJwt = new AccessTokenJwt(jwtKeyProvider);
+        ReflectionTestUtils.setField(accessTokenJwt, "jwtAccessExpireMs", 6000000);
+        return accessTokenJwt;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SigningAlgorithmBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
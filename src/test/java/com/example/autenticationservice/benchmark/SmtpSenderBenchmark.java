@@ -0,0 +1,99 @@
+package com.example.autenticationservice.benchmark;
+
+import com.example.autenticationservice.application.service.PooledSmtpEmailSender;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Tempo per email di un blocco di BATCH_SIZE OTP su un server SMTP locale (GreenMail)
+//EmailServiceImpl apre e chiude una connessione per ogni email, PooledSmtpEmailSender spedisce il blocco su una connessione
+//già aperta. In locale manca la latenza di rete e il TLS di smtp.gmail.com: con un server remoto il divario è più ampio
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SmtpSenderBenchmark {
+    private static final int BATCH_SIZE = 50;
+
+    private GreenMail greenMail;
+    private EmailServiceImpl emailServiceImpl;
+    private PooledSmtpEmailSender pooledSmtpEmailSender;
+    private List<SimpleMailMessage> messages;
+
+    @Setup
+    public void setUp() {
+        ServerSetup serverSetup = new ServerSetup(3025, "localhost", ServerSetup.PROTOCOL_SMTP);
+        greenMail = new GreenMail(serverSetup);
+        greenMail.start();
+
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(serverSetup.getPort());
+
+        emailServiceImpl = new EmailServiceImpl(javaMailSender);
+        ReflectionTestUtils.setField(emailServiceImpl, "mailSenderAddress", "test@test.it");
+
+        pooledSmtpEmailSender = new PooledSmtpEmailSender(javaMailSender);
+        ReflectionTestUtils.setField(pooledSmtpEmailSender, "mailSenderAddress", "test@test.it");
+        ReflectionTestUtils.setField(pooledSmtpEmailSender, "poolSize", 1);
+        ReflectionTestUtils.setField(pooledSmtpEmailSender, "idleTimeoutMs", 60000L);
+        ReflectionTestUtils.setField(pooledSmtpEmailSender, "maxMessagesPerConnection", 100);
+        pooledSmtpEmailSender.init();
+
+        messages = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo("user" + i + "@test.it");
+            message.setSubject("Chat4Me - OTP code");
+            message.setText("123456");
+            messages.add(message);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pooledSmtpEmailSender.shutdown();
+        greenMail.stop();
+    }
+
+    //GreenMail tiene in memoria tutti i messaggi ricevuti: svuotati ad ogni iterazione
+    @TearDown(Level.Iteration)
+    public void purgeMailbox() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void connectionPerMessage() {
+        for (SimpleMailMessage message : messages) {
+            emailServiceImpl.sendEmail(message.getTo()[0], message.getSubject(), message.getText());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Map<Integer, Exception> pooledBatch() {
+        return pooledSmtpEmailSender.sendAll(messages);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SmtpSenderBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
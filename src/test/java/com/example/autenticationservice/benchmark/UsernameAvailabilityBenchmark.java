@@ -0,0 +1,83 @@
+package com.example.autenticationservice.benchmark;
+
+import com.example.autenticationservice.domain.util.TakenCredentialFilter;
+import com.example.autenticationservice.infrastructure.repository.UserRepository;
+import com.example.autenticationservice.infrastructure.service.impl.UserServiceRepoImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//Costo di una verifica di /username/available mentre l'utente scrive: username quasi sempre liberi (prefissi parziali)
+//findByUsername è la query che farebbe ogni tasto senza filtro, filter risponde dal filtro di Bloom e va a db solo
+//sui "forse già preso" (quelli veri, takenPercent% del traffico, più i falsi positivi)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UsernameAvailabilityBenchmark {
+    private static final int USERS = 200_000;
+
+    @Param({"5"})
+    private int takenPercent;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private TakenCredentialFilter takenCredentialFilter;
+
+    @Setup
+    public void setUp() {
+        context = H2JpaContext.start("usernameAvailability");
+        context.getBean(JdbcTemplate.class).update("INSERT INTO Users (id, name, username, email, password) "
+                + "SELECT X, 'nameTest', 'user' || X, 'user' || X || '@test.it', 'pswTest' FROM SYSTEM_RANGE(1, " + USERS + ")");
+        userRepository = context.getBean(UserRepository.class);
+
+        takenCredentialFilter = new TakenCredentialFilter(new UserServiceRepoImpl(userRepository), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(takenCredentialFilter, "expectedInsertions", (long) USERS);
+        ReflectionTestUtils.setField(takenCredentialFilter, "falsePositiveRate", 0.01);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> takenCredentialFilter.init());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean findByUsername() {
+        return userRepository.findByUsername(nextUsername()).isPresent();
+    }
+
+    @Benchmark
+    public boolean filter() {
+        return takenCredentialFilter.isUsernameTaken(nextUsername());
+    }
+
+    private String nextUsername() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < takenPercent) {
+            return "user" + (random.nextInt(USERS) + 1);
+        }
+        return "free" + random.nextInt(USERS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(UsernameAvailabilityBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
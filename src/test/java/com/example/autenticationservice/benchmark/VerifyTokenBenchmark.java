@@ -0,0 +1,96 @@
+package com.example.autenticationservice.benchmark;
+
+import com.example.autenticationService.generated.application.api.ServizioAutenticazioneApiController;
+import com.example.autenticationservice.application.ServizioAutenticazioneApiDelegateImpl;
+import com.example.autenticationservice.application.filter.VerifyTokenFilter;
+import com.example.autenticationservice.application.jwt.AccessTokenApp;
+import com.example.autenticationservice.application.jwt.RefreshTokenApp;
+import com.example.autenticationservice.application.mapper.AutenticationMappers;
+import com.example.autenticationservice.domain.model.verifyToken.VerifiedToken;
+import com.example.autenticationservice.domain.service.AutenticationService;
+import com.example.autenticationservice.domain.service.impl.AutenticationServiceImpl;
+import com.example.autenticationservice.domain.util.HashUtil;
+import com.example.autenticationservice.domain.util.jwt.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+//A/B di POST /verify-token con token già in VerifiedTokenCache (il caso normale a regime)
+//controller: DispatcherServlet, controller generato, delegate, MapStruct e Jackson
+//filter: VerifyTokenFilter risponde prima del DispatcherServlet (spring.app.verifyTokenFilterEnabled=true)
+//Entrambi passano da MockMvc, quindi la differenza è il solo costo di dispatch, mapping e serializzazione
+//Con -prof gc si confrontano anche le allocazioni per richiesta
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VerifyTokenBenchmark {
+    private static final String ACCESS_TOKEN = "accessToken";
+
+    private MockMvc controllerMockMvc;
+    private MockMvc filterMockMvc;
+
+    @Setup
+    public void setUp() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(new HashUtil(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(verifiedTokenCache, "maximumSize", 1000L);
+        verifiedTokenCache.init();
+        verifiedTokenCache.put(ACCESS_TOKEN, VerifiedToken.builder()
+                .username("usernameTest")
+                .expiresAt(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1))
+                .build());
+
+        //verifyToken con cache piena usa solo VerifiedTokenCache
+        AutenticationService autenticationService = new AutenticationServiceImpl(null, null, null, null, null, null, verifiedTokenCache, null);
+        AccessTokenApp accessTokenApp = new AccessTokenApp();
+        RefreshTokenApp refreshTokenApp = new RefreshTokenApp();
+
+        ServizioAutenticazioneApiDelegateImpl delegate = new ServizioAutenticazioneApiDelegateImpl(
+                Mappers.getMapper(AutenticationMappers.class), autenticationService, accessTokenApp, refreshTokenApp);
+        ServizioAutenticazioneApiController controller = new ServizioAutenticazioneApiController(delegate);
+
+        controllerMockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        filterMockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .addFilters(new VerifyTokenFilter(autenticationService, accessTokenApp, refreshTokenApp))
+                .build();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse controller() throws Exception {
+        return verify(controllerMockMvc);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filter() throws Exception {
+        return verify(filterMockMvc);
+    }
+
+    private MockHttpServletResponse verify(MockMvc mockMvc) throws Exception {
+        return mockMvc.perform(post("/verify-token")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + ACCESS_TOKEN))
+                .andReturn()
+                .getResponse();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(VerifyTokenBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
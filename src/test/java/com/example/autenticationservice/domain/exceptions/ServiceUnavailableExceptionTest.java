@@ -0,0 +1,34 @@
+package com.example.autenticationservice.domain.exceptions;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ServiceUnavailableExceptionTest {
+    @Test
+    public void shouldThrowServiceUnavailableException_withMessage() {
+        //PARAMETERS
+        String errorMessage = "errorMessage";
+
+        //TEST
+        ServiceUnavailableException exception = new ServiceUnavailableException(errorMessage);
+
+        //RESULTS
+        Assertions.assertNotNull(exception);
+        Assertions.assertEquals(errorMessage, exception.getMessage());
+    }
+
+    @Test
+    public void shouldThrowServiceUnavailableException_withMessageAndCause() {
+        //PARAMETERS
+        String errorMessage = "errorMessage";
+        Throwable cause = new RuntimeException("errorCause");
+
+        //TEST
+        ServiceUnavailableException exception = new ServiceUnavailableException(errorMessage, cause);
+
+        //RESULTS
+        Assertions.assertNotNull(exception);
+        Assertions.assertEquals(errorMessage, exception.getMessage());
+        Assertions.assertEquals(cause, exception.getCause());
+    }
+}
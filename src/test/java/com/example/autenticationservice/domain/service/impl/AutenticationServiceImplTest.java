@@ -1,36 +1,51 @@
 package com.example.autenticationservice.domain.service.impl;
 
 import com.example.autenticationservice.domain.api.EmailService;
-import com.example.autenticationservice.domain.api.JwtService;
+import com.example.autenticationservice.domain.exceptions.CredentialTakenException;
 import com.example.autenticationservice.domain.exceptions.ExpireOtpException;
 import com.example.autenticationservice.domain.exceptions.InvalidCredentialsException;
 import com.example.autenticationservice.domain.exceptions.MissingTokenException;
+import com.example.autenticationservice.domain.exceptions.ServiceUnavailableException;
 import com.example.autenticationservice.domain.exceptions.TokenExpiredException;
-import com.example.autenticationservice.domain.model.GetUsernameResponse;
+import com.example.autenticationservice.domain.model.GetUsernameAvailableResponse;
+import com.example.autenticationservice.domain.model.GetUsernameListResponse;
 import com.example.autenticationservice.domain.model.Otp;
 import com.example.autenticationservice.domain.model.RefreshToken;
 import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.model.jwks.GetJwksResponse;
+import com.example.autenticationservice.domain.model.jwks.JsonWebKey;
 import com.example.autenticationservice.domain.model.autentication.*;
+import com.example.autenticationservice.domain.model.register.ImportUserResult;
+import com.example.autenticationservice.domain.model.register.ImportUserStatus;
 import com.example.autenticationservice.domain.model.register.StepRegisterRequest;
 import com.example.autenticationservice.domain.model.register.StepRegisterResponse;
 import com.example.autenticationservice.domain.model.verifyToken.GetAccessTokenByRefreshTokenRequest;
 import com.example.autenticationservice.domain.model.verifyToken.GetAccessTokenByRefreshTokenResponse;
+import com.example.autenticationservice.domain.model.verifyToken.VerifiedToken;
 import com.example.autenticationservice.domain.model.verifyToken.VerifyTokenResponse;
-import com.example.autenticationservice.domain.util.HashUtil;
 import com.example.autenticationservice.domain.util.OtpUtil;
+import com.example.autenticationservice.domain.util.PasswordHasher;
+import com.example.autenticationservice.domain.util.jwt.VerifiedTokenCache;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.micrometer.common.util.StringUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.mockito.Mockito.*;
 
@@ -43,9 +58,6 @@ public class AutenticationServiceImplTest {
     @Mock
     private EmailService emailService;
 
-    @Mock
-    private JwtService jwtService;
-
     @Mock
     private UserService userService;
 
@@ -59,7 +71,13 @@ public class AutenticationServiceImplTest {
     private OtpUtil otpUtil;
 
     @Mock
-    private HashUtil hashUtil;
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Mock
+    private TransactionOperations transactionOperations;
 
     @Test
     public void shouldRegister_whenAllOk() {
@@ -71,18 +89,18 @@ public class AutenticationServiceImplTest {
                 .password("pswTest")
                 .build();
 
-        String passwordSha1 = "hashedPassword";
+        String passwordHash = "hashedPassword";
 
         User user = User.builder()
                 .name("nameTest")
                 .username("usernameTest")
-                .password(passwordSha1)
+                .password(passwordHash)
                 .email("emailTest")
                 .otpList(new ArrayList<>())
                 .build();
 
         //MOCK
-        doReturn(passwordSha1).when(hashUtil).stringToSha1(stepRegisterRequest.getPassword());
+        doReturn(passwordHash).when(passwordHasher).hash(stepRegisterRequest.getPassword());
         doNothing().when(userService).register(user);
 
         //TEST
@@ -104,18 +122,18 @@ public class AutenticationServiceImplTest {
                 .password("pswTest")
                 .build();
 
-        String passwordSha1 = "hashedPassword";
+        String passwordHash = "hashedPassword";
 
         User user = User.builder()
                 .name("nameTest")
                 .username("usernameTest")
-                .password(passwordSha1)
+                .password(passwordHash)
                 .email("emailTest")
                 .otpList(new ArrayList<>())
                 .build();
 
         //MOCK
-        doReturn(passwordSha1).when(hashUtil).stringToSha1(stepRegisterRequest.getPassword());
+        doReturn(passwordHash).when(passwordHasher).hash(stepRegisterRequest.getPassword());
         doThrow(RuntimeException.class).when(userService).register(user);
 
         //TEST
@@ -125,6 +143,92 @@ public class AutenticationServiceImplTest {
         verify(userService, times(1)).register(user);
     }
 
+    @Test
+    public void shouldImportUsers_whenSomeRowsInvalidOrTaken() {
+        //PARAMETERS
+        List<StepRegisterRequest> requests = List.of(
+                importRequest("anna", "anna@test.it", "psw0"),
+                importRequest("bruno", "bruno@test.it", null),
+                importRequest("anna", "anna2@test.it", "psw2"),
+                importRequest("carla", "carla@test.it", "psw3"),
+                importRequest("elio", "elio@test.it", "psw4"));
+
+        //MOCK
+        doReturn(Set.of("carla")).when(userService).getTakenUsernames(Set.of("anna", "carla", "elio"));
+        doReturn(Set.of()).when(userService).getTakenEmails(Set.of("anna@test.it", "carla@test.it", "elio@test.it"));
+        doReturn(List.of("hash0", "hash4")).when(passwordHasher).hashAll(List.of("psw0", "psw4"));
+
+        //TEST
+        List<ImportUserResult> result = autenticationServiceImpl.importUsers(requests);
+
+        //RESULTS
+        Assertions.assertEquals(List.of(ImportUserStatus.CREATED, ImportUserStatus.INVALID, ImportUserStatus.DUPLICATE,
+                        ImportUserStatus.DUPLICATE, ImportUserStatus.CREATED),
+                result.stream().map(ImportUserResult::getStatus).toList());
+        Assertions.assertEquals("Missing password", result.get(1).getMessage());
+        Assertions.assertEquals("Username is already taken", result.get(2).getMessage());
+        Assertions.assertEquals("Username is already taken", result.get(3).getMessage());
+        verify(userService, times(1)).registerAll(argThat(users -> users.size() == 2
+                && users.get(0).getUsername().equals("anna") && users.get(0).getPassword().equals("hash0")
+                && users.get(1).getUsername().equals("elio") && users.get(1).getPassword().equals("hash4")));
+        verify(passwordHasher, never()).hash(anyString());
+        verify(userService, never()).register(any(User.class));
+    }
+
+    @Test
+    public void shouldImportUsersOneByOne_whenBulkInsertConflicts() {
+        //PARAMETERS
+        List<StepRegisterRequest> requests = List.of(
+                importRequest("anna", "anna@test.it", "psw0"),
+                importRequest("bruno", "bruno@test.it", "psw1"));
+
+        //MOCK
+        doReturn(Set.of()).when(userService).getTakenUsernames(anySet());
+        doReturn(Set.of()).when(userService).getTakenEmails(anySet());
+        doReturn(List.of("hash0", "hash1")).when(passwordHasher).hashAll(anyList());
+        doThrow(new CredentialTakenException("Username is already taken")).when(userService).registerAll(anyList());
+        doNothing().when(userService).register(argThat(user -> user != null && user.getUsername().equals("anna")));
+        doThrow(new CredentialTakenException("Email is already taken")).when(userService)
+                .register(argThat(user -> user != null && user.getUsername().equals("bruno")));
+
+        //TEST
+        List<ImportUserResult> result = autenticationServiceImpl.importUsers(requests);
+
+        //RESULTS
+        Assertions.assertEquals(ImportUserStatus.CREATED, result.get(0).getStatus());
+        Assertions.assertEquals(ImportUserStatus.DUPLICATE, result.get(1).getStatus());
+        Assertions.assertEquals("Email is already taken", result.get(1).getMessage());
+        verify(userService, times(2)).register(any(User.class));
+    }
+
+    @Test
+    public void shouldFailImportedRows_whenHashingPoolSaturated() {
+        //PARAMETERS
+        List<StepRegisterRequest> requests = List.of(importRequest("anna", "anna@test.it", "psw0"));
+
+        //MOCK
+        doReturn(Set.of()).when(userService).getTakenUsernames(anySet());
+        doReturn(Set.of()).when(userService).getTakenEmails(anySet());
+        doThrow(new ServiceUnavailableException("Server busy, retry later")).when(passwordHasher).hashAll(anyList());
+
+        //TEST
+        List<ImportUserResult> result = autenticationServiceImpl.importUsers(requests);
+
+        //RESULTS
+        Assertions.assertEquals(ImportUserStatus.FAILED, result.get(0).getStatus());
+        Assertions.assertEquals("Server busy, retry later", result.get(0).getMessage());
+        verify(userService, never()).registerAll(anyList());
+    }
+
+    private StepRegisterRequest importRequest(String username, String email, String password) {
+        return StepRegisterRequest.builder()
+                .name("nameTest")
+                .username(username)
+                .email(email)
+                .password(password)
+                .build();
+    }
+
     @Test
     public void shouldFirstStepLogin_whenAllOk() {
         // PARAMETERS
@@ -133,12 +237,12 @@ public class AutenticationServiceImplTest {
                 .password("pswTest")
                 .build();
 
-        String passwordSha1 = "hashedPassword";
+        String passwordHash = "hashedPassword";
 
         User user = User.builder()
                 .name("nameTest")
                 .username("usernameTest")
-                .password(passwordSha1)
+                .password(passwordHash)
                 .email("emailTest")
                 .otpList(new ArrayList<>())
                 .build();
@@ -150,11 +254,11 @@ public class AutenticationServiceImplTest {
                 .build();
 
         //MOCK
-        doReturn(passwordSha1).when(hashUtil).stringToSha1(stepLoginRequest.getPassword());
-        doReturn(user).when(userService).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), passwordSha1);
+        doReturn(user).when(userService).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), stepLoginRequest.getPassword());
         doReturn(otp).when(otpUtil).generateOtp(eq(user), any());  //qualsiasi sessionId
         doNothing().when(otpService).saveOtp(otp);
         doNothing().when(emailService).sendEmail(user.getEmail(), "Chat4Me - OTP code", otp.getOtp());
+        runTransactionCallbacks();
 
         //TEST
         FirstStepLoginResponse result = autenticationServiceImpl.firstStepLogin(stepLoginRequest);
@@ -162,7 +266,7 @@ public class AutenticationServiceImplTest {
         //RESULTS
         Assertions.assertNotNull(result);
         Assertions.assertEquals("Login successful, OTP sent", result.getMessage());
-        verify(userService, times(1)).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), passwordSha1);
+        verify(userService, times(1)).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), stepLoginRequest.getPassword());
         verify(otpUtil, times(1)).generateOtp(eq(user), any()); //con qualsiasi sessionId
         verify(otpService, times(1)).saveOtp(otp);
         verify(emailService, times(1)).sendEmail(user.getEmail(), "Chat4Me - OTP code", otp.getOtp());
@@ -176,11 +280,8 @@ public class AutenticationServiceImplTest {
                 .password("pswTest")
                 .build();
 
-        String passwordSha1 = "hashedPassword";
-
         //MOCK
-        doReturn(passwordSha1).when(hashUtil).stringToSha1(stepLoginRequest.getPassword());
-        doThrow(RuntimeException.class).when(userService).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), passwordSha1);
+        doThrow(RuntimeException.class).when(userService).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), stepLoginRequest.getPassword());
 
         //TEST
         Assertions.assertThrows(RuntimeException.class, () -> {
@@ -188,7 +289,7 @@ public class AutenticationServiceImplTest {
         });
 
         //RESULTS
-        verify(userService, times(1)).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), passwordSha1);
+        verify(userService, times(1)).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), stepLoginRequest.getPassword());
     }
 
     @Test
@@ -199,19 +300,18 @@ public class AutenticationServiceImplTest {
                 .password("pswTest")
                 .build();
 
-        String passwordSha1 = "hashedPassword";
+        String passwordHash = "hashedPassword";
 
         User user = User.builder()
                 .name("nameTest")
                 .username("usernameTest")
-                .password(passwordSha1)
+                .password(passwordHash)
                 .email("emailTest")
                 .otpList(new ArrayList<>())
                 .build();
 
         //MOCK
-        doReturn(passwordSha1).when(hashUtil).stringToSha1(stepLoginRequest.getPassword());
-        doReturn(user).when(userService).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), passwordSha1);
+        doReturn(user).when(userService).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), stepLoginRequest.getPassword());
         doThrow(RuntimeException.class).when(otpUtil).generateOtp(eq(user), any());
 
         //TEST
@@ -220,7 +320,7 @@ public class AutenticationServiceImplTest {
         });
 
         //RESULTS
-        verify(userService, times(1)).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), passwordSha1);
+        verify(userService, times(1)).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), stepLoginRequest.getPassword());
         verify(otpUtil, times(1)).generateOtp(eq(user), any());
     }
 
@@ -232,12 +332,12 @@ public class AutenticationServiceImplTest {
                 .password("pswTest")
                 .build();
 
-        String passwordSha1 = "hashedPassword";
+        String passwordHash = "hashedPassword";
 
         User user = User.builder()
                 .name("nameTest")
                 .username("usernameTest")
-                .password(passwordSha1)
+                .password(passwordHash)
                 .email("emailTest")
                 .otpList(new ArrayList<>())
                 .build();
@@ -249,10 +349,10 @@ public class AutenticationServiceImplTest {
                 .build();
 
         //MOCK
-        doReturn(passwordSha1).when(hashUtil).stringToSha1(stepLoginRequest.getPassword());
-        doReturn(user).when(userService).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), passwordSha1);
+        doReturn(user).when(userService).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), stepLoginRequest.getPassword());
         doReturn(otp).when(otpUtil).generateOtp(eq(user), any());
         doThrow(RuntimeException.class).when(emailService).sendEmail(user.getEmail(), "Chat4Me - OTP code", otp.getOtp());
+        runTransactionCallbacks();
 
         //TEST
         Assertions.assertThrows(RuntimeException.class, () -> {
@@ -260,11 +360,52 @@ public class AutenticationServiceImplTest {
         });
 
         //RESULTS
-        verify(userService, times(1)).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), passwordSha1);
+        verify(userService, times(1)).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), stepLoginRequest.getPassword());
         verify(otpUtil, times(1)).generateOtp(eq(user), any());
         verify(emailService, times(1)).sendEmail(user.getEmail(), "Chat4Me - OTP code", otp.getOtp());
     }
 
+    @Test
+    public void shouldVerifyPasswordOutsideTransaction_whenFirstStepLogin() {
+        //PARAMETERS
+        FirstStepLoginRequest stepLoginRequest = FirstStepLoginRequest.builder()
+                .username("usernameTest")
+                .password("pswTest")
+                .build();
+
+        User user = User.builder()
+                .username("usernameTest")
+                .email("emailTest")
+                .build();
+
+        Otp otp = Otp.builder()
+                .user(user)
+                .sessionId("sessionIdRandom")
+                .otp("123456")
+                .build();
+
+        //MOCK
+        doReturn(user).when(userService).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), stepLoginRequest.getPassword());
+        doReturn(otp).when(otpUtil).generateOtp(eq(user), any());
+        runTransactionCallbacks();
+
+        //TEST
+        autenticationServiceImpl.firstStepLogin(stepLoginRequest);
+
+        //RESULTS
+        InOrder inOrder = inOrder(userService, transactionOperations, otpService, emailService);
+        inOrder.verify(userService).getUserByUsernameAndPassword(stepLoginRequest.getUsername(), stepLoginRequest.getPassword());
+        inOrder.verify(transactionOperations).execute(any());
+        inOrder.verify(otpService).saveOtp(otp);
+        inOrder.verify(emailService).sendEmail(user.getEmail(), "Chat4Me - OTP code", otp.getOtp());
+    }
+
+    //la transazione del mock esegue direttamente la callback
+    private void runTransactionCallbacks() {
+        doAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .when(transactionOperations).execute(any());
+    }
+
     @Test
     public void shouldSecondStepLogin_whenAllOk(){
         //PARAMETERS
@@ -527,23 +668,50 @@ public class AutenticationServiceImplTest {
         //PARAMETERS
         String accessToken = "accessTokenTest";
         String username = "usernameTest";
+        VerifiedToken verifiedToken = VerifiedToken.builder()
+                .username(username)
+                .expiresAt(System.currentTimeMillis() + 1000)
+                .build();
 
         //MOCK
-        doReturn(accessToken).when(jwtService).extractAccessJwt();
         try (MockedStatic<StringUtils> mockedStringUtils = mockStatic(StringUtils.class)) {
             mockedStringUtils.when(() -> StringUtils.isBlank(accessToken)).thenReturn(false);
-            doReturn(true).when(tokenService).validateRefreshToken(accessToken);
-            doReturn(username).when(tokenService).getUsernameFromToken(accessToken);
+            doReturn(Optional.of(verifiedToken)).when(tokenService).verifyAccessToken(accessToken);
 
             //TEST
-            VerifyTokenResponse result = autenticationServiceImpl.verifyToken();
+            VerifyTokenResponse result = autenticationServiceImpl.verifyToken(accessToken);
 
             //RESULTS
             Assertions.assertNotNull(result);
             Assertions.assertEquals(username, result.getUsername());
-            verify(jwtService, times(1)).extractAccessJwt();
-            verify(tokenService, times(1)).validateRefreshToken(accessToken);
-            verify(tokenService, times(1)).getUsernameFromToken(accessToken);
+            verify(tokenService, times(1)).verifyAccessToken(accessToken);
+            verify(verifiedTokenCache, times(1)).put(accessToken, verifiedToken);
+            verifyNoInteractions(userService, otpService, emailService); //nessun accesso a db
+        }
+    }
+
+    @Test
+    public void shouldVerifyTokenResponse_whenTokenIsCached() {
+        //PARAMETERS
+        String accessToken = "accessTokenTest";
+        String username = "usernameTest";
+        VerifiedToken verifiedToken = VerifiedToken.builder()
+                .username(username)
+                .expiresAt(System.currentTimeMillis() + 1000)
+                .build();
+
+        //MOCK
+        try (MockedStatic<StringUtils> mockedStringUtils = mockStatic(StringUtils.class)) {
+            mockedStringUtils.when(() -> StringUtils.isBlank(accessToken)).thenReturn(false);
+            doReturn(Optional.of(verifiedToken)).when(verifiedTokenCache).get(accessToken);
+
+            //TEST
+            VerifyTokenResponse result = autenticationServiceImpl.verifyToken(accessToken);
+
+            //RESULTS
+            Assertions.assertNotNull(result);
+            Assertions.assertEquals(username, result.getUsername());
+            verify(tokenService, never()).verifyAccessToken(accessToken);
         }
     }
 
@@ -553,13 +721,12 @@ public class AutenticationServiceImplTest {
         String accessToken = "accessTokenTest";
 
         //MOCK
-        doReturn(accessToken).when(jwtService).extractAccessJwt();
         try (MockedStatic<StringUtils> mockedStringUtils = mockStatic(StringUtils.class)) {
             mockedStringUtils.when(() -> StringUtils.isBlank(accessToken)).thenReturn(true);
 
             //TEST + RESULTS
             Assertions.assertThrows(MissingTokenException.class, () -> {
-                autenticationServiceImpl.verifyToken();
+                autenticationServiceImpl.verifyToken(accessToken);
             });
         }
     }
@@ -570,19 +737,36 @@ public class AutenticationServiceImplTest {
         String accessToken = "accessTokenTest";
 
         //MOCK
-        doReturn(accessToken).when(jwtService).extractAccessJwt();
         try (MockedStatic<StringUtils> mockedStringUtils = mockStatic(StringUtils.class)) {
             mockedStringUtils.when(() -> StringUtils.isBlank(accessToken)).thenReturn(false);
-            doThrow(ExpiredJwtException.class).when(tokenService).validateRefreshToken(accessToken);
+            doThrow(ExpiredJwtException.class).when(tokenService).verifyAccessToken(accessToken);
 
             //TEST + RESULTS
             Assertions.assertThrows(TokenExpiredException.class, () -> {
-                autenticationServiceImpl.verifyToken();
+                autenticationServiceImpl.verifyToken(accessToken);
             });
 
             //RESULTS
-            verify(jwtService, times(1)).extractAccessJwt();
-            verify(tokenService, times(1)).validateRefreshToken(accessToken);
+            verify(tokenService, times(1)).verifyAccessToken(accessToken);
+        }
+    }
+
+    @Test
+    public void shouldVerifyTokenResponseException_whenTokenNotValid() {
+        //PARAMETERS
+        String accessToken = "accessTokenTest";
+
+        //MOCK
+        try (MockedStatic<StringUtils> mockedStringUtils = mockStatic(StringUtils.class)) {
+            mockedStringUtils.when(() -> StringUtils.isBlank(accessToken)).thenReturn(false);
+            doReturn(Optional.empty()).when(tokenService).verifyAccessToken(accessToken);
+
+            //TEST + RESULTS
+            Assertions.assertThrows(InvalidCredentialsException.class, () -> {
+                autenticationServiceImpl.verifyToken(accessToken);
+            });
+
+            verify(tokenService, times(1)).verifyAccessToken(accessToken);
         }
     }
 
@@ -595,39 +779,135 @@ public class AutenticationServiceImplTest {
 
         String refreshTokenString = "refreshTokenTest";
 
-        User user = User.builder()
-                .name("nameTest")
-                .username("usernameTest")
-                .password("pswTest")
-                .email("emailTest")
-                .otpList(new ArrayList<>())
-                .build();
+        String accessToken = "accessTokenTest";
 
-        RefreshToken refreshToken = RefreshToken.builder()
-                .user(user)
-                .refreshToken("refreshTokenTest")
+        VerifiedToken verifiedToken = VerifiedToken.builder()
+                .username("usernameTest")
+                .expiresAt(System.currentTimeMillis() + 1000)
                 .build();
 
-        String accessToken = "accessTokenTest";
-
         //MOCK
-        doReturn(refreshTokenString).when(jwtService).extractRefreshJwt();
         try (MockedStatic<StringUtils> mockedStringUtils = mockStatic(StringUtils.class)) {
             mockedStringUtils.when(() -> StringUtils.isBlank(refreshTokenString)).thenReturn(false);
-            doReturn(refreshToken).when(tokenService).getRefreshToken(refreshTokenString);
-            doReturn(true).when(tokenService).validateRefreshToken(refreshTokenString);
-            doReturn(accessToken).when(tokenService).generateAccessToken(refreshToken.getUser().getUsername());
+            doReturn(Optional.of(verifiedToken)).when(tokenService).verifyRefreshToken(refreshTokenString);
+            doReturn(RefreshToken.builder().valid(true).build()).when(tokenService).getRefreshToken(refreshTokenString);
+            doReturn(accessToken).when(tokenService).generateAccessToken(verifiedToken.getUsername());
 
             //TEST
-            GetAccessTokenByRefreshTokenResponse result = autenticationServiceImpl.getNewAccessToken(getAccessTokenByRefreshTokenRequest);
+            GetAccessTokenByRefreshTokenResponse result = autenticationServiceImpl.getNewAccessToken(getAccessTokenByRefreshTokenRequest, refreshTokenString);
 
             //RESULTS
             Assertions.assertNotNull(result);
             Assertions.assertEquals(accessToken, result.getAccessToken());
+            verify(tokenService, times(1)).getRefreshToken(refreshTokenString);
+            verifyNoInteractions(userService, otpService, emailService); //username dai claims, nessuna lettura dell'utente
+        }
+    }
 
+    @Test
+    public void shouldGetAccessTokenByRefreshTokenResponseException_whenRefreshTokenInvalidInDb() {
+        //PARAMETERS
+        GetAccessTokenByRefreshTokenRequest getAccessTokenByRefreshTokenRequest = GetAccessTokenByRefreshTokenRequest.builder()
+                .refreshToken("refreshTokenTest")
+                .build();
+
+        String refreshTokenString = "refreshTokenTest";
+
+        VerifiedToken verifiedToken = VerifiedToken.builder()
+                .username("usernameTest")
+                .expiresAt(System.currentTimeMillis() + 1000)
+                .build();
+
+        //MOCK
+        try (MockedStatic<StringUtils> mockedStringUtils = mockStatic(StringUtils.class)) {
+            mockedStringUtils.when(() -> StringUtils.isBlank(refreshTokenString)).thenReturn(false);
+            doReturn(Optional.of(verifiedToken)).when(tokenService).verifyRefreshToken(refreshTokenString);
+            doReturn(RefreshToken.builder().valid(false).build()).when(tokenService).getRefreshToken(refreshTokenString); //revocato da un altro nodo
+
+            //TEST + RESULTS
+            Assertions.assertThrows(MissingTokenException.class, () -> {
+                autenticationServiceImpl.getNewAccessToken(getAccessTokenByRefreshTokenRequest, refreshTokenString);
+            });
+
+            verify(tokenService, never()).generateAccessToken(verifiedToken.getUsername());
         }
     }
 
+    @Test
+    public void shouldGetAccessTokenByRefreshTokenResponseException_whenRefreshTokenNotInDb() {
+        //PARAMETERS
+        GetAccessTokenByRefreshTokenRequest getAccessTokenByRefreshTokenRequest = GetAccessTokenByRefreshTokenRequest.builder()
+                .refreshToken("refreshTokenTest")
+                .build();
+
+        String refreshTokenString = "refreshTokenTest";
+
+        VerifiedToken verifiedToken = VerifiedToken.builder()
+                .username("usernameTest")
+                .expiresAt(System.currentTimeMillis() + 1000)
+                .build();
+
+        //MOCK
+        try (MockedStatic<StringUtils> mockedStringUtils = mockStatic(StringUtils.class)) {
+            mockedStringUtils.when(() -> StringUtils.isBlank(refreshTokenString)).thenReturn(false);
+            doReturn(Optional.of(verifiedToken)).when(tokenService).verifyRefreshToken(refreshTokenString);
+            doThrow(new MissingTokenException("Missing refresh token, please Login")).when(tokenService).getRefreshToken(refreshTokenString);
+
+            //TEST + RESULTS
+            Assertions.assertThrows(MissingTokenException.class, () -> {
+                autenticationServiceImpl.getNewAccessToken(getAccessTokenByRefreshTokenRequest, refreshTokenString);
+            });
+
+            verify(tokenService, never()).generateAccessToken(verifiedToken.getUsername());
+        }
+    }
+
+    @Test
+    public void shouldGetAccessTokenReactive_whenAllOk() {
+        //PARAMETERS
+        String refreshTokenString = "refreshTokenTest";
+
+        String accessToken = "accessTokenTest";
+
+        VerifiedToken verifiedToken = VerifiedToken.builder()
+                .username("usernameTest")
+                .expiresAt(System.currentTimeMillis() + 1000)
+                .build();
+
+        //MOCK
+        doReturn(Optional.of(verifiedToken)).when(tokenService).verifyRefreshToken(refreshTokenString);
+        doReturn(Mono.just(RefreshToken.builder().valid(true).build())).when(tokenService).findRefreshToken(refreshTokenString);
+        doReturn(accessToken).when(tokenService).generateAccessToken(verifiedToken.getUsername());
+
+        //TEST
+        GetAccessTokenByRefreshTokenResponse result = autenticationServiceImpl.getNewAccessTokenReactive(refreshTokenString).block();
+
+        //RESULTS
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(accessToken, result.getAccessToken());
+        verify(tokenService, never()).getRefreshToken(refreshTokenString); //nessuna lettura bloccante
+    }
+
+    @Test
+    public void shouldGetAccessTokenReactiveException_whenRefreshTokenInvalidInDb() {
+        //PARAMETERS
+        String refreshTokenString = "refreshTokenTest";
+
+        VerifiedToken verifiedToken = VerifiedToken.builder()
+                .username("usernameTest")
+                .expiresAt(System.currentTimeMillis() + 1000)
+                .build();
+
+        //MOCK
+        doReturn(Optional.of(verifiedToken)).when(tokenService).verifyRefreshToken(refreshTokenString);
+        doReturn(Mono.just(RefreshToken.builder().valid(false).build())).when(tokenService).findRefreshToken(refreshTokenString); //revocato da un altro nodo
+
+        //TEST + RESULTS
+        Assertions.assertThrows(MissingTokenException.class, () -> autenticationServiceImpl.getNewAccessTokenReactive(refreshTokenString).block());
+
+        verify(tokenService, never()).generateAccessToken(verifiedToken.getUsername());
+    }
+
     @Test
     public void shouldGetAccessTokenByRefreshTokenResponseException_whenMissingRefreshToken() {
         //PARAMETERS
@@ -638,13 +918,12 @@ public class AutenticationServiceImplTest {
         String refreshTokenString = "refreshTokenTest";
 
         //MOCK
-        doReturn(refreshTokenString).when(jwtService).extractRefreshJwt();
         try (MockedStatic<StringUtils> mockedStringUtils = mockStatic(StringUtils.class)) {
             mockedStringUtils.when(() -> StringUtils.isBlank(refreshTokenString)).thenReturn(true);
 
             //TEST + RESULTS
             Assertions.assertThrows(MissingTokenException.class, () -> {
-                autenticationServiceImpl.getNewAccessToken(getAccessTokenByRefreshTokenRequest);
+                autenticationServiceImpl.getNewAccessToken(getAccessTokenByRefreshTokenRequest, refreshTokenString);
             });
         }
     }
@@ -658,35 +937,42 @@ public class AutenticationServiceImplTest {
 
         String refreshTokenString = "refreshTokenTest";
 
-        User user = User.builder()
-                .name("nameTest")
-                .username("usernameTest")
-                .password("pswTest")
-                .email("emailTest")
-                .otpList(new ArrayList<>())
-                .build();
+        //MOCK
+        try (MockedStatic<StringUtils> mockedStringUtils = mockStatic(StringUtils.class)) {
+            mockedStringUtils.when(() -> StringUtils.isBlank(refreshTokenString)).thenReturn(false);
+            doReturn(Optional.empty()).when(tokenService).verifyRefreshToken(refreshTokenString);
 
-        RefreshToken refreshToken = RefreshToken.builder()
-                .user(user)
+            //TEST + RESULTS
+            Assertions.assertThrows(MissingTokenException.class, () -> {
+                autenticationServiceImpl.getNewAccessToken(getAccessTokenByRefreshTokenRequest, refreshTokenString);
+            });
+
+            verify(tokenService, times(1)).verifyRefreshToken(refreshTokenString);
+            verify(tokenService, never()).getRefreshToken(refreshTokenString);
+            mockedStringUtils.verify(() -> StringUtils.isBlank(refreshTokenString), times(1));
+        }
+    }
+
+    @Test
+    public void shouldGetAccessTokenByRefreshTokenResponseException_whenRefreshTokenExpired() {
+        //PARAMETERS
+        GetAccessTokenByRefreshTokenRequest getAccessTokenByRefreshTokenRequest = GetAccessTokenByRefreshTokenRequest.builder()
                 .refreshToken("refreshTokenTest")
                 .build();
 
+        String refreshTokenString = "refreshTokenTest";
+
         //MOCK
-        doReturn(refreshTokenString).when(jwtService).extractRefreshJwt();
         try (MockedStatic<StringUtils> mockedStringUtils = mockStatic(StringUtils.class)) {
             mockedStringUtils.when(() -> StringUtils.isBlank(refreshTokenString)).thenReturn(false);
-            doReturn(refreshToken).when(tokenService).getRefreshToken(refreshTokenString);
-            doReturn(false).when(tokenService).validateRefreshToken(refreshTokenString);
+            doThrow(ExpiredJwtException.class).when(tokenService).verifyRefreshToken(refreshTokenString);
 
             //TEST + RESULTS
             Assertions.assertThrows(MissingTokenException.class, () -> {
-                autenticationServiceImpl.getNewAccessToken(getAccessTokenByRefreshTokenRequest);
+                autenticationServiceImpl.getNewAccessToken(getAccessTokenByRefreshTokenRequest, refreshTokenString);
             });
 
-            verify(jwtService, times(1)).extractRefreshJwt();
-            verify(tokenService, times(1)).getRefreshToken(refreshTokenString);
-            verify(tokenService, times(1)).validateRefreshToken(refreshTokenString);
-            mockedStringUtils.verify(() -> StringUtils.isBlank(refreshTokenString), times(1));
+            verify(tokenService, never()).getRefreshToken(refreshTokenString);
         }
     }
 
@@ -696,17 +982,15 @@ public class AutenticationServiceImplTest {
         String refreshTokenString = "";
 
         //MOCK
-        doReturn(refreshTokenString).when(jwtService).extractRefreshJwt();
         try (MockedStatic<StringUtils> mockedStringUtils = mockStatic(StringUtils.class)) {
             mockedStringUtils.when(() -> StringUtils.isBlank(refreshTokenString)).thenReturn(true);
 
             //TEST
-            LogoutResponse logoutResponse = autenticationServiceImpl.logout();
+            LogoutResponse logoutResponse = autenticationServiceImpl.logout(refreshTokenString);
 
             //RESULTS
             Assertions.assertNotNull(logoutResponse);
-            verify(jwtService, times(1)).extractRefreshJwt();
-            mockedStringUtils.verify(() -> StringUtils.isBlank(refreshTokenString), times(1));
+            verify(tokenService, never()).invalidateRefreshToken(any());
         }
     }
 
@@ -716,17 +1000,15 @@ public class AutenticationServiceImplTest {
         String refreshTokenString = "refreshTokenTest";
 
         //MOCK
-        doReturn(refreshTokenString).when(jwtService).extractRefreshJwt();
         try (MockedStatic<StringUtils> mockedStringUtils = mockStatic(StringUtils.class)) {
             mockedStringUtils.when(() -> StringUtils.isBlank(refreshTokenString)).thenReturn(false);
             doNothing().when(tokenService).invalidateRefreshToken(refreshTokenString);
 
             //TEST
-            LogoutResponse logoutResponse = autenticationServiceImpl.logout();
+            LogoutResponse logoutResponse = autenticationServiceImpl.logout(refreshTokenString);
 
             //RESULTS
             Assertions.assertNotNull(logoutResponse);
-            verify(jwtService, times(1)).extractRefreshJwt();
             mockedStringUtils.verify(() -> StringUtils.isBlank(refreshTokenString), times(1));
             verify(tokenService, times(1)).invalidateRefreshToken(refreshTokenString);
         }
@@ -735,49 +1017,139 @@ public class AutenticationServiceImplTest {
     @Test
     public void shouldListGetUsernameResponse_whenAllOk() {
         //PARAMETERS
-        User user1 = User.builder()
-                .name("nameTest1")
-                .username("usernameTest1")
-                .password("pswTest1")
-                .email("emailTest1")
-                .otpList(new ArrayList<>())
-                .build();
+        List<String> usernames = Arrays.asList("usernameTest1", "usernameTest2");
 
-        User user2 = User.builder()
-                .name("nameTest2")
-                .username("usernameTest2")
-                .password("pswTest2")
-                .email("emailTest2")
-                .otpList(new ArrayList<>())
-                .build();
+        //MOCK
+        doReturn(usernames).when(userService).getUsernames(null, 3);
 
-        List<User> users = Arrays.asList(user1, user2);
+        //TEST
+        GetUsernameListResponse result = autenticationServiceImpl.getUsername(null, 2);
+
+        //RESULTS
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(usernames.size(), result.getUsernames().size());
+        Assertions.assertEquals("usernameTest1", result.getUsernames().get(0).getUsername());
+        Assertions.assertNull(result.getNextCursor()); //ultima pagina
+        verify(userService, times(1)).getUsernames(null, 3);
+    }
+
+    @Test
+    public void shouldReturnNextCursor_whenMoreUsernamesExist() {
+        //PARAMETERS
+        List<String> usernames = Arrays.asList("usernameTest2", "usernameTest3", "usernameTest4");
 
         //MOCK
-        doReturn(users).when(userService).getUserList();
+        doReturn(usernames).when(userService).getUsernames("usernameTest1", 3);
 
         //TEST
-        List<GetUsernameResponse> result = autenticationServiceImpl.getUsername();
+        GetUsernameListResponse result = autenticationServiceImpl.getUsername("usernameTest1", 2);
 
         //RESULTS
-        Assertions.assertNotNull(result);
-        Assertions.assertEquals(users.size(), result.size());
-        verify(userService, times(1)).getUserList();
+        Assertions.assertEquals(2, result.getUsernames().size());
+        Assertions.assertEquals("usernameTest3", result.getUsernames().get(1).getUsername());
+        Assertions.assertEquals("usernameTest3", result.getNextCursor());
+    }
+
+    @Test
+    public void shouldUseDefaultAndMaxPageSize_whenLimitMissingOrTooBig() {
+        //MOCK
+        doReturn(List.of()).when(userService).getUsernames(anyString(), anyInt());
+        doReturn(List.of()).when(userService).getUsernames(isNull(), anyInt());
+
+        //TEST
+        autenticationServiceImpl.getUsername("usernameTest1", null);
+        autenticationServiceImpl.getUsername(null, 100000);
+
+        //RESULTS
+        verify(userService, times(1)).getUsernames("usernameTest1", 101);
+        verify(userService, times(1)).getUsernames(null, 1001);
+    }
+
+    @Test
+    public void shouldReturnFirstPage_whenNoAfterAndNoLimit() {
+        //MOCK
+        doReturn(List.of("usernameTest1", "usernameTest2")).when(userService).getUsernames(null, 101);
+
+        //TEST
+        GetUsernameListResponse result = autenticationServiceImpl.getUsername(null, null);
+
+        //RESULTS
+        Assertions.assertEquals(2, result.getUsernames().size());
+        Assertions.assertNull(result.getNextCursor());
+        verify(userService, never()).forEachUsername(any()); //la lista completa è solo in /username-list/export
     }
 
     @Test
     public void shouldThrowException_whenGetUserListFails() {
 
         //MOCK
-        doThrow(RuntimeException.class).when(userService).getUserList();
+        doThrow(RuntimeException.class).when(userService).getUsernames(null, 101);
 
         //TEST + RESULTS
         Assertions.assertThrows(RuntimeException.class, () -> {
-            autenticationServiceImpl.getUsername();
+            autenticationServiceImpl.getUsername(null, 100);
         });
-        verify(userService, times(1)).getUserList();
+        verify(userService, times(1)).getUsernames(null, 101);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldExportUsernames_whenAllOk() {
+        //PARAMETERS
+        Consumer<String> action = mock(Consumer.class);
+
+        //TEST
+        autenticationServiceImpl.exportUsernames(action);
+
+        //RESULTS
+        verify(userService, times(1)).forEachUsername(action);
     }
 
+    @Test
+    public void shouldGetUsernameAvailable_whenUsernameFreeAndEmailTaken() {
+        //MOCK
+        doReturn(false).when(userService).isUsernameTaken("usernameTest");
+        doReturn(true).when(userService).isEmailTaken("emailTest");
 
+        //TEST
+        GetUsernameAvailableResponse result = autenticationServiceImpl.getUsernameAvailable("usernameTest", "emailTest");
 
+        //RESULTS
+        Assertions.assertTrue(result.getUsernameAvailable());
+        Assertions.assertFalse(result.getEmailAvailable());
+    }
+
+    @Test
+    public void shouldNotCheckEmail_whenEmailMissing() {
+        //MOCK
+        doReturn(true).when(userService).isUsernameTaken("usernameTest");
+
+        //TEST
+        GetUsernameAvailableResponse result = autenticationServiceImpl.getUsernameAvailable("usernameTest", null);
+
+        //RESULTS
+        Assertions.assertFalse(result.getUsernameAvailable());
+        Assertions.assertNull(result.getEmailAvailable());
+        verify(userService, never()).isEmailTaken(any());
+    }
+
+    @Test
+    public void shouldGetJwksResponse_whenAllOk() {
+        //PARAMETERS
+        JsonWebKey jsonWebKey = JsonWebKey.builder()
+                .kty("EC")
+                .kid("access-key")
+                .build();
+
+        //MOCK
+        doReturn(List.of(jsonWebKey)).when(tokenService).getPublicJsonWebKeys();
+
+        //TEST
+        GetJwksResponse result = autenticationServiceImpl.getJwks();
+
+        //RESULTS
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(List.of(jsonWebKey), result.getKeys());
+        verify(tokenService, times(1)).getPublicJsonWebKeys();
+    }
 }
@@ -3,8 +3,11 @@ package com.example.autenticationservice.domain.service.impl;
 import com.example.autenticationservice.domain.exceptions.MissingTokenException;
 import com.example.autenticationservice.domain.model.RefreshToken;
 import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.model.jwks.JsonWebKey;
+import com.example.autenticationservice.domain.model.verifyToken.VerifiedToken;
 import com.example.autenticationservice.domain.repository.RefreshTokenServiceRepo;
 import com.example.autenticationservice.domain.util.jwt.AccessTokenJwt;
+import com.example.autenticationservice.domain.util.jwt.JwtKeyProvider;
 import com.example.autenticationservice.domain.util.jwt.RefreshTokenJwt;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -12,8 +15,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
@@ -33,6 +38,9 @@ public class TokenServiceTest {
     @Mock
     private RefreshTokenServiceRepo refreshTokenServiceRepo;
 
+    @Mock
+    private JwtKeyProvider jwtKeyProvider;
+
     @Test
     public void shouldAddRefreshToken_whenAllOk(){
         //PARAMETERS
@@ -135,6 +143,37 @@ public class TokenServiceTest {
         Assertions.assertThrows(MissingTokenException.class, () -> tokenService.getRefreshToken(refreshTokenString));
     }
 
+    @Test
+    public void shouldFindRefreshToken_whenAllOk(){
+        //PARAMETERS
+        String refreshTokenString = "tokenTest";
+        RefreshToken refreshToken = RefreshToken.builder()
+                .refreshToken(refreshTokenString)
+                .valid(true)
+                .build();
+
+        //MOCK
+        doReturn(Mono.just(refreshToken)).when(refreshTokenServiceRepo).findRefreshToken(refreshTokenString);
+
+        //TEST
+        RefreshToken results = tokenService.findRefreshToken(refreshTokenString).block();
+
+        //RESULTS
+        Assertions.assertEquals(refreshToken, results);
+    }
+
+    @Test
+    public void shouldEmitMissingTokenException_whenFindRefreshTokenEmpty(){
+        //PARAMETERS
+        String refreshTokenString = "invalidToken";
+
+        //MOCK
+        doReturn(Mono.empty()).when(refreshTokenServiceRepo).findRefreshToken(refreshTokenString);
+
+        //TEST + RESULTS
+        Assertions.assertThrows(MissingTokenException.class, () -> tokenService.findRefreshToken(refreshTokenString).block());
+    }
+
     @Test
     public void shouldInvalidateRefreshToken_whenAllOk(){
         //PARAMETERS
@@ -151,19 +190,24 @@ public class TokenServiceTest {
     }
 
     @Test
-    public void shouldValidateRefreshToken_whenAllOk(){
+    public void shouldVerifyRefreshToken_whenAllOk(){
         //PARAMETERS
         String token = "tokenTest";
+        VerifiedToken verifiedToken = VerifiedToken.builder()
+                .username("usernameTest")
+                .expiresAt(System.currentTimeMillis() + 1000)
+                .build();
 
         //MOCK
-        doReturn(true).when(refreshTokenJwt).validateToken(token);
+        doReturn(Optional.of(verifiedToken)).when(refreshTokenJwt).verify(token);
 
         //TEST
-        boolean result = tokenService.validateRefreshToken(token);
+        Optional<VerifiedToken> result = tokenService.verifyRefreshToken(token);
 
         //RESULTS
-        Assertions.assertTrue(result);
-        verify(refreshTokenJwt, times(1)).validateToken(token);
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals(verifiedToken, result.get());
+        verify(refreshTokenJwt, times(1)).verify(token);
     }
 
     @Test
@@ -185,21 +229,44 @@ public class TokenServiceTest {
     }
 
     @Test
-    public void shouldGetUsernameFromToken_whenAllOk(){
+    public void shouldVerifyAccessToken_whenAllOk(){
         //PARAMETERS
         String token = "tokenTest";
-        String username = "usernameTest";
+        VerifiedToken verifiedToken = VerifiedToken.builder()
+                .username("usernameTest")
+                .expiresAt(System.currentTimeMillis() + 1000)
+                .build();
 
         //MOCK
-        doReturn(username).when(accessTokenJwt).getUsernameFromToken(token);
+        doReturn(Optional.of(verifiedToken)).when(accessTokenJwt).verify(token);
 
         //TEST
-        String result = tokenService.getUsernameFromToken(token);
+        Optional<VerifiedToken> result = tokenService.verifyAccessToken(token);
 
         //RESULTS
-        Assertions.assertNotNull(result);
-        Assertions.assertEquals(username, result);
-        verify(accessTokenJwt, times(1)).getUsernameFromToken(token);
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals("usernameTest", result.get().getUsername());
+        verify(accessTokenJwt, times(1)).verify(token);
+    }
+
+    @Test
+    public void shouldGetPublicJsonWebKeys_whenAllOk(){
+        //PARAMETERS
+        JsonWebKey jsonWebKey = JsonWebKey.builder()
+                .kty("EC")
+                .kid("access-key")
+                .build();
+
+        //MOCK
+        doReturn(List.of(jsonWebKey)).when(jwtKeyProvider).getPublicJsonWebKeys();
+
+        //TEST
+        List<JsonWebKey> result = tokenService.getPublicJsonWebKeys();
+
+        //RESULTS
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals(jsonWebKey, result.get(0));
+        verify(jwtKeyProvider, times(1)).getPublicJsonWebKeys();
     }
 
 }
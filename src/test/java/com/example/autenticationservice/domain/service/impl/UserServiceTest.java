@@ -1,8 +1,14 @@
 package com.example.autenticationservice.domain.service.impl;
 
+import com.example.autenticationservice.domain.exceptions.CredentialTakenException;
 import com.example.autenticationservice.domain.exceptions.InvalidCredentialsException;
+import com.example.autenticationservice.domain.exceptions.ServiceUnavailableException;
 import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.model.UserSummary;
 import com.example.autenticationservice.domain.repository.UserServiceRepo;
+import com.example.autenticationservice.domain.util.PasswordHasher;
+import com.example.autenticationservice.domain.util.TakenCredentialFilter;
+import com.example.autenticationservice.domain.util.UserSummaryCache;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +19,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.mockito.Mockito.*;
 
@@ -25,6 +34,15 @@ public class UserServiceTest {
     @Mock
     private UserServiceRepo userServiceRepo;
 
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private TakenCredentialFilter takenCredentialFilter;
+
+    @Mock
+    private UserSummaryCache userSummaryCache;
+
     @Test
     public void shouldRegisterUser_whenAllOk(){
         //PARAMETERS
@@ -46,32 +64,92 @@ public class UserServiceTest {
 
         //RESULTS
         verify(userServiceRepo, times(1)).register(user);
+        verify(userSummaryCache, times(1)).invalidate("usernameTest");
+        verify(takenCredentialFilter, times(1)).add("usernameTest", "emailTest");
+    }
+
+    @Test
+    public void shouldRegisterAllUsers_whenAllOk(){
+        //PARAMETERS
+        List<User> users = List.of(
+                User.builder().name("nameTest").username("usernameTest1").email("emailTest1").password("pswTest").build(),
+                User.builder().name("nameTest").username("usernameTest2").email("emailTest2").password("pswTest").build());
+
+        //TEST
+        userService.registerAll(users);
+
+        //RESULTS
+        verify(userServiceRepo, times(1)).registerAll(users);
+        verify(takenCredentialFilter, times(1)).add("usernameTest1", "emailTest1");
+        verify(takenCredentialFilter, times(1)).add("usernameTest2", "emailTest2");
+    }
+
+    @Test
+    public void shouldNotAddToFilter_whenRegisterFails(){
+        //PARAMETERS
+        User user = User.builder().name("nameTest").username("usernameTest").email("emailTest").password("pswTest").build();
+
+        //MOCK
+        doThrow(new CredentialTakenException("Username is already taken")).when(userServiceRepo).register(user);
+
+        //TEST
+        Assertions.assertThrows(CredentialTakenException.class, () -> userService.register(user));
+
+        //RESULTS
+        verify(takenCredentialFilter, never()).add(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldAskFilter_whenCheckingCredentials(){
+        //MOCK
+        doReturn(true).when(takenCredentialFilter).isUsernameTaken("usernameTest");
+        doReturn(false).when(takenCredentialFilter).isEmailTaken("emailTest");
+
+        //TEST + RESULTS
+        Assertions.assertTrue(userService.isUsernameTaken("usernameTest"));
+        Assertions.assertFalse(userService.isEmailTaken("emailTest"));
+    }
+
+    @Test
+    public void shouldGetTakenUsernamesAndEmails_whenAllOk(){
+        //MOCK
+        doReturn(Set.of("usernameTest1")).when(userServiceRepo).getTakenUsernames(List.of("usernameTest1", "usernameTest2"));
+        doReturn(Set.of("emailTest2")).when(userServiceRepo).getTakenEmails(List.of("emailTest1", "emailTest2"));
+
+        //TEST
+        Set<String> usernames = userService.getTakenUsernames(List.of("usernameTest1", "usernameTest2"));
+        Set<String> emails = userService.getTakenEmails(List.of("emailTest1", "emailTest2"));
+
+        //RESULTS
+        Assertions.assertEquals(Set.of("usernameTest1"), usernames);
+        Assertions.assertEquals(Set.of("emailTest2"), emails);
     }
 
     @Test
     public void shouldGetUserByUsername_whenAllOk(){
         //PARAMETERS
         String username = "usernameTest";
-        User user = User.builder()
-                .id(null)
-                .name("nameTest")
+        UserSummary summary = UserSummary.builder()
+                .id(1)
                 .username("usernameTest")
                 .email("emailTest")
-                .password("pswTest")
-                .otpList(null)
-                .refreshTokenList(null)
                 .build();
 
         //MOCK
-        doReturn(Optional.of(user)).when(userServiceRepo).getUserByUsername(username);
+        readThroughCache();
+        doReturn(Optional.of(summary)).when(userServiceRepo).getUserSummaryByUsername(username);
 
         //TEST
         User result = userService.getUserByUsername(username);
 
         //RESULTS
         Assertions.assertNotNull(result);
+        Assertions.assertEquals(1, result.getId());
         Assertions.assertEquals(username, result.getUsername());
-        verify(userServiceRepo, times(1)).getUserByUsername(username);
+        Assertions.assertEquals("emailTest", result.getEmail());
+        Assertions.assertNull(result.getPassword());
+        verify(userServiceRepo, times(1)).getUserSummaryByUsername(username);
+        verify(userServiceRepo, never()).getUserByUsername(username);
     }
 
     @Test
@@ -80,7 +158,8 @@ public class UserServiceTest {
         String username = "invalidUsername";
 
         //MOCK
-        doReturn(Optional.empty()).when(userServiceRepo).getUserByUsername(username);
+        readThroughCache();
+        doReturn(Optional.empty()).when(userServiceRepo).getUserSummaryByUsername(username);
 
         //TEST + RESULTS
         Assertions.assertThrows(InvalidCredentialsException.class, () -> userService.getUserByUsername(username));
@@ -96,13 +175,14 @@ public class UserServiceTest {
                 .name("nameTest")
                 .username("usernameTest")
                 .email("emailTest")
-                .password("pswTest")
+                .password("pswHashTest")
                 .otpList(null)
                 .refreshTokenList(null)
                 .build();
 
         //MOCK
-        doReturn(Optional.of(user)).when(userServiceRepo).getUserByUsernameAndPassword(username, password);
+        doReturn(Optional.of(user)).when(userServiceRepo).getUserByUsername(username);
+        doReturn(true).when(passwordHasher).matches(password, "pswHashTest");
 
         //TEST
         User result = userService.getUserByUsernameAndPassword(username, password);
@@ -110,73 +190,164 @@ public class UserServiceTest {
         //RESULTS
         Assertions.assertNotNull(result);
         Assertions.assertEquals(username, result.getUsername());
-        Assertions.assertEquals(password, result.getPassword());
-        verify(userServiceRepo, times(1)).getUserByUsernameAndPassword(username, password);
+        verify(userServiceRepo, times(1)).getUserByUsername(username);
+        verify(passwordHasher, times(1)).matches(password, "pswHashTest");
     }
 
     @Test
     public void shouldThrowInvalidCredentialsException_whenGetUserByUsernameAndPasswordCredentialsNotMatch(){
         //PARAMETERS
-        String username = "invalidUsername";
+        String username = "usernameTest";
         String password = "invalidPsw";
+        User user = User.builder()
+                .username("usernameTest")
+                .password("pswHashTest")
+                .build();
 
         //MOCK
-        doReturn(Optional.empty()).when(userServiceRepo).getUserByUsernameAndPassword(username, password);
+        doReturn(Optional.of(user)).when(userServiceRepo).getUserByUsername(username);
+        doReturn(false).when(passwordHasher).matches(password, "pswHashTest");
 
         //TEST + RESULTS
         Assertions.assertThrows(InvalidCredentialsException.class, () -> userService.getUserByUsernameAndPassword(username, password));
     }
 
     @Test
-    public void shouldGetUserList_whenAllOk(){
+    public void shouldHashPasswordAnyway_whenGetUserByUsernameAndPasswordUserNotFound(){
         //PARAMETERS
-        User user1 = User.builder()
-                .id(null)
-                .name("nameTest")
-                .username("usernameTest")
-                .email("emailTest")
-                .password("pswTest")
-                .otpList(null)
-                .refreshTokenList(null)
-                .build();
+        String username = "invalidUsername";
+        String password = "pswTest";
 
-        User user2 = User.builder()
-                .id(null)
-                .name("nameTest")
-                .username("usernameTest")
-                .email("emailTest")
-                .password("pswTest")
-                .otpList(null)
-                .refreshTokenList(null)
-                .build();
+        //MOCK
+        doReturn(Optional.empty()).when(userServiceRepo).getUserByUsername(username);
+        doReturn(false).when(passwordHasher).matches(password, null);
 
-        List<User> userList = List.of(user1, user2);
+        //TEST + RESULTS
+        Assertions.assertThrows(InvalidCredentialsException.class, () -> userService.getUserByUsernameAndPassword(username, password));
+        verify(passwordHasher, times(1)).matches(password, null);
+    }
+
+    @Test
+    public void shouldGetUsernames_whenAllOk(){
+        //PARAMETERS
+        List<String> usernames = List.of("usernameTest1", "usernameTest2");
 
         //MOCK
-        doReturn(userList).when(userServiceRepo).getUserList();
+        doReturn(usernames).when(userServiceRepo).getUsernames("usernameTest0", 2);
 
         //TEST
-        List<User> result = userService.getUserList();
+        List<String> result = userService.getUsernames("usernameTest0", 2);
 
         //RESULTS
-        Assertions.assertNotNull(result);
-        Assertions.assertEquals(2, result.size());
-        Assertions.assertEquals(user1, result.get(0));
-        Assertions.assertEquals(user2, result.get(1));
-        verify(userServiceRepo, times(1)).getUserList();
+        Assertions.assertEquals(usernames, result);
+        verify(userServiceRepo, times(1)).getUsernames("usernameTest0", 2);
     }
 
     @Test
     public void shouldReturnEmptyList_whenNoUsersExist(){
         //MOCK
-        doReturn(Collections.emptyList()).when(userServiceRepo).getUserList();
+        doReturn(Collections.emptyList()).when(userServiceRepo).getUsernames(null, 2);
 
         //TEST
-        List<User> result = userService.getUserList();
+        List<String> result = userService.getUsernames(null, 2);
 
         //RESULTS
         Assertions.assertNotNull(result);
         Assertions.assertTrue(result.isEmpty());
-        verify(userServiceRepo, times(1)).getUserList();
+        verify(userServiceRepo, times(1)).getUsernames(null, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldDelegateForEachUsername_whenAllOk(){
+        //PARAMETERS
+        Consumer<String> action = mock(Consumer.class);
+
+        //TEST
+        userService.forEachUsername(action);
+
+        //RESULTS
+        verify(userServiceRepo, times(1)).forEachUsername(action);
+    }
+
+    @Test
+    public void shouldRehashPassword_whenGetUserByUsernameAndPasswordWithLegacyHash(){
+        //PARAMETERS
+        String username = "usernameTest";
+        String password = "pswTest";
+        User user = User.builder()
+                .id(1)
+                .username("usernameTest")
+                .password("legacySha1Test")
+                .build();
+
+        //MOCK
+        doReturn(Optional.of(user)).when(userServiceRepo).getUserByUsername(username);
+        doReturn(true).when(passwordHasher).matches(password, "legacySha1Test");
+        doReturn(true).when(passwordHasher).needsRehash("legacySha1Test");
+        doReturn("pswHashTest").when(passwordHasher).hash(password);
+
+        //TEST
+        User result = userService.getUserByUsernameAndPassword(username, password);
+
+        //RESULTS
+        Assertions.assertEquals("legacySha1Test", result.getPassword()); //nessuna modifica all'entità, solo l'UPDATE per id
+        verify(userServiceRepo, times(1)).updatePassword(1, "pswHashTest");
+    }
+
+    @Test
+    public void shouldNotRehashPassword_whenGetUserByUsernameAndPasswordWithCurrentHash(){
+        //PARAMETERS
+        String username = "usernameTest";
+        String password = "pswTest";
+        User user = User.builder()
+                .id(1)
+                .username("usernameTest")
+                .password("pswHashTest")
+                .build();
+
+        //MOCK
+        doReturn(Optional.of(user)).when(userServiceRepo).getUserByUsername(username);
+        doReturn(true).when(passwordHasher).matches(password, "pswHashTest");
+        doReturn(false).when(passwordHasher).needsRehash("pswHashTest");
+
+        //TEST
+        userService.getUserByUsernameAndPassword(username, password);
+
+        //RESULTS
+        verify(passwordHasher, never()).hash(anyString());
+        verify(userServiceRepo, never()).updatePassword(anyInt(), anyString());
+    }
+
+    @Test
+    public void shouldLoginAnyway_whenRehashRejected(){
+        //PARAMETERS
+        String username = "usernameTest";
+        String password = "pswTest";
+        User user = User.builder()
+                .id(1)
+                .username("usernameTest")
+                .password("legacySha1Test")
+                .build();
+
+        //MOCK
+        doReturn(Optional.of(user)).when(userServiceRepo).getUserByUsername(username);
+        doReturn(true).when(passwordHasher).matches(password, "legacySha1Test");
+        doReturn(true).when(passwordHasher).needsRehash("legacySha1Test");
+        doThrow(new ServiceUnavailableException("Server busy, retry later")).when(passwordHasher).hash(password);
+
+        //TEST
+        User result = userService.getUserByUsernameAndPassword(username, password);
+
+        //RESULTS
+        Assertions.assertEquals("legacySha1Test", result.getPassword());
+        verify(userServiceRepo, never()).updatePassword(anyInt(), anyString());
+    }
+
+    //la cache finta legge sempre dal loader, come a cache vuota
+    @SuppressWarnings("unchecked")
+    private void readThroughCache() {
+        doAnswer(invocation -> invocation.<Function<String, Optional<UserSummary>>>getArgument(1).apply(invocation.getArgument(0)))
+                .when(userSummaryCache).get(anyString(), any(Function.class));
     }
 }
@@ -0,0 +1,63 @@
+package com.example.autenticationservice.domain.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class BloomFilterTest {
+
+    @Test
+    public void shouldContainValue_whenPut() {
+        //PARAMETERS
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+
+        //TEST
+        for (int i = 0; i < 1000; i++) {
+            bloomFilter.put("token" + i);
+        }
+
+        //RESULTS
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertTrue(bloomFilter.mightContain("token" + i)); //mai falsi negativi
+        }
+    }
+
+    @Test
+    public void shouldKeepFalsePositiveRateNearConfigured_whenFull() {
+        //PARAMETERS
+        BloomFilter bloomFilter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            bloomFilter.put("revoked" + i);
+        }
+
+        //TEST
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (bloomFilter.mightContain("valid" + i)) {
+                falsePositives++;
+            }
+        }
+
+        //RESULTS
+        Assertions.assertTrue(falsePositives < 300, "false positives: " + falsePositives); //atteso ~100 su 10000
+    }
+
+    @Test
+    public void shouldSizeBitsetFromFalsePositiveRate_whenCreated() {
+        //TEST
+        BloomFilter bloomFilter = new BloomFilter(100000, 0.01);
+
+        //RESULTS
+        Assertions.assertEquals(119816, bloomFilter.sizeInBytes()); //~9.6 bit per elemento
+        Assertions.assertEquals(7, bloomFilter.getHashFunctions());
+    }
+
+    @Test
+    public void shouldThrowException_whenSizingInvalid() {
+        //TEST + RESULTS
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(1000, 1));
+    }
+}
@@ -39,4 +39,29 @@ public class HashUtilTest {
             Assertions.assertThrows(RuntimeException.class, () -> hashUtil.stringToSha1("pswTest"));
         }
     }
+
+    @Test
+    public void shouldStringToSha256_whenAllOk(){
+        //PARAMETERS
+        String token = "tokenTest";
+
+        //TEST
+        String results = hashUtil.stringToSha256(token);
+
+        //RESULTS
+        Assertions.assertNotNull(results);
+        Assertions.assertEquals(44, results.length());
+        Assertions.assertEquals(results, hashUtil.stringToSha256(token));
+    }
+
+    @Test
+    public void shouldThrowException_whenStringToSha256Fails(){
+        //MOCK
+        try(MockedStatic<MessageDigest> md = Mockito.mockStatic(MessageDigest.class)) {
+            md.when(() -> MessageDigest.getInstance("SHA-256"))
+                    .thenThrow(new NoSuchAlgorithmException());
+
+            Assertions.assertThrows(RuntimeException.class, () -> hashUtil.stringToSha256("tokenTest"));
+        }
+    }
 }
@@ -0,0 +1,167 @@
+package com.example.autenticationservice.domain.util;
+
+import com.example.autenticationservice.domain.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PasswordHasherTest {
+
+    private PasswordHasher passwordHasher;
+
+    private HashUtil hashUtil = new HashUtil();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHasher = new PasswordHasher(hashUtil, meterRegistry);
+        //poche iterazioni: qui conta il formato, non il costo
+        ReflectionTestUtils.setField(passwordHasher, "iterations", 1000);
+        ReflectionTestUtils.setField(passwordHasher, "saltBytes", 16);
+        ReflectionTestUtils.setField(passwordHasher, "keyBits", 256);
+        ReflectionTestUtils.setField(passwordHasher, "threads", 2);
+        ReflectionTestUtils.setField(passwordHasher, "queueSize", 4);
+        ReflectionTestUtils.setField(passwordHasher, "timeoutMs", 5000L);
+        passwordHasher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void shouldHashAndMatch_whenAllOk() {
+        //PARAMETERS
+        String password = "pswTest";
+
+        //TEST
+        String result = passwordHasher.hash(password);
+
+        //RESULTS
+        Assertions.assertTrue(result.startsWith(PasswordHasher.PREFIX + "$1000$"));
+        Assertions.assertFalse(passwordHasher.isLegacy(result));
+        Assertions.assertTrue(passwordHasher.matches(password, result));
+        Assertions.assertFalse(passwordHasher.matches("invalidPsw", result));
+    }
+
+    @Test
+    void shouldUseRandomSalt_whenSamePasswordHashedTwice() {
+        //PARAMETERS
+        String password = "pswTest";
+
+        //TEST
+        String first = passwordHasher.hash(password);
+        String second = passwordHasher.hash(password);
+
+        //RESULTS
+        Assertions.assertNotEquals(first, second);
+        Assertions.assertTrue(passwordHasher.matches(password, first));
+        Assertions.assertTrue(passwordHasher.matches(password, second));
+    }
+
+    @Test
+    void shouldMatchWithStoredIterations_whenIterationsChanged() {
+        //PARAMETERS
+        String password = "pswTest";
+        String oldHash = passwordHasher.hash(password);
+        ReflectionTestUtils.setField(passwordHasher, "iterations", 2000);
+
+        //TEST
+        boolean result = passwordHasher.matches(password, oldHash);
+
+        //RESULTS
+        Assertions.assertTrue(result);
+    }
+
+    @Test
+    void shouldMatchLegacySha1_whenPasswordStoredBeforeMigration() {
+        //PARAMETERS
+        String password = "pswTest";
+        String legacyHash = hashUtil.stringToSha1(password);
+
+        //TEST + RESULTS
+        Assertions.assertTrue(passwordHasher.isLegacy(legacyHash));
+        Assertions.assertTrue(passwordHasher.matches(password, legacyHash));
+        Assertions.assertFalse(passwordHasher.matches("invalidPsw", legacyHash));
+    }
+
+    @Test
+    void shouldRunDummyPbkdf2_whenLegacySha1() {
+        //PARAMETERS
+        String legacyHash = hashUtil.stringToSha1("pswTest");
+        passwordHasher.shutdown(); //senza pool il calcolo fittizio non può partire
+
+        //TEST + RESULTS
+        Assertions.assertThrows(ServiceUnavailableException.class, () -> passwordHasher.matches("pswTest", legacyHash));
+    }
+
+    @Test
+    void shouldNotMatch_whenUserNotFound() {
+        //TEST
+        boolean result = passwordHasher.matches("pswTest", null);
+
+        //RESULTS
+        Assertions.assertFalse(result);
+    }
+
+    @Test
+    void shouldHashAllInOrder_whenMorePasswordsThanQueue() {
+        //PARAMETERS
+        List<String> passwords = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            passwords.add("pswTest" + i);
+        }
+
+        //TEST
+        List<String> result = passwordHasher.hashAll(passwords);
+
+        //RESULTS
+        Assertions.assertEquals(20, result.size());
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertTrue(passwordHasher.matches("pswTest" + i, result.get(i)));
+        }
+        Assertions.assertEquals(0, meterRegistry.get("password.hash.rejected").counter().count());
+    }
+
+    @Test
+    void shouldThrowServiceUnavailableException_whenExecutorRejects() {
+        //PARAMETERS
+        passwordHasher.shutdown();
+
+        //TEST + RESULTS
+        Assertions.assertThrows(ServiceUnavailableException.class, () -> passwordHasher.hash("pswTest"));
+        Assertions.assertEquals(1, meterRegistry.get("password.hash.rejected").counter().count());
+    }
+
+    @Test
+    void shouldThrowServiceUnavailableException_whenHashingTimesOut() {
+        //PARAMETERS
+        ReflectionTestUtils.setField(passwordHasher, "iterations", 5_000_000);
+        ReflectionTestUtils.setField(passwordHasher, "timeoutMs", 1L);
+
+        //TEST + RESULTS
+        Assertions.assertThrows(ServiceUnavailableException.class, () -> passwordHasher.hash("pswTest"));
+    }
+
+    @Test
+    void shouldNeedRehash_whenLegacyOrIterationsChanged() {
+        //PARAMETERS
+        String currentHash = passwordHasher.hash("pswTest");
+        String legacyHash = hashUtil.stringToSha1("pswTest");
+
+        //TEST + RESULTS
+        Assertions.assertFalse(passwordHasher.needsRehash(currentHash));
+        Assertions.assertTrue(passwordHasher.needsRehash(legacyHash));
+        ReflectionTestUtils.setField(passwordHasher, "iterations", 2000);
+        Assertions.assertTrue(passwordHasher.needsRehash(currentHash));
+    }
+}
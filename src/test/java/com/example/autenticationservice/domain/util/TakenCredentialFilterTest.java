@@ -0,0 +1,187 @@
+package com.example.autenticationservice.domain.util;
+
+import com.example.autenticationservice.domain.repository.UserServiceRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TakenCredentialFilterTest {
+
+    @Mock
+    private UserServiceRepo userServiceRepo;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TakenCredentialFilter takenCredentialFilter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        takenCredentialFilter = new TakenCredentialFilter(userServiceRepo, meterRegistry);
+        ReflectionTestUtils.setField(takenCredentialFilter, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(takenCredentialFilter, "falsePositiveRate", 0.01);
+
+        doReturn(2L).when(userServiceRepo).countUsers();
+        doAnswer(invocation -> {
+            List.of("anna", "bruno").forEach(invocation.<Consumer<String>>getArgument(0));
+            return null;
+        }).when(userServiceRepo).forEachUsername(any(Consumer.class));
+        doAnswer(invocation -> {
+            List.of("anna@test.it", "bruno@test.it").forEach(invocation.<Consumer<String>>getArgument(0));
+            return null;
+        }).when(userServiceRepo).forEachEmail(any(Consumer.class));
+        takenCredentialFilter.init();
+    }
+
+    @Test
+    void shouldAnswerWithoutDatabase_whenUsernameNotInFilter() {
+        //TEST
+        boolean result = takenCredentialFilter.isUsernameTaken("zeno");
+
+        //RESULTS
+        Assertions.assertFalse(result);
+        verify(userServiceRepo, never()).isUsernameTaken(anyString());
+        Assertions.assertEquals(1, checks("negative"));
+    }
+
+    @Test
+    void shouldConfirmWithDatabase_whenUsernameMightBeTaken() {
+        //MOCK
+        doReturn(true).when(userServiceRepo).isUsernameTaken("anna");
+
+        //TEST
+        boolean result = takenCredentialFilter.isUsernameTaken("anna");
+
+        //RESULTS
+        Assertions.assertTrue(result);
+        Assertions.assertEquals(1, checks("true_positive"));
+    }
+
+    @Test
+    void shouldCountFalsePositive_whenDatabaseDoesNotConfirm() {
+        //MOCK
+        doReturn(false).when(userServiceRepo).isEmailTaken("bruno@test.it");
+
+        //TEST
+        boolean result = takenCredentialFilter.isEmailTaken("bruno@test.it");
+
+        //RESULTS
+        Assertions.assertFalse(result);
+        Assertions.assertEquals(1, checks("false_positive"));
+    }
+
+    @Test
+    void shouldSeeNewUser_whenAddedAfterRegister() {
+        //PARAMETERS
+        takenCredentialFilter.add("carla", "carla@test.it");
+
+        //MOCK
+        doReturn(true).when(userServiceRepo).isUsernameTaken("carla");
+        doReturn(true).when(userServiceRepo).isEmailTaken("carla@test.it");
+
+        //TEST + RESULTS
+        Assertions.assertTrue(takenCredentialFilter.isUsernameTaken("carla"));
+        Assertions.assertTrue(takenCredentialFilter.isEmailTaken("carla@test.it"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepUserRegisteredDuringRebuild() {
+        //MOCK
+        //la registrazione arriva mentre si leggono gli username, dopo che il cursore ha superato "carla"
+        doAnswer(invocation -> {
+            Consumer<String> action = invocation.getArgument(0);
+            action.accept("anna");
+            takenCredentialFilter.add("carla", "carla@test.it");
+            action.accept("bruno");
+            return null;
+        }).when(userServiceRepo).forEachUsername(any(Consumer.class));
+        doReturn(true).when(userServiceRepo).isUsernameTaken("carla");
+
+        //TEST
+        takenCredentialFilter.rebuild();
+
+        //RESULTS
+        Assertions.assertTrue(takenCredentialFilter.isUsernameTaken("carla"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepEveryUserRegistered_whenRebuildsRunConcurrently() throws InterruptedException {
+        //PARAMETERS
+        //utenti già committati a db: la registrazione scrive qui e poi chiama add, come register
+        Queue<String> committed = new ConcurrentLinkedQueue<>();
+        int registrations = 2000;
+
+        //MOCK
+        doAnswer(invocation -> {
+            committed.forEach(invocation.<Consumer<String>>getArgument(0));
+            return null;
+        }).when(userServiceRepo).forEachUsername(any(Consumer.class));
+        doReturn(true).when(userServiceRepo).isUsernameTaken(anyString());
+
+        //TEST
+        Thread register = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < registrations; i++) {
+                committed.add("user" + i);
+                takenCredentialFilter.add("user" + i, "user" + i + "@test.it");
+            }
+        });
+        while (register.isAlive()) {
+            takenCredentialFilter.rebuild();
+        }
+        register.join();
+
+        //RESULTS
+        for (int i = 0; i < registrations; i++) {
+            Assertions.assertTrue(takenCredentialFilter.isUsernameTaken("user" + i), "user" + i);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSkipRebuild_whenAnotherRebuildIsRunning() throws InterruptedException {
+        //MOCK
+        //una seconda ricostruzione da un altro thread parte mentre la prima sta leggendo gli username
+        doAnswer(invocation -> {
+            Thread concurrent = Thread.ofVirtual().start(takenCredentialFilter::rebuild);
+            concurrent.join();
+            List.of("anna", "bruno").forEach(invocation.<Consumer<String>>getArgument(0));
+            return null;
+        }).when(userServiceRepo).forEachUsername(any(Consumer.class));
+
+        //TEST
+        takenCredentialFilter.rebuild();
+
+        //RESULTS
+        verify(userServiceRepo, times(2)).countUsers(); //init + la prima ricostruzione, la seconda è stata saltata
+        verify(userServiceRepo, times(2)).forEachUsername(any(Consumer.class));
+    }
+
+    @Test
+    void shouldExposeFilterMemory() {
+        //TEST
+        double bytes = meterRegistry.get("users.credential.filter.bytes").gauge().value();
+
+        //RESULTS
+        Assertions.assertTrue(bytes > 0);
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("users.credential.filter.checks").tag("result", result).counter().count();
+    }
+}
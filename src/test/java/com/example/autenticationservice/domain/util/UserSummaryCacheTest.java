@@ -0,0 +1,110 @@
+package com.example.autenticationservice.domain.util;
+
+import com.example.autenticationservice.domain.model.UserSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class UserSummaryCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UserSummaryCache userSummaryCache;
+
+    private final UserSummary summary = UserSummary.builder()
+            .id(1)
+            .username("usernameTest")
+            .email("emailTest")
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userSummaryCache = new UserSummaryCache(meterRegistry);
+        ReflectionTestUtils.setField(userSummaryCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(userSummaryCache, "ttlMs", 600000L);
+        userSummaryCache.init();
+    }
+
+    @Test
+    void shouldLoadOnce_whenSameUsernameRequestedTwice() {
+        //PARAMETERS
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, Optional<UserSummary>> loader = username -> {
+            loads.incrementAndGet();
+            return Optional.of(summary);
+        };
+
+        //TEST
+        Optional<UserSummary> first = userSummaryCache.get("usernameTest", loader);
+        Optional<UserSummary> second = userSummaryCache.get("usernameTest", loader);
+
+        //RESULTS
+        Assertions.assertEquals(Optional.of(summary), first);
+        Assertions.assertEquals(Optional.of(summary), second);
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "userSummaryCache").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void shouldNotCacheMissingUser() {
+        //PARAMETERS
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, Optional<UserSummary>> loader = username -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        };
+
+        //TEST
+        userSummaryCache.get("usernameTest", loader);
+        Optional<UserSummary> result = userSummaryCache.get("usernameTest", loader);
+
+        //RESULTS
+        Assertions.assertTrue(result.isEmpty());
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldReload_whenInvalidated() {
+        //PARAMETERS
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, Optional<UserSummary>> loader = username -> {
+            loads.incrementAndGet();
+            return Optional.of(summary);
+        };
+        userSummaryCache.get("usernameTest", loader);
+
+        //TEST
+        userSummaryCache.invalidate("usernameTest");
+        userSummaryCache.get("usernameTest", loader);
+
+        //RESULTS
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldReload_whenTtlExpired() throws InterruptedException {
+        //PARAMETERS
+        ReflectionTestUtils.setField(userSummaryCache, "ttlMs", 1L);
+        userSummaryCache.init();
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, Optional<UserSummary>> loader = username -> {
+            loads.incrementAndGet();
+            return Optional.of(summary);
+        };
+        userSummaryCache.get("usernameTest", loader);
+
+        //TEST
+        Thread.sleep(20);
+        userSummaryCache.get("usernameTest", loader);
+
+        //RESULTS
+        Assertions.assertEquals(2, loads.get());
+    }
+}
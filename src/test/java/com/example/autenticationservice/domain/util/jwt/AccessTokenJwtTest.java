@@ -1,19 +1,21 @@
 package com.example.autenticationservice.domain.util.jwt;
+import com.example.autenticationservice.domain.model.verifyToken.VerifiedToken;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
+import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
 public class AccessTokenJwtTest {
 
-    @InjectMocks
     private AccessTokenJwt accessTokenJwt;
 
     private String jwtSecret = "testSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecret";
@@ -21,7 +23,12 @@ public class AccessTokenJwtTest {
 
     @BeforeEach
     public void setUp() {
-        ReflectionTestUtils.setField(accessTokenJwt, "jwtSecret", jwtSecret);
+        JwtKeyProvider jwtKeyProvider = new JwtKeyProvider(new JwtKeyRingProperties());
+        ReflectionTestUtils.setField(jwtKeyProvider, "jwtSecret", jwtSecret);
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessSigningAlgorithm", "HS512");
+        jwtKeyProvider.init();
+
+        accessTokenJwt = new AccessTokenJwt(jwtKeyProvider);
         ReflectionTestUtils.setField(accessTokenJwt, "jwtAccessExpireMs", jwtAccessExpireMs);
     }
 
@@ -118,4 +125,87 @@ public class AccessTokenJwtTest {
         Assertions.assertFalse(result.isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldVerifyAccessToken_whenAllOk() {
+        //PARAMETERS
+        String token = accessTokenJwt.generateToken("usernameTest");
+
+        //TEST
+        Optional<VerifiedToken> result = accessTokenJwt.verify(token);
+
+        //RESULTS
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals("usernameTest", result.get().getUsername());
+        Assertions.assertTrue(result.get().getExpiresAt() > System.currentTimeMillis());
+    }
+
+    @Test
+    public void shouldVerifyLegacyAccessToken_whenSignedWithoutKidAndType() {
+        //PARAMETERS
+        //firmato come prima della rotazione delle chiavi: niente kid nell'header, niente typ, chiave da jwtSecret
+        String legacyToken = Jwts.builder()
+                .setSubject("usernameTest")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtAccessExpireMs))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)), SignatureAlgorithm.HS512)
+                .compact();
+
+        //TEST
+        Optional<VerifiedToken> result = accessTokenJwt.verify(legacyToken);
+
+        //RESULTS
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals("usernameTest", result.get().getUsername());
+    }
+
+    @Test
+    public void shouldReturnEmpty_whenVerifyInvalidToken() {
+        //PARAMETERS
+        String invalidToken = "header.payload.signature";
+
+        //TEST
+        Optional<VerifiedToken> result = accessTokenJwt.verify(invalidToken);
+
+        //RESULTS
+        Assertions.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void shouldThrowExpiredJwtException_whenVerifyExpiredToken() {
+        //PARAMETERS
+        String expiredToken = Jwts.builder()
+                .setSubject("usernameTest")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() - jwtAccessExpireMs)) //scaduto
+                .signWith(accessTokenJwt.key(), SignatureAlgorithm.HS512)
+                .compact();
+
+        //TEST + RESULTS
+        Assertions.assertThrows(ExpiredJwtException.class, () -> accessTokenJwt.verify(expiredToken));
+    }
+
+    @Test
+    public void shouldGenerateAndVerifyAccessToken_whenEs256() {
+        //PARAMETERS
+        JwtKeyProvider ecKeyProvider = new JwtKeyProvider(new JwtKeyRingProperties());
+        ReflectionTestUtils.setField(ecKeyProvider, "jwtSecret", jwtSecret);
+        ReflectionTestUtils.setField(ecKeyProvider, "accessSigningAlgorithm", "ES256");
+        ReflectionTestUtils.setField(ecKeyProvider, "accessPrivateKey", "");
+        ReflectionTestUtils.setField(ecKeyProvider, "accessPublicKey", "");
+        ReflectionTestUtils.setField(ecKeyProvider, "accessKeyId", "access-key");
+        ecKeyProvider.init();
+        AccessTokenJwt ecAccessTokenJwt = new AccessTokenJwt(ecKeyProvider);
+        ReflectionTestUtils.setField(ecAccessTokenJwt, "jwtAccessExpireMs", jwtAccessExpireMs);
+
+        //TEST
+        String token = ecAccessTokenJwt.generateToken("usernameTest");
+        Optional<VerifiedToken> result = ecAccessTokenJwt.verify(token);
+        Optional<VerifiedToken> hmacResult = accessTokenJwt.verify(token);
+
+        //RESULTS
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals("usernameTest", result.get().getUsername());
+        Assertions.assertTrue(hmacResult.isEmpty()); //firmato ES256, non verificabile con la chiave HS512
+    }
+
+}
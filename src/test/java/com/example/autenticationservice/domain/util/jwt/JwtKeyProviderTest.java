@@ -0,0 +1,193 @@
+package com.example.autenticationservice.domain.util.jwt;
+
+import com.example.autenticationservice.domain.model.jwks.JsonWebKey;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtKeyProviderTest {
+
+    private JwtKeyProvider jwtKeyProvider;
+    private JwtKeyRingProperties jwtKeyRingProperties;
+
+    private String jwtSecret = "testSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecret";
+    private String rotatedSecret = "rotatedSecretrotatedSecretrotatedSecretrotatedSecretrotatedSecretrotatedSecretrotatedSecretrotatedSecretrotatedSecretrotatedSecret";
+    private Instant rotatedActiveFrom = Instant.parse("2030-01-01T00:00:00Z");
+    private long keyGraceMs = 604800000;
+
+    @BeforeEach
+    public void setUp() {
+        jwtKeyRingProperties = new JwtKeyRingProperties();
+        jwtKeyProvider = new JwtKeyProvider(jwtKeyRingProperties);
+        ReflectionTestUtils.setField(jwtKeyProvider, "jwtSecret", jwtSecret);
+        ReflectionTestUtils.setField(jwtKeyProvider, "keyGraceMs", keyGraceMs);
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessSigningAlgorithm", "HS512");
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessPrivateKey", "");
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessPublicKey", "");
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessKeyId", "access-key");
+    }
+
+    private void addRotatedKey() {
+        JwtKeyRingProperties.JwtKeyProperties key = new JwtKeyRingProperties.JwtKeyProperties();
+        key.setKid("rotated");
+        key.setSecret(rotatedSecret);
+        key.setActiveFrom(rotatedActiveFrom.toString());
+        jwtKeyRingProperties.getJwtKeys().add(key);
+    }
+
+    @Test
+    public void shouldReuseKeyRing_whenCalledTwice() {
+        //TEST
+        jwtKeyProvider.init();
+        JwtKeyRing first = jwtKeyProvider.getAccessKeyRing();
+        JwtKeyRing second = jwtKeyProvider.getAccessKeyRing();
+
+        //RESULTS
+        Assertions.assertNotNull(first.getCurrent().getSigningKey());
+        Assertions.assertNotNull(first.getParser());
+        Assertions.assertEquals(JwtKeyProvider.DEFAULT_KEY_ID, first.getCurrent().getKeyId());
+        Assertions.assertSame(first, second);
+        Assertions.assertSame(first, jwtKeyProvider.getRefreshKeyRing());
+    }
+
+    @Test
+    public void shouldPublishFutureKeyForVerification_whenNotYetActive() {
+        //PARAMETERS
+        addRotatedKey();
+
+        //TEST
+        jwtKeyProvider.init();
+        jwtKeyProvider.rotateKeys(rotatedActiveFrom.minusSeconds(1));
+        JwtKeyRing result = jwtKeyProvider.getRefreshKeyRing();
+
+        //RESULTS
+        Assertions.assertEquals(JwtKeyProvider.DEFAULT_KEY_ID, result.getCurrent().getKeyId());
+        Assertions.assertEquals(2, result.getKeys().size());
+        Assertions.assertNotNull(result.resolveVerificationKey("rotated"));
+    }
+
+    @Test
+    public void shouldSignWithNewKeyAndKeepOldOne_whenRotatedWithinGrace() {
+        //PARAMETERS
+        addRotatedKey();
+        jwtKeyProvider.init();
+
+        //TEST
+        jwtKeyProvider.rotateKeys(rotatedActiveFrom.plusSeconds(1));
+        JwtKeyRing result = jwtKeyProvider.getRefreshKeyRing();
+
+        //RESULTS
+        Assertions.assertEquals("rotated", result.getCurrent().getKeyId());
+        Assertions.assertEquals(2, result.getKeys().size());
+        Assertions.assertNotNull(result.getLegacy());
+        Assertions.assertSame(result, jwtKeyProvider.getAccessKeyRing());
+    }
+
+    @Test
+    public void shouldDropOldKey_whenGraceExpired() {
+        //PARAMETERS
+        addRotatedKey();
+        jwtKeyProvider.init();
+
+        //TEST
+        jwtKeyProvider.rotateKeys(rotatedActiveFrom.plusMillis(keyGraceMs + 1));
+        JwtKeyRing result = jwtKeyProvider.getRefreshKeyRing();
+
+        //RESULTS
+        Assertions.assertEquals("rotated", result.getCurrent().getKeyId());
+        Assertions.assertEquals(1, result.getKeys().size());
+        Assertions.assertNull(result.getLegacy());
+    }
+
+    @Test
+    public void shouldNotRebuildKeyRing_whenNothingChanged() {
+        //PARAMETERS
+        addRotatedKey();
+        jwtKeyProvider.init();
+        jwtKeyProvider.rotateKeys(rotatedActiveFrom.plusSeconds(1));
+        JwtKeyRing before = jwtKeyProvider.getRefreshKeyRing();
+
+        //TEST
+        jwtKeyProvider.rotateKeys(rotatedActiveFrom.plusSeconds(2));
+
+        //RESULTS
+        Assertions.assertSame(before, jwtKeyProvider.getRefreshKeyRing());
+    }
+
+    @Test
+    public void shouldThrowException_whenDuplicateKeyId() {
+        //PARAMETERS
+        JwtKeyRingProperties.JwtKeyProperties key = new JwtKeyRingProperties.JwtKeyProperties();
+        key.setKid(JwtKeyProvider.DEFAULT_KEY_ID);
+        key.setSecret(rotatedSecret);
+        key.setActiveFrom(rotatedActiveFrom.toString());
+        jwtKeyRingProperties.getJwtKeys().add(key);
+
+        //TEST + RESULTS
+        Assertions.assertThrows(IllegalStateException.class, () -> jwtKeyProvider.init());
+    }
+
+    @Test
+    public void shouldReturnNoPublicKeys_whenHmac() {
+        //TEST
+        jwtKeyProvider.init();
+        List<JsonWebKey> result = jwtKeyProvider.getPublicJsonWebKeys();
+
+        //RESULTS
+        Assertions.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void shouldUseEllipticCurveForAccessToken_whenEs256() {
+        //PARAMETERS
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessSigningAlgorithm", "ES256");
+
+        //TEST
+        jwtKeyProvider.init();
+        JwtKeyMaterial accessKeyMaterial = jwtKeyProvider.getAccessKeyRing().getCurrent();
+        List<JsonWebKey> result = jwtKeyProvider.getPublicJsonWebKeys();
+
+        //RESULTS
+        Assertions.assertEquals(SignatureAlgorithm.ES256, accessKeyMaterial.getAlgorithm());
+        Assertions.assertEquals(SignatureAlgorithm.HS512, jwtKeyProvider.getRefreshKeyRing().getCurrent().getAlgorithm());
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals("EC", result.get(0).getKty());
+        Assertions.assertEquals("P-256", result.get(0).getCrv());
+        Assertions.assertEquals("access-key", result.get(0).getKid());
+        Assertions.assertEquals("ES256", result.get(0).getAlg());
+        Assertions.assertEquals(43, result.get(0).getX().length()); //32 byte in base64url senza padding
+    }
+
+    @Test
+    public void shouldKeepEllipticCurve_whenHmacRotated() {
+        //PARAMETERS
+        addRotatedKey();
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessSigningAlgorithm", "ES256");
+        jwtKeyProvider.init();
+        JwtKeyRing before = jwtKeyProvider.getAccessKeyRing();
+
+        //TEST
+        jwtKeyProvider.rotateKeys(rotatedActiveFrom.plusSeconds(1));
+
+        //RESULTS
+        Assertions.assertSame(before, jwtKeyProvider.getAccessKeyRing());
+        Assertions.assertEquals("rotated", jwtKeyProvider.getRefreshKeyRing().getCurrent().getKeyId());
+    }
+
+    @Test
+    public void shouldThrowException_whenAlgorithmNotSupported() {
+        //PARAMETERS
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessSigningAlgorithm", "HS256");
+
+        //TEST + RESULTS
+        Assertions.assertThrows(IllegalStateException.class, () -> jwtKeyProvider.init());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.autenticationservice.domain.util.jwt;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.security.Key;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtKeyRingTest {
+
+    private JwtKeyMaterial legacyKey;
+    private JwtKeyMaterial currentKey;
+
+    @BeforeEach
+    public void setUp() {
+        legacyKey = hmacKey(JwtKeyProvider.DEFAULT_KEY_ID);
+        currentKey = hmacKey("current");
+    }
+
+    private JwtKeyMaterial hmacKey(String kid) {
+        Key key = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+        return JwtKeyMaterial.builder()
+                .keyId(kid)
+                .algorithm(SignatureAlgorithm.HS512)
+                .signingKey(key)
+                .verificationKey(key)
+                .build();
+    }
+
+    private String token(JwtKeyMaterial keyMaterial, String kid) {
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, kid)
+                .setSubject("usernameTest")
+                .signWith(keyMaterial.getSigningKey(), keyMaterial.getAlgorithm())
+                .compact();
+    }
+
+    @Test
+    public void shouldVerifyWithKeySelectedByKid_whenKidKnown() {
+        //PARAMETERS
+        JwtKeyRing jwtKeyRing = new JwtKeyRing(currentKey, legacyKey, List.of(currentKey, legacyKey));
+
+        //TEST
+        String currentSubject = jwtKeyRing.getParser().parseClaimsJws(token(currentKey, "current")).getBody().getSubject();
+        String legacySubject = jwtKeyRing.getParser().parseClaimsJws(token(legacyKey, JwtKeyProvider.DEFAULT_KEY_ID)).getBody().getSubject();
+
+        //RESULTS
+        Assertions.assertEquals("usernameTest", currentSubject);
+        Assertions.assertEquals("usernameTest", legacySubject);
+    }
+
+    @Test
+    public void shouldVerifyWithLegacyKey_whenKidMissing() {
+        //PARAMETERS
+        JwtKeyRing jwtKeyRing = new JwtKeyRing(currentKey, legacyKey, List.of(currentKey, legacyKey));
+
+        //TEST
+        String result = jwtKeyRing.getParser().parseClaimsJws(token(legacyKey, null)).getBody().getSubject();
+
+        //RESULTS
+        Assertions.assertEquals("usernameTest", result);
+    }
+
+    @Test
+    public void shouldThrowSignatureException_whenKidUnknown() {
+        //PARAMETERS
+        JwtKeyRing jwtKeyRing = new JwtKeyRing(currentKey, null, List.of(currentKey));
+        String token = token(legacyKey, JwtKeyProvider.DEFAULT_KEY_ID);
+
+        //TEST + RESULTS
+        Assertions.assertThrows(SignatureException.class, () -> jwtKeyRing.getParser().parseClaimsJws(token));
+    }
+
+    @Test
+    public void shouldThrowSignatureException_whenKidMissingAndNoLegacyKey() {
+        //PARAMETERS
+        JwtKeyRing jwtKeyRing = new JwtKeyRing(currentKey, null, List.of(currentKey));
+        String token = token(currentKey, null);
+
+        //TEST + RESULTS
+        Assertions.assertThrows(SignatureException.class, () -> jwtKeyRing.getParser().parseClaimsJws(token));
+    }
+}
@@ -1,29 +1,38 @@
 package com.example.autenticationservice.domain.util.jwt;
 
+import com.example.autenticationservice.domain.model.verifyToken.VerifiedToken;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
+import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
 public class RefreshTokenJwtTest {
-    @InjectMocks
     private RefreshTokenJwt refreshTokenJwt;
+    private JwtKeyProvider jwtKeyProvider;
 
     private String jwtSecret = "testSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecrettestSecret";
     private int jwtRefreshExpireMs = 300000;
 
     @BeforeEach
     public void setUp() {
-        ReflectionTestUtils.setField(refreshTokenJwt, "jwtSecret", jwtSecret);
+        jwtKeyProvider = new JwtKeyProvider(new JwtKeyRingProperties());
+        ReflectionTestUtils.setField(jwtKeyProvider, "jwtSecret", jwtSecret);
+        ReflectionTestUtils.setField(jwtKeyProvider, "accessSigningAlgorithm", "HS512");
+        jwtKeyProvider.init();
+
+        refreshTokenJwt = new RefreshTokenJwt(jwtKeyProvider);
         ReflectionTestUtils.setField(refreshTokenJwt, "jwtRefreshExpireMs", jwtRefreshExpireMs);
     }
 
@@ -40,6 +49,84 @@ public class RefreshTokenJwtTest {
         Assertions.assertFalse(result.isEmpty());
     }
 
+    @Test
+    public void shouldVerifyRefreshToken_whenAllOk() {
+        //PARAMETERS
+        String token = refreshTokenJwt.generateToken("usernameTest");
+
+        //TEST
+        Optional<VerifiedToken> result = refreshTokenJwt.verify(token);
+
+        //RESULTS
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals("usernameTest", result.get().getUsername());
+    }
+
+    @Test
+    public void shouldReturnEmpty_whenVerifyAccessTokenAsRefreshToken() {
+        //PARAMETERS
+        AccessTokenJwt accessTokenJwt = new AccessTokenJwt(jwtKeyProvider); //con HS512 stesse chiavi del refresh token
+        ReflectionTestUtils.setField(accessTokenJwt, "jwtAccessExpireMs", jwtRefreshExpireMs);
+        String accessToken = accessTokenJwt.generateToken("usernameTest");
+
+        //TEST
+        Optional<VerifiedToken> result = refreshTokenJwt.verify(accessToken);
+
+        //RESULTS
+        Assertions.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void shouldVerifyLegacyToken_whenSignedWithoutKidAndType() {
+        //PARAMETERS
+        //firmato come prima della rotazione delle chiavi: niente kid nell'header, niente typ, chiave da jwtSecret
+        String legacyToken = Jwts.builder()
+                .setSubject("usernameTest")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtRefreshExpireMs))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)), SignatureAlgorithm.HS512)
+                .compact();
+
+        //TEST
+        Optional<VerifiedToken> result = refreshTokenJwt.verify(legacyToken);
+
+        //RESULTS
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals("usernameTest", result.get().getUsername());
+    }
+
+    @Test
+    public void shouldThrowExpiredJwtException_whenLegacyTokenExpired() {
+        //PARAMETERS
+        String expiredLegacyToken = Jwts.builder()
+                .setSubject("usernameTest")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 2L * jwtRefreshExpireMs))
+                .setExpiration(new Date(System.currentTimeMillis() - jwtRefreshExpireMs)) //scaduto
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)), SignatureAlgorithm.HS512)
+                .compact();
+
+        //TEST + RESULTS
+        Assertions.assertThrows(ExpiredJwtException.class, () -> refreshTokenJwt.verify(expiredLegacyToken));
+    }
+
+    @Test
+    public void shouldReturnEmpty_whenVerifyTokenWithKidWithoutType() {
+        //PARAMETERS
+        String untypedToken = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, JwtKeyProvider.DEFAULT_KEY_ID) //emesso dopo la rotazione: il typ è obbligatorio
+                .setSubject("usernameTest")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtRefreshExpireMs))
+                .signWith(refreshTokenJwt.key(), SignatureAlgorithm.HS512)
+                .compact();
+
+        //TEST
+        Optional<VerifiedToken> result = refreshTokenJwt.verify(untypedToken);
+
+        //RESULTS
+        Assertions.assertTrue(result.isEmpty());
+    }
+
     @Test
     public void shouldGetExpirationDate_whenAllOk(){
         //PARAMETERS
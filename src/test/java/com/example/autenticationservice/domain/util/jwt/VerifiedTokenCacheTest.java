@@ -0,0 +1,75 @@
+package com.example.autenticationservice.domain.util.jwt;
+
+import com.example.autenticationservice.domain.model.verifyToken.VerifiedToken;
+import com.example.autenticationservice.domain.util.HashUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+public class VerifiedTokenCacheTest {
+
+    private VerifiedTokenCache verifiedTokenCache;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(new HashUtil(), meterRegistry);
+        ReflectionTestUtils.setField(verifiedTokenCache, "maximumSize", 100L);
+        verifiedTokenCache.init();
+    }
+
+    @Test
+    public void shouldReturnCachedToken_whenPutBefore() {
+        //PARAMETERS
+        String token = "tokenTest";
+        VerifiedToken verifiedToken = VerifiedToken.builder()
+                .username("usernameTest")
+                .expiresAt(System.currentTimeMillis() + 60000)
+                .build();
+
+        //TEST
+        verifiedTokenCache.put(token, verifiedToken);
+        Optional<VerifiedToken> result = verifiedTokenCache.get(token);
+
+        //RESULTS
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals(verifiedToken, result.get());
+        Assertions.assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    public void shouldReturnEmpty_whenTokenNotCached() {
+        //TEST
+        Optional<VerifiedToken> result = verifiedTokenCache.get("tokenTest");
+
+        //RESULTS
+        Assertions.assertTrue(result.isEmpty());
+        Assertions.assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void shouldReturnEmpty_whenTokenExpired() {
+        //PARAMETERS
+        String token = "tokenTest";
+        VerifiedToken verifiedToken = VerifiedToken.builder()
+                .username("usernameTest")
+                .expiresAt(System.currentTimeMillis() - 1000) //scaduto
+                .build();
+
+        //TEST
+        verifiedTokenCache.put(token, verifiedToken);
+        Optional<VerifiedToken> result = verifiedTokenCache.get(token);
+
+        //RESULTS
+        Assertions.assertTrue(result.isEmpty());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.autenticationservice.infrastructure.migration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+//Tabelle come le lasciava la versione con IDENTITY, più le sequence appena create da ddl-auto (da 1, incremento 50)
+public class IdSequenceMigrationTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private IdSequenceMigration idSequenceMigration;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:idSequenceMigration;DB_CLOSE_DELAY=-1", "sa", ""));
+        for (String table : new String[]{"users", "otp", "refresh_token", "email_outbox"}) {
+            jdbcTemplate.execute("CREATE TABLE " + table + " (id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, payload VARCHAR(20))");
+            jdbcTemplate.execute("CREATE SEQUENCE " + table + "_seq START WITH 1 INCREMENT BY 50");
+        }
+        for (int i = 0; i < 120; i++) {
+            jdbcTemplate.update("INSERT INTO otp (payload) VALUES ('otp')");
+        }
+        idSequenceMigration = new IdSequenceMigration(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void shouldRestartSequenceAfterMaxId_whenIdIsIdentity() {
+        //TEST
+        idSequenceMigration.migrate();
+
+        //RESULTS
+        Long next = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR otp_seq", Long.class);
+        Assertions.assertEquals(120 + 50 + 1, next); //il blocco pooled (next - 49 .. next) parte dopo l'id 120
+        Assertions.assertEquals("NO", isIdentity("OTP"));
+        Assertions.assertEquals("NO", isIdentity("USERS"));
+        Assertions.assertEquals("NO", isIdentity("EMAIL_OUTBOX"));
+        Assertions.assertEquals(51, jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR users_seq", Long.class)); //tabella vuota
+    }
+
+    @Test
+    void shouldDoNothing_whenAlreadyMigrated() {
+        //PARAMETERS
+        idSequenceMigration.migrate();
+        jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR otp_seq", Long.class);
+
+        //TEST
+        idSequenceMigration.migrate();
+
+        //RESULTS
+        Assertions.assertEquals(171 + 50, jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR otp_seq", Long.class));
+    }
+
+    private String isIdentity(String table) {
+        return jdbcTemplate.queryForObject(
+                "SELECT IS_IDENTITY FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = ? AND COLUMN_NAME = 'ID'",
+                String.class, table);
+    }
+}
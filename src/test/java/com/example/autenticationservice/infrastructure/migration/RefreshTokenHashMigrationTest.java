@@ -0,0 +1,95 @@
+package com.example.autenticationservice.infrastructure.migration;
+
+import com.example.autenticationservice.domain.util.HashUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenHashMigrationTest {
+    private static final String SELECT = "SELECT id, refresh_token FROM refresh_token WHERE refresh_token IS NOT NULL FETCH FIRST ? ROWS ONLY";
+    private static final String UPDATE = "UPDATE refresh_token SET refresh_token_hash = ?, refresh_token = NULL WHERE id = ?";
+
+    private RefreshTokenHashMigration refreshTokenHashMigration;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private HashUtil hashUtil = new HashUtil();
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenHashMigration = new RefreshTokenHashMigration(jdbcTemplate, hashUtil);
+        ReflectionTestUtils.setField(refreshTokenHashMigration, "batchSize", 2);
+    }
+
+    @Test
+    void shouldSkipMigration_whenLegacyColumnMissing() {
+        //MOCK
+        doReturn(false).when(jdbcTemplate).execute(any(ConnectionCallback.class));
+
+        //TEST
+        refreshTokenHashMigration.migrate();
+
+        //RESULTS
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), anyInt());
+    }
+
+    @Test
+    void shouldHashAndClearLegacyToken_whenRowsPresent() {
+        //PARAMETERS
+        List<RefreshTokenHashMigration.LegacyRefreshToken> firstBatch = List.of(
+                new RefreshTokenHashMigration.LegacyRefreshToken(1, "token1"),
+                new RefreshTokenHashMigration.LegacyRefreshToken(2, "token2"));
+        List<RefreshTokenHashMigration.LegacyRefreshToken> lastBatch = List.of(
+                new RefreshTokenHashMigration.LegacyRefreshToken(3, "token3"));
+
+        //MOCK
+        doReturn(true).when(jdbcTemplate).execute(any(ConnectionCallback.class));
+        doReturn(firstBatch, lastBatch).when(jdbcTemplate).query(eq(SELECT), any(RowMapper.class), eq(2));
+
+        //TEST
+        refreshTokenHashMigration.migrate();
+
+        //RESULTS
+        verify(jdbcTemplate, times(2)).query(eq(SELECT), any(RowMapper.class), eq(2));
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(UPDATE), argThat((List<Object[]> args) ->
+                args.size() == 2 && hashUtil.stringToSha256("token1").equals(args.get(0)[0]) && Integer.valueOf(2).equals(args.get(1)[1])));
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(UPDATE), argThat((List<Object[]> args) ->
+                args.size() == 1 && hashUtil.stringToSha256("token3").equals(args.get(0)[0])));
+    }
+
+    @Test
+    void shouldClearDuplicateWithoutHash_whenDuplicateKey() {
+        //PARAMETERS
+        List<RefreshTokenHashMigration.LegacyRefreshToken> batch = List.of(
+                new RefreshTokenHashMigration.LegacyRefreshToken(1, "sameToken"),
+                new RefreshTokenHashMigration.LegacyRefreshToken(2, "sameToken"));
+        String hash = hashUtil.stringToSha256("sameToken");
+
+        //MOCK
+        doReturn(true).when(jdbcTemplate).execute(any(ConnectionCallback.class));
+        doReturn(batch, List.of()).when(jdbcTemplate).query(eq(SELECT), any(RowMapper.class), eq(2));
+        doThrow(DuplicateKeyException.class).when(jdbcTemplate).batchUpdate(eq(UPDATE), anyList());
+        doReturn(1).when(jdbcTemplate).update(UPDATE, hash, 1);
+        doThrow(DuplicateKeyException.class).when(jdbcTemplate).update(UPDATE, hash, 2);
+
+        //TEST
+        refreshTokenHashMigration.migrate();
+
+        //RESULTS
+        verify(jdbcTemplate, times(1)).update("UPDATE refresh_token SET refresh_token = NULL WHERE id = ?", 2);
+        verify(jdbcTemplate, never()).update("UPDATE refresh_token SET refresh_token = NULL WHERE id = ?", 1);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.autenticationservice.infrastructure.migration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+//Tabella Users come la lasciava la versione con i vincoli univoci senza nome
+public class UserConstraintMigrationTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private UserConstraintMigration userConstraintMigration;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:userConstraintMigration;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE users (id INTEGER PRIMARY KEY, username VARCHAR(20), email VARCHAR(20), "
+                + "CONSTRAINT UKr43af9ap4edm43mmtq01oddj6 UNIQUE (username), CONSTRAINT UK6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email))");
+        userConstraintMigration = new UserConstraintMigration(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void shouldRenameConstraints_whenGeneratedNames() {
+        //TEST
+        userConstraintMigration.migrate();
+
+        //RESULTS
+        Assertions.assertEquals(List.of("UX_USERS_EMAIL", "UX_USERS_USERNAME"), uniqueConstraints());
+    }
+
+    @Test
+    void shouldDropDuplicate_whenNamedConstraintAlreadyAdded() {
+        //PARAMETERS
+        jdbcTemplate.execute("ALTER TABLE users ADD CONSTRAINT UX_USERS_USERNAME UNIQUE (username)");
+
+        //TEST
+        userConstraintMigration.migrate();
+
+        //RESULTS
+        Assertions.assertEquals(List.of("UX_USERS_EMAIL", "UX_USERS_USERNAME"), uniqueConstraints());
+    }
+
+    @Test
+    void shouldDoNothing_whenAlreadyMigrated() {
+        //PARAMETERS
+        userConstraintMigration.migrate();
+
+        //TEST
+        userConstraintMigration.migrate();
+
+        //RESULTS
+        Assertions.assertEquals(List.of("UX_USERS_EMAIL", "UX_USERS_USERNAME"), uniqueConstraints());
+    }
+
+    private List<String> uniqueConstraints() {
+        return jdbcTemplate.queryForList(
+                "SELECT CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+                        + "WHERE TABLE_NAME = 'USERS' AND CONSTRAINT_TYPE = 'UNIQUE' ORDER BY CONSTRAINT_NAME",
+                String.class);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.autenticationservice.infrastructure.repository;
+
+import com.example.autenticationservice.domain.exceptions.CredentialTakenException;
+import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.infrastructure.service.impl.UserServiceRepoImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+//Registrazioni contemporanee con lo stesso username: senza SELECT preventiva decide il vincolo univoco, ne passa una
+//sola e le altre ricevono CredentialTakenException come con il controllo di prima
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:userRegistration;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) //ogni register committa nella sua transazione
+@Import(UserServiceRepoImpl.class)
+public class UserRegistrationConcurrencyTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private UserServiceRepoImpl userServiceRepoImpl;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM Users");
+    }
+
+    @Test
+    void shouldRegisterOnlyOnce_whenSameUsernameConcurrently() throws Exception {
+        //PARAMETERS
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> registrations = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            User user = User.builder()
+                    .name("nameTest")
+                    .username("usernameTest")
+                    .email("email" + i + "@test.it")
+                    .password("pswTest")
+                    .build();
+            registrations.add(executor.submit(() -> {
+                start.await();
+                userServiceRepoImpl.register(user);
+                return null;
+            }));
+        }
+
+        //TEST
+        start.countDown();
+        int registered = 0;
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<?> registration : registrations) {
+            try {
+                registration.get(30, TimeUnit.SECONDS);
+                registered++;
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+        executor.shutdownNow();
+
+        //RESULTS
+        Assertions.assertEquals(1, registered);
+        for (Throwable failure : failures) {
+            Assertions.assertInstanceOf(CredentialTakenException.class, failure);
+            Assertions.assertEquals("Username is already taken", failure.getMessage());
+        }
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM Users WHERE username = 'usernameTest'", Integer.class));
+    }
+
+    @Test
+    void shouldReportEmail_whenEmailTaken() {
+        //PARAMETERS
+        userServiceRepoImpl.register(User.builder()
+                .name("nameTest").username("first").email("same@test.it").password("pswTest").build());
+        User second = User.builder()
+                .name("nameTest").username("second").email("same@test.it").password("pswTest").build();
+
+        //TEST
+        CredentialTakenException exception = Assertions.assertThrows(CredentialTakenException.class,
+                () -> userServiceRepoImpl.register(second));
+
+        //RESULTS
+        Assertions.assertEquals("Email is already taken", exception.getMessage());
+    }
+}
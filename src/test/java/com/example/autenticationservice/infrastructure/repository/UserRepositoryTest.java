@@ -0,0 +1,84 @@
+package com.example.autenticationservice.infrastructure.repository;
+
+import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.model.UserSummary;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+//Query keyset di /username-list su H2: pagine ordinate per username, senza buchi né duplicati tra una pagina e l'altra
+//più le query IN dei duplicati dell'import massivo e la proiezione di UserSummaryCache
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+public class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (String username : List.of("carla", "anna", "elio", "bruno", "dario")) {
+            userRepository.save(User.builder()
+                    .name("nameTest")
+                    .username(username)
+                    .email(username + "@test.it")
+                    .password("pswTest")
+                    .build());
+        }
+    }
+
+    @Test
+    void shouldReturnFirstPageOrderedByUsername() {
+        //TEST
+        List<String> result = userRepository.findUsernames(Limit.of(2));
+
+        //RESULTS
+        Assertions.assertEquals(List.of("anna", "bruno"), result);
+    }
+
+    @Test
+    void shouldWalkAllPages_whenFollowingCursor() {
+        //TEST
+        List<String> all = new ArrayList<>();
+        List<String> page = userRepository.findUsernames(Limit.of(2));
+        while (!page.isEmpty()) {
+            all.addAll(page);
+            page = userRepository.findUsernamesAfter(page.get(page.size() - 1), Limit.of(2));
+        }
+
+        //RESULTS
+        Assertions.assertEquals(List.of("anna", "bruno", "carla", "dario", "elio"), all);
+    }
+
+    @Test
+    void shouldFindOnlyTakenUsernamesAndEmails() {
+        //TEST
+        Set<String> usernames = userRepository.findTakenUsernames(List.of("anna", "zeno", "elio"));
+        Set<String> emails = userRepository.findTakenEmails(List.of("zeno@test.it", "bruno@test.it"));
+
+        //RESULTS
+        Assertions.assertEquals(Set.of("anna", "elio"), usernames);
+        Assertions.assertEquals(Set.of("bruno@test.it"), emails);
+    }
+
+    @Test
+    void shouldFindSummaryByUsername() {
+        //TEST
+        Optional<UserSummary> result = userRepository.findSummaryByUsername("carla");
+        Optional<UserSummary> missing = userRepository.findSummaryByUsername("zeno");
+
+        //RESULTS
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertNotNull(result.get().getId());
+        Assertions.assertEquals("carla", result.get().getUsername());
+        Assertions.assertEquals("carla@test.it", result.get().getEmail());
+        Assertions.assertTrue(missing.isEmpty());
+    }
+}
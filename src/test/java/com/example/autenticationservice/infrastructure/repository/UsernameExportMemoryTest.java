@@ -0,0 +1,68 @@
+package com.example.autenticationservice.infrastructure.repository;
+
+import com.example.autenticationservice.infrastructure.service.impl.UserServiceRepoImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+//L'export NDJSON degli username non tiene in memoria la tabella: con un milione di utenti l'heap usato durante la lettura
+//resta entro pochi MB rispetto a prima (la sola List<String> degli username ne occuperebbe decine)
+//H2 con LAZY_QUERY_EXECUTION legge le righe su richiesta come il cursore di Oracle con fetch size
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:usernameExport;DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) //righe committate, lo stream apre la sua transazione
+@Import(UserServiceRepoImpl.class)
+public class UsernameExportMemoryTest {
+    private static final int ROWS = 1_000_000;
+    private static final long MAX_RETAINED_BYTES = 16L * 1024 * 1024;
+
+    @Autowired
+    private UserServiceRepoImpl userServiceRepoImpl;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldExportAllUsernamesWithBoundedHeap() {
+        //PARAMETERS
+        jdbcTemplate.update("INSERT INTO Users (id, name, username, email, password) "
+                + "SELECT X, 'nameTest', 'user' || X, 'user' || X || '@test.it', 'pswTest' FROM SYSTEM_RANGE(1, " + ROWS + ")");
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long baseline = usedHeapAfterGc(memory);
+        long[] exported = {0};
+        long[] peakRetained = {0};
+
+        //TEST
+        userServiceRepoImpl.forEachUsername(username -> {
+            exported[0]++;
+            if (exported[0] % (ROWS / 4) == 0) {
+                peakRetained[0] = Math.max(peakRetained[0], usedHeapAfterGc(memory) - baseline);
+            }
+        });
+
+        //RESULTS
+        Assertions.assertEquals(ROWS, exported[0]);
+        Assertions.assertTrue(peakRetained[0] < MAX_RETAINED_BYTES,
+                "Heap retained while streaming: " + peakRetained[0] / 1024 + " KB");
+    }
+
+    private long usedHeapAfterGc(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
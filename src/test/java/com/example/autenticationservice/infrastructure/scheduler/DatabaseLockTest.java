@@ -0,0 +1,91 @@
+package com.example.autenticationservice.infrastructure.scheduler;
+
+import com.example.autenticationservice.domain.model.SchedulerLock;
+import com.example.autenticationservice.infrastructure.repository.SchedulerLockRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DatabaseLockTest {
+    @InjectMocks
+    private DatabaseLock databaseLock;
+
+    @Mock
+    private SchedulerLockRepository schedulerLockRepository;
+
+    private String lockName = "lockTest";
+
+    @Test
+    void shouldAcquireLock_whenExpired() {
+        //MOCK
+        doReturn(1).when(schedulerLockRepository).acquire(eq(lockName), anyString(), any(LocalDateTime.class), any(LocalDateTime.class));
+
+        //TEST
+        boolean result = databaseLock.tryAcquire(lockName, Duration.ofMinutes(10));
+
+        //RESULTS
+        Assertions.assertTrue(result);
+        verify(schedulerLockRepository, never()).saveAndFlush(any(SchedulerLock.class));
+    }
+
+    @Test
+    void shouldNotAcquireLock_whenHeldByAnotherInstance() {
+        //MOCK
+        doReturn(0).when(schedulerLockRepository).acquire(eq(lockName), anyString(), any(LocalDateTime.class), any(LocalDateTime.class));
+        doReturn(true).when(schedulerLockRepository).existsById(lockName);
+
+        //TEST
+        boolean result = databaseLock.tryAcquire(lockName, Duration.ofMinutes(10));
+
+        //RESULTS
+        Assertions.assertFalse(result);
+        verify(schedulerLockRepository, never()).saveAndFlush(any(SchedulerLock.class));
+    }
+
+    @Test
+    void shouldCreateLock_whenFirstRun() {
+        //MOCK
+        doReturn(0).when(schedulerLockRepository).acquire(eq(lockName), anyString(), any(LocalDateTime.class), any(LocalDateTime.class));
+        doReturn(false).when(schedulerLockRepository).existsById(lockName);
+
+        //TEST
+        boolean result = databaseLock.tryAcquire(lockName, Duration.ofMinutes(10));
+
+        //RESULTS
+        Assertions.assertTrue(result);
+        verify(schedulerLockRepository, times(1)).saveAndFlush(argThat((SchedulerLock lock) -> lockName.equals(lock.getName())));
+    }
+
+    @Test
+    void shouldNotAcquireLock_whenCreatedConcurrently() {
+        //MOCK
+        doReturn(0).when(schedulerLockRepository).acquire(eq(lockName), anyString(), any(LocalDateTime.class), any(LocalDateTime.class));
+        doReturn(false).when(schedulerLockRepository).existsById(lockName);
+        doThrow(DataIntegrityViolationException.class).when(schedulerLockRepository).saveAndFlush(any(SchedulerLock.class));
+
+        //TEST
+        boolean result = databaseLock.tryAcquire(lockName, Duration.ofMinutes(10));
+
+        //RESULTS
+        Assertions.assertFalse(result);
+    }
+
+    @Test
+    void shouldReleaseLock_whenCalled() {
+        //TEST
+        databaseLock.release(lockName);
+
+        //RESULTS
+        verify(schedulerLockRepository, times(1)).release(eq(lockName), anyString(), any(LocalDateTime.class));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.autenticationservice.infrastructure.scheduler;
+
+import com.example.autenticationservice.application.service.PooledSmtpEmailSender;
+import com.example.autenticationservice.domain.model.EmailOutbox;
+import com.example.autenticationservice.domain.model.EmailOutboxStatus;
+import com.example.autenticationservice.infrastructure.repository.EmailOutboxRepository;
+import com.example.autenticationservice.infrastructure.service.impl.OutboxEmailServiceImpl;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+//Outbox + dispatcher su H2 con un server SMTP locale (GreenMail) al posto di smtp.gmail.com
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.app.emailOutboxPollMs=3600000",
+        "spring.app.emailOutboxMaxAttempts=2",
+        "spring.app.emailOutboxBackoffMs=0"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) //il dispatcher deve vedere le righe già committate
+@Import({OutboxEmailServiceImpl.class, EmailOutboxDispatcher.class, PooledSmtpEmailSender.class, DatabaseLock.class,
+        EmailOutboxDispatcherIntegrationTest.MailConfig.class})
+public class EmailOutboxDispatcherIntegrationTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @TestConfiguration
+    static class MailConfig {
+        @Bean
+        JavaMailSenderImpl javaMailSender() {
+            JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+            javaMailSender.setHost("localhost");
+            javaMailSender.setPort(ServerSetupTest.SMTP.getPort());
+            return javaMailSender;
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        //i job @Scheduled non partono: il dispatch all'avvio girerebbe in parallelo al test e terrebbe il DatabaseLock
+        @Bean
+        TaskScheduler taskScheduler() {
+            return Mockito.mock(TaskScheduler.class);
+        }
+    }
+
+    @Autowired
+    private OutboxEmailServiceImpl outboxEmailServiceImpl;
+
+    @Autowired
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        emailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void shouldDeliverQueuedEmail_whenSmtpAvailable() throws Exception {
+        //PARAMETERS
+        outboxEmailServiceImpl.sendEmail("user@test.it", "Chat4Me - OTP code", "123456");
+
+        //TEST
+        emailOutboxDispatcher.dispatch();
+        emailOutboxDispatcher.refreshGauges();
+
+        //RESULTS
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        Assertions.assertEquals(1, received.length);
+        Assertions.assertEquals("Chat4Me - OTP code", received[0].getSubject());
+        Assertions.assertEquals(0, emailOutboxRepository.count());
+        Assertions.assertEquals(0, meterRegistry.get("email.outbox.pending").gauge().value());
+    }
+
+    @Test
+    void shouldDeadLetterEmail_whenSmtpUnavailable() {
+        //PARAMETERS
+        greenMail.stop();
+        outboxEmailServiceImpl.sendEmail("user@test.it", "Chat4Me - OTP code", "123456");
+
+        try {
+            //TEST
+            emailOutboxDispatcher.dispatch(); //primo tentativo, rimesso in coda
+            EmailOutbox retried = emailOutboxRepository.findAll().get(0);
+            emailOutboxDispatcher.dispatch(); //secondo tentativo, tentativi esauriti
+            emailOutboxDispatcher.refreshGauges();
+
+            //RESULTS
+            List<EmailOutbox> result = emailOutboxRepository.findAll();
+            Assertions.assertEquals(EmailOutboxStatus.PENDING, retried.getStatus());
+            Assertions.assertEquals(1, retried.getAttempts());
+            Assertions.assertEquals(1, result.size());
+            Assertions.assertEquals(EmailOutboxStatus.DEAD, result.get(0).getStatus());
+            Assertions.assertEquals(2, result.get(0).getAttempts());
+            Assertions.assertNotNull(result.get(0).getLastError());
+            Assertions.assertEquals(1, meterRegistry.get("email.outbox.dead").gauge().value());
+        } finally {
+            greenMail.start();
+        }
+    }
+}
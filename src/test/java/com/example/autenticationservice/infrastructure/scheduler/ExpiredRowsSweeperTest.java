@@ -0,0 +1,164 @@
+package com.example.autenticationservice.infrastructure.scheduler;
+
+import com.example.autenticationservice.domain.model.EmailOutboxStatus;
+import com.example.autenticationservice.infrastructure.repository.EmailOutboxRepository;
+import com.example.autenticationservice.infrastructure.repository.OtpRepository;
+import com.example.autenticationservice.infrastructure.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExpiredRowsSweeperTest {
+    private ExpiredRowsSweeper expiredRowsSweeper;
+
+    @Mock
+    private OtpRepository otpRepository;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private DatabaseLock databaseLock;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        expiredRowsSweeper = new ExpiredRowsSweeper(otpRepository, refreshTokenRepository, emailOutboxRepository, databaseLock, meterRegistry);
+        ReflectionTestUtils.setField(expiredRowsSweeper, "retentionMs", 0L);
+        ReflectionTestUtils.setField(expiredRowsSweeper, "otpGraceMs", 300000L);
+        ReflectionTestUtils.setField(expiredRowsSweeper, "deadEmailRetentionMs", 604800000L);
+        ReflectionTestUtils.setField(expiredRowsSweeper, "batchSize", 2);
+        ReflectionTestUtils.setField(expiredRowsSweeper, "maxBatches", 3);
+        ReflectionTestUtils.setField(expiredRowsSweeper, "lockMs", 600000L);
+    }
+
+    @Test
+    void shouldDeleteInBatches_whenLockAcquired() {
+        //MOCK
+        doReturn(true).when(databaseLock).tryAcquire(ExpiredRowsSweeper.LOCK_NAME, Duration.ofMillis(600000));
+        doReturn(List.of(1, 2), List.of(3)).when(otpRepository).findExpiredIds(anyLong(), any(Pageable.class));
+        doReturn(List.of(4)).when(otpRepository).findInvalidatedIds(anyLong(), any(Pageable.class));
+        doReturn(List.of(10)).when(refreshTokenRepository).findPurgeableIds(any(LocalDateTime.class), any(Pageable.class));
+        doReturn(List.of(20)).when(emailOutboxRepository).findPurgeableIds(eq(EmailOutboxStatus.DEAD), anyLong(), any(Pageable.class));
+
+        //TEST
+        expiredRowsSweeper.sweep();
+
+        //RESULTS
+        verify(otpRepository, times(1)).deleteAllByIdInBatch(List.of(1, 2));
+        verify(otpRepository, times(1)).deleteAllByIdInBatch(List.of(3));
+        verify(otpRepository, times(1)).deleteAllByIdInBatch(List.of(4));
+        verify(refreshTokenRepository, times(1)).deleteAllByIdInBatch(List.of(10));
+        verify(emailOutboxRepository, times(1)).deleteAllByIdInBatch(List.of(20));
+        verify(databaseLock, times(1)).release(ExpiredRowsSweeper.LOCK_NAME);
+        Assertions.assertEquals(4, meterRegistry.get("purge.rows").tag("table", "otp").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("purge.rows").tag("table", "refresh_token").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("purge.rows").tag("table", "email_outbox").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("purge.sweep.duration").timer().count());
+    }
+
+    @Test
+    void shouldStopAfterMaxBatches_whenManyRowsExpired() {
+        //MOCK
+        doReturn(true).when(databaseLock).tryAcquire(ExpiredRowsSweeper.LOCK_NAME, Duration.ofMillis(600000));
+        doReturn(List.of(1, 2)).when(otpRepository).findExpiredIds(anyLong(), any(Pageable.class));
+        doReturn(List.of()).when(otpRepository).findInvalidatedIds(anyLong(), any(Pageable.class));
+        doReturn(List.of()).when(refreshTokenRepository).findPurgeableIds(any(LocalDateTime.class), any(Pageable.class));
+        doReturn(List.of()).when(emailOutboxRepository).findPurgeableIds(eq(EmailOutboxStatus.DEAD), anyLong(), any(Pageable.class));
+
+        //TEST
+        expiredRowsSweeper.sweep();
+
+        //RESULTS
+        verify(otpRepository, times(3)).deleteAllByIdInBatch(List.of(1, 2));
+        verify(refreshTokenRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    void shouldSkipSweep_whenLockHeldByAnotherInstance() {
+        //MOCK
+        doReturn(false).when(databaseLock).tryAcquire(ExpiredRowsSweeper.LOCK_NAME, Duration.ofMillis(600000));
+
+        //TEST
+        expiredRowsSweeper.sweep();
+
+        //RESULTS
+        verifyNoInteractions(otpRepository, refreshTokenRepository, emailOutboxRepository);
+        verify(databaseLock, never()).release(ExpiredRowsSweeper.LOCK_NAME);
+    }
+
+    @Test
+    void shouldReleaseLock_whenDeleteFails() {
+        //MOCK
+        doReturn(true).when(databaseLock).tryAcquire(ExpiredRowsSweeper.LOCK_NAME, Duration.ofMillis(600000));
+        doReturn(List.of(1)).when(otpRepository).findExpiredIds(anyLong(), any(Pageable.class));
+        doThrow(RuntimeException.class).when(otpRepository).deleteAllByIdInBatch(List.of(1));
+
+        //TEST + RESULTS
+        Assertions.assertThrows(RuntimeException.class, () -> expiredRowsSweeper.sweep());
+        verify(databaseLock, times(1)).release(ExpiredRowsSweeper.LOCK_NAME);
+    }
+
+    @Test
+    void shouldPurgeDeadEmailsOlderThanRetention() {
+        //PARAMETERS
+        long before = System.currentTimeMillis() - 604800000L;
+
+        //MOCK
+        doReturn(true).when(databaseLock).tryAcquire(ExpiredRowsSweeper.LOCK_NAME, Duration.ofMillis(600000));
+        doReturn(List.of()).when(otpRepository).findExpiredIds(anyLong(), any(Pageable.class));
+        doReturn(List.of()).when(otpRepository).findInvalidatedIds(anyLong(), any(Pageable.class));
+        doReturn(List.of()).when(refreshTokenRepository).findPurgeableIds(any(LocalDateTime.class), any(Pageable.class));
+        doReturn(List.of(7)).when(emailOutboxRepository).findPurgeableIds(eq(EmailOutboxStatus.DEAD), anyLong(), any(Pageable.class));
+
+        //TEST
+        expiredRowsSweeper.sweep();
+
+        //RESULTS
+        verify(emailOutboxRepository, times(1)).findPurgeableIds(eq(EmailOutboxStatus.DEAD),
+                longThat(cutoff -> cutoff >= before && cutoff <= System.currentTimeMillis() - 604800000L), any(Pageable.class));
+        verify(emailOutboxRepository, times(1)).deleteAllByIdInBatch(List.of(7));
+    }
+
+    @Test
+    void shouldKeepRecentlyExpiredOtp_forGracePeriod() {
+        //PARAMETERS
+        long before = System.currentTimeMillis();
+
+        //MOCK
+        doReturn(true).when(databaseLock).tryAcquire(ExpiredRowsSweeper.LOCK_NAME, Duration.ofMillis(600000));
+        doReturn(List.of()).when(otpRepository).findExpiredIds(anyLong(), any(Pageable.class));
+        doReturn(List.of()).when(otpRepository).findInvalidatedIds(anyLong(), any(Pageable.class));
+        doReturn(List.of()).when(refreshTokenRepository).findPurgeableIds(any(LocalDateTime.class), any(Pageable.class));
+        doReturn(List.of()).when(emailOutboxRepository).findPurgeableIds(eq(EmailOutboxStatus.DEAD), anyLong(), any(Pageable.class));
+
+        //TEST
+        expiredRowsSweeper.sweep();
+
+        //RESULTS
+        //gli scaduti solo oltre il margine, gli invalidati subito
+        verify(otpRepository, times(1)).findExpiredIds(
+                longThat(cutoff -> cutoff >= before - 300000L && cutoff <= System.currentTimeMillis() - 300000L), any(Pageable.class));
+        verify(otpRepository, times(1)).findInvalidatedIds(
+                longThat(cutoff -> cutoff >= before && cutoff <= System.currentTimeMillis()), any(Pageable.class));
+        verify(otpRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+}
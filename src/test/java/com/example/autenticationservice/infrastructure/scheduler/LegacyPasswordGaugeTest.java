@@ -0,0 +1,47 @@
+package com.example.autenticationservice.infrastructure.scheduler;
+
+import com.example.autenticationservice.domain.repository.UserServiceRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LegacyPasswordGaugeTest {
+
+    @Mock
+    private UserServiceRepo userServiceRepo;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LegacyPasswordGauge legacyPasswordGauge;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        legacyPasswordGauge = new LegacyPasswordGauge(userServiceRepo, meterRegistry);
+        legacyPasswordGauge.init();
+    }
+
+    @Test
+    void shouldExposeLegacyPasswordCount_whenRefreshed() {
+        //MOCK
+        doReturn(5L, 2L).when(userServiceRepo).countLegacyPasswords();
+
+        //TEST
+        legacyPasswordGauge.refresh();
+        double first = meterRegistry.get("users.password.legacy").gauge().value();
+        legacyPasswordGauge.refresh();
+        double second = meterRegistry.get("users.password.legacy").gauge().value();
+
+        //RESULTS
+        Assertions.assertEquals(5, first);
+        Assertions.assertEquals(2, second);
+        verify(userServiceRepo, times(2)).countLegacyPasswords();
+    }
+}
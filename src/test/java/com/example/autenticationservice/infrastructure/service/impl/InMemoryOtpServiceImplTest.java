@@ -0,0 +1,118 @@
+package com.example.autenticationservice.infrastructure.service.impl;
+
+import com.example.autenticationservice.domain.model.Otp;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+public class InMemoryOtpServiceImplTest {
+    private InMemoryOtpServiceImpl inMemoryOtpServiceImpl;
+
+    @BeforeEach
+    void setUp() {
+        inMemoryOtpServiceImpl = new InMemoryOtpServiceImpl();
+        ReflectionTestUtils.setField(inMemoryOtpServiceImpl, "maximumSize", 1000L);
+        ReflectionTestUtils.setField(inMemoryOtpServiceImpl, "graceMs", 0L);
+        inMemoryOtpServiceImpl.init();
+    }
+
+    private Otp otp(String value, long expiresAt) {
+        return Otp.builder()
+                .otp(value)
+                .sessionId("sessionIdTest")
+                .createdAt(System.currentTimeMillis())
+                .expiresAt(expiresAt)
+                .attempts(0)
+                .valid(true)
+                .build();
+    }
+
+    @Test
+    void shouldGetValidOtp_whenSaved() {
+        //PARAMETERS
+        Otp otp = otp("123456", System.currentTimeMillis() + 60000);
+
+        //TEST
+        inMemoryOtpServiceImpl.saveOtp(otp);
+        Optional<Otp> result = inMemoryOtpServiceImpl.getValidOtpBySessionId("sessionIdTest");
+
+        //RESULTS
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals("123456", result.get().getOtp());
+        Assertions.assertNotSame(otp, result.get());
+    }
+
+    @Test
+    void shouldReturnEmptyOptional_whenSessionUnknown() {
+        //TEST
+        Optional<Otp> result = inMemoryOtpServiceImpl.getValidOtpBySessionId("unknownSession");
+
+        //RESULTS
+        Assertions.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void shouldReturnEmptyOptional_whenExpired() {
+        //PARAMETERS
+        Otp otp = otp("123456", System.currentTimeMillis() - 1);
+
+        //TEST
+        inMemoryOtpServiceImpl.saveOtp(otp);
+        Optional<Otp> result = inMemoryOtpServiceImpl.getValidOtpBySessionId("sessionIdTest");
+
+        //RESULTS
+        Assertions.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void shouldKeepAttempts_whenUpdated() {
+        //PARAMETERS
+        inMemoryOtpServiceImpl.saveOtp(otp("123456", System.currentTimeMillis() + 60000));
+        Otp stored = inMemoryOtpServiceImpl.getValidOtpBySessionId("sessionIdTest").orElseThrow();
+        stored.setAttempts(1);
+
+        //TEST
+        inMemoryOtpServiceImpl.updateOtp(stored);
+        Otp result = inMemoryOtpServiceImpl.getValidOtpBySessionId("sessionIdTest").orElseThrow();
+
+        //RESULTS
+        Assertions.assertEquals(1, result.getAttempts());
+    }
+
+    @Test
+    void shouldRemoveOtp_whenInvalidated() {
+        //PARAMETERS
+        inMemoryOtpServiceImpl.saveOtp(otp("123456", System.currentTimeMillis() + 60000));
+        Otp stored = inMemoryOtpServiceImpl.getValidOtpBySessionId("sessionIdTest").orElseThrow();
+
+        //TEST
+        inMemoryOtpServiceImpl.invalidateOtp(stored);
+
+        //RESULTS
+        Assertions.assertTrue(inMemoryOtpServiceImpl.getValidOtpBySessionId("sessionIdTest").isEmpty());
+        Assertions.assertEquals(0, inMemoryOtpServiceImpl.size());
+    }
+
+    @Test
+    void shouldKeepNewOtp_whenOldOtpInvalidatedAfterResend() {
+        //PARAMETERS
+        Otp oldOtp = otp("111111", System.currentTimeMillis() + 60000);
+        Otp newOtp = otp("222222", System.currentTimeMillis() + 60000);
+        inMemoryOtpServiceImpl.saveOtp(oldOtp);
+        inMemoryOtpServiceImpl.saveOtp(newOtp);
+
+        //TEST
+        inMemoryOtpServiceImpl.invalidateOtp(oldOtp);
+        Optional<Otp> result = inMemoryOtpServiceImpl.getValidOtpBySessionId("sessionIdTest");
+
+        //RESULTS
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals("222222", result.get().getOtp());
+    }
+}
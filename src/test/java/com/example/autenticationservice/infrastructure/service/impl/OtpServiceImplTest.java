@@ -124,16 +124,17 @@ public class OtpServiceImplTest {
     void shouldInvalidateOtp_whenAllOk() {
         //PARAMETERS
         Otp otp = new Otp();
+        otp.setId(1);
         otp.setOtp("123456");
 
         //MOCK
-        doNothing().when(otpRepository).invalidateOtp(otp.getOtp());
+        doNothing().when(otpRepository).invalidateOtp(otp.getId());
 
         //TEST
         otpServiceImpl.invalidateOtp(otp);
 
         //RESULTS
-        verify(otpRepository, times(1)).invalidateOtp(otp.getOtp());
+        verify(otpRepository, times(1)).invalidateOtp(otp.getId());
 
     }
 
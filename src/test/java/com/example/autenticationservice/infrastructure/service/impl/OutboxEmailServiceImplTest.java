@@ -0,0 +1,51 @@
+package com.example.autenticationservice.infrastructure.service.impl;
+
+import com.example.autenticationservice.domain.model.EmailOutbox;
+import com.example.autenticationservice.domain.model.EmailOutboxStatus;
+import com.example.autenticationservice.infrastructure.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxEmailServiceImplTest {
+    @InjectMocks
+    private OutboxEmailServiceImpl outboxEmailServiceImpl;
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Test
+    void shouldQueueEmail_whenAllOk() {
+        //PARAMETERS
+        ArgumentCaptor<EmailOutbox> captor = ArgumentCaptor.forClass(EmailOutbox.class);
+
+        //TEST
+        outboxEmailServiceImpl.sendEmail("toTest", "subjectTest", "bodyTest");
+
+        //RESULTS
+        verify(emailOutboxRepository, times(1)).save(captor.capture());
+        EmailOutbox result = captor.getValue();
+        Assertions.assertEquals("toTest", result.getRecipient());
+        Assertions.assertEquals("subjectTest", result.getSubject());
+        Assertions.assertEquals("bodyTest", result.getBody());
+        Assertions.assertEquals(EmailOutboxStatus.PENDING, result.getStatus());
+        Assertions.assertEquals(0, result.getAttempts());
+        Assertions.assertTrue(result.getNextAttemptAt() <= System.currentTimeMillis());
+    }
+
+    @Test
+    void shouldThrowException_whenSaveFails() {
+        //MOCK
+        doThrow(RuntimeException.class).when(emailOutboxRepository).save(any(EmailOutbox.class));
+
+        //TEST + RESULTS
+        Assertions.assertThrows(RuntimeException.class, () -> outboxEmailServiceImpl.sendEmail("toTest", "subjectTest", "bodyTest"));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.autenticationservice.infrastructure.service.impl;
+
+import com.example.autenticationservice.domain.model.RefreshToken;
+import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.util.HashUtil;
+import com.example.autenticationservice.infrastructure.repository.RefreshTokenRepository;
+import com.example.autenticationservice.infrastructure.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+//R2dbcRefreshTokenServiceImpl sulla tabella refresh_token creata da Hibernate: lo stesso H2 in memoria
+//è aperto da JPA (schema, utenti e scritture) e da R2DBC (findRefreshToken), così le colonne lette a mano sono quelle vere dell'entità
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:refreshTokenR2dbc;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) //le righe scritte da JPA devono essere visibili alla connessione R2DBC
+public class R2dbcRefreshTokenServiceImplTest {
+    private final HashUtil hashUtil = new HashUtil();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private R2dbcRefreshTokenServiceImpl r2dbcRefreshTokenServiceImpl;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .name("nameTest")
+                .username("usernameTest")
+                .email("emailTest")
+                .password("pswTest")
+                .build());
+
+        r2dbcRefreshTokenServiceImpl = new R2dbcRefreshTokenServiceImpl(refreshTokenRepository, hashUtil);
+        ReflectionTestUtils.setField(r2dbcRefreshTokenServiceImpl, "url", "r2dbc:h2:mem:///refreshTokenR2dbc");
+        ReflectionTestUtils.setField(r2dbcRefreshTokenServiceImpl, "username", "sa");
+        ReflectionTestUtils.setField(r2dbcRefreshTokenServiceImpl, "password", "");
+        ReflectionTestUtils.setField(r2dbcRefreshTokenServiceImpl, "poolSize", 2);
+        ReflectionTestUtils.setField(r2dbcRefreshTokenServiceImpl, "timeoutMs", 5000L);
+        r2dbcRefreshTokenServiceImpl.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        r2dbcRefreshTokenServiceImpl.close();
+        jdbcTemplate.update("DELETE FROM refresh_token");
+        jdbcTemplate.update("DELETE FROM Users");
+    }
+
+    @Test
+    void shouldSaveWithJpaAndFindWithR2dbc_whenAllOk() {
+        //PARAMETERS
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        RefreshToken refreshToken = RefreshToken.builder()
+                .user(user)
+                .refreshToken("refreshToken")
+                .createdAt(now)
+                .expireDate(now.plusDays(7))
+                .valid(true)
+                .build();
+
+        //TEST
+        r2dbcRefreshTokenServiceImpl.addRefreshToken(refreshToken);
+        RefreshToken result = r2dbcRefreshTokenServiceImpl.findRefreshToken("refreshToken").block();
+
+        //RESULTS
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(refreshToken.getId(), result.getId());
+        Assertions.assertEquals(user.getId(), result.getUser().getId());
+        Assertions.assertEquals("refreshToken", result.getRefreshToken());
+        Assertions.assertEquals(hashUtil.stringToSha256("refreshToken"), result.getRefreshTokenHash());
+        Assertions.assertEquals(now.plusDays(7), result.getExpireDate());
+        Assertions.assertTrue(result.getValid());
+        Assertions.assertTrue(r2dbcRefreshTokenServiceImpl.getRefreshToken("refreshToken").isPresent());
+    }
+
+    @Test
+    void shouldNotKeepRefreshToken_whenLoginTransactionRollsBack() {
+        //PARAMETERS
+        RefreshToken refreshToken = RefreshToken.builder()
+                .user(user)
+                .refreshToken("refreshToken")
+                .createdAt(LocalDateTime.now())
+                .expireDate(LocalDateTime.now().plusDays(7))
+                .valid(true)
+                .build();
+
+        //TEST
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            r2dbcRefreshTokenServiceImpl.addRefreshToken(refreshToken);
+            status.setRollbackOnly(); //come secondStepLogin che fallisce dopo aver salvato il token
+        });
+
+        //RESULTS
+        Assertions.assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM refresh_token", Integer.class));
+        Assertions.assertFalse(r2dbcRefreshTokenServiceImpl.findRefreshToken("refreshToken").blockOptional().isPresent());
+    }
+
+    @Test
+    void shouldFindNothing_whenRefreshTokenUnknown() {
+        //TEST + RESULTS
+        Assertions.assertFalse(r2dbcRefreshTokenServiceImpl.findRefreshToken("unknown").blockOptional().isPresent());
+        Assertions.assertFalse(r2dbcRefreshTokenServiceImpl.getRefreshToken("unknown").isPresent());
+    }
+
+    @Test
+    void shouldInvalidateRefreshToken_whenAllOk() {
+        //PARAMETERS
+        r2dbcRefreshTokenServiceImpl.addRefreshToken(RefreshToken.builder()
+                .user(user)
+                .refreshToken("refreshToken")
+                .createdAt(LocalDateTime.now())
+                .expireDate(LocalDateTime.now().plusDays(7))
+                .valid(true)
+                .build());
+
+        //TEST
+        r2dbcRefreshTokenServiceImpl.invalidateRefreshToken("refreshToken");
+        RefreshToken result = r2dbcRefreshTokenServiceImpl.findRefreshToken("refreshToken").block();
+
+        //RESULTS
+        Assertions.assertNotNull(result);
+        Assertions.assertFalse(result.getValid());
+    }
+}
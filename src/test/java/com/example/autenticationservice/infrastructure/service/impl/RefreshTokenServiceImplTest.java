@@ -1,13 +1,12 @@
 package com.example.autenticationservice.infrastructure.service.impl;
 
 import com.example.autenticationservice.domain.model.RefreshToken;
+import com.example.autenticationservice.domain.util.HashUtil;
 import com.example.autenticationservice.infrastructure.repository.RefreshTokenRepository;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -17,12 +16,18 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class RefreshTokenServiceImplTest {
-    @InjectMocks
     private RefreshTokenServiceImpl refreshTokenServiceImpl;
 
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
+    private HashUtil hashUtil = new HashUtil();
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenServiceImpl = new RefreshTokenServiceImpl(refreshTokenRepository, hashUtil);
+    }
+
     @Test
     void shouldSaveRefreshToken_whenAllOk() {
         //PARAMETERS
@@ -37,6 +42,7 @@ public class RefreshTokenServiceImplTest {
 
         //RESULTS
         Assertions.assertNotNull(refreshToken);
+        Assertions.assertEquals(hashUtil.stringToSha256("refreshToken"), refreshToken.getRefreshTokenHash());
         verify(refreshTokenRepository, times(1)).save(refreshToken);
     }
 
@@ -59,16 +65,21 @@ public class RefreshTokenServiceImplTest {
     void shouldGetRefreshToken_whenAllOk() {
         //PARAMETERS
         String refreshToken = "refreshToken";
+        RefreshToken storedRefreshToken = RefreshToken.builder()
+                .refreshTokenHash(hashUtil.stringToSha256(refreshToken))
+                .valid(true)
+                .build();
 
         //MOCK
-        doReturn(Optional.of(refreshToken)).when(refreshTokenRepository).findByRefreshToken(refreshToken);
+        doReturn(Optional.of(storedRefreshToken)).when(refreshTokenRepository).findByRefreshTokenHash(hashUtil.stringToSha256(refreshToken));
 
         //TEST
         Optional<RefreshToken> result = refreshTokenServiceImpl.getRefreshToken(refreshToken);
 
         //RESULT
-        Assertions.assertNotNull(result);
-        verify(refreshTokenRepository, times(1)).findByRefreshToken(refreshToken);
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals(refreshToken, result.get().getRefreshToken());
+        verify(refreshTokenRepository, times(1)).findByRefreshTokenHash(hashUtil.stringToSha256(refreshToken));
     }
 
     @Test
@@ -77,14 +88,14 @@ public class RefreshTokenServiceImplTest {
         String refreshToken = "refreshToken";
 
         //MOCK
-        doReturn(Optional.empty()).when(refreshTokenRepository).findByRefreshToken(refreshToken);
+        doReturn(Optional.empty()).when(refreshTokenRepository).findByRefreshTokenHash(hashUtil.stringToSha256(refreshToken));
 
         //TEST
         Optional<RefreshToken> result = refreshTokenServiceImpl.getRefreshToken(refreshToken);
 
         //RESULTS
         Assertions.assertNotNull(result);
-        verify(refreshTokenRepository, times(1)).findByRefreshToken(refreshToken);
+        verify(refreshTokenRepository, times(1)).findByRefreshTokenHash(hashUtil.stringToSha256(refreshToken));
     }
 
     @Test
@@ -93,12 +104,44 @@ public class RefreshTokenServiceImplTest {
         String refreshToken = "refreshToken";
 
         //MOCK
-        doThrow(RuntimeException.class).when(refreshTokenRepository).findByRefreshToken(refreshToken);
+        doThrow(RuntimeException.class).when(refreshTokenRepository).findByRefreshTokenHash(hashUtil.stringToSha256(refreshToken));
 
         //TEST + RESULTS
         Assertions.assertThrows(RuntimeException.class, () -> refreshTokenServiceImpl.getRefreshToken(refreshToken));
 
-        verify(refreshTokenRepository, times(1)).findByRefreshToken(refreshToken);
+        verify(refreshTokenRepository, times(1)).findByRefreshTokenHash(hashUtil.stringToSha256(refreshToken));
+    }
+
+    @Test
+    void shouldFindRefreshToken_whenAllOk() {
+        //PARAMETERS
+        String refreshToken = "refreshToken";
+        RefreshToken storedRefreshToken = RefreshToken.builder()
+                .refreshTokenHash(hashUtil.stringToSha256(refreshToken))
+                .valid(true)
+                .build();
+
+        //MOCK
+        doReturn(Optional.of(storedRefreshToken)).when(refreshTokenRepository).findByRefreshTokenHash(hashUtil.stringToSha256(refreshToken));
+
+        //TEST
+        RefreshToken result = refreshTokenServiceImpl.findRefreshToken(refreshToken).block();
+
+        //RESULTS
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(refreshToken, result.getRefreshToken());
+    }
+
+    @Test
+    void shouldFindNothing_whenNoRefreshTokenFound() {
+        //PARAMETERS
+        String refreshToken = "refreshToken";
+
+        //MOCK
+        doReturn(Optional.empty()).when(refreshTokenRepository).findByRefreshTokenHash(hashUtil.stringToSha256(refreshToken));
+
+        //TEST + RESULTS
+        Assertions.assertFalse(refreshTokenServiceImpl.findRefreshToken(refreshToken).blockOptional().isPresent());
     }
 
     @Test
@@ -107,13 +150,13 @@ public class RefreshTokenServiceImplTest {
         String refreshToken = "refreshToken";
 
         //MOCK
-        doNothing().when(refreshTokenRepository).invalidateRefreshToken(refreshToken);
+        doNothing().when(refreshTokenRepository).invalidateRefreshToken(hashUtil.stringToSha256(refreshToken));
 
         //TEST
         refreshTokenServiceImpl.invalidateRefreshToken(refreshToken);
 
         //RESULTS
-        verify(refreshTokenRepository, times(1)).invalidateRefreshToken(refreshToken);
+        verify(refreshTokenRepository, times(1)).invalidateRefreshToken(hashUtil.stringToSha256(refreshToken));
     }
 
     @Test
@@ -122,12 +165,12 @@ public class RefreshTokenServiceImplTest {
         String refreshToken = "refreshToken";
 
         //MOCK
-        doThrow(RuntimeException.class).when(refreshTokenRepository).invalidateRefreshToken(refreshToken);
+        doThrow(RuntimeException.class).when(refreshTokenRepository).invalidateRefreshToken(hashUtil.stringToSha256(refreshToken));
 
 
         //TEST + RESULTS
         Assertions.assertThrows(RuntimeException.class, () -> refreshTokenServiceImpl.invalidateRefreshToken(refreshToken));
 
-        verify(refreshTokenRepository, times(1)).invalidateRefreshToken(refreshToken);
+        verify(refreshTokenRepository, times(1)).invalidateRefreshToken(hashUtil.stringToSha256(refreshToken));
     }
 }
@@ -2,18 +2,27 @@ package com.example.autenticationservice.infrastructure.service.impl;
 
 import com.example.autenticationservice.domain.exceptions.CredentialTakenException;
 import com.example.autenticationservice.domain.model.User;
+import com.example.autenticationservice.domain.model.UserSummary;
 import com.example.autenticationservice.infrastructure.repository.UserRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionTimedOutException;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.mockito.Mockito.*;
 
@@ -44,6 +53,22 @@ public class UserServiceRepoImplTest {
         verify(userRepository, times(1)).findByUsername("testuser");
     }
 
+    @Test
+    void shouldGetUserSummaryByUsername_whenIsAllOk(){
+        //PARAMETERS
+        UserSummary summary = UserSummary.builder().id(1).username("testuser").email("testemail").build();
+
+        //MOCK
+        doReturn(Optional.of(summary)).when(userRepository).findSummaryByUsername("testuser");
+
+        //TEST
+        Optional<UserSummary> result = userServiceRepoImpl.getUserSummaryByUsername("testuser");
+
+        //RESULTS
+        Assertions.assertEquals(Optional.of(summary), result);
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
     @Test
     void shouldReturnEmptyOptional_whenUserNotFound(){
         //PARAMETERS
@@ -73,100 +98,113 @@ public class UserServiceRepoImplTest {
     }
 
     @Test
-    void shouldGetUserByUsernameAndPassword_whenIsAllOk(){
+    void shouldReturnFirstPageOfUsernames_whenNoCursor(){
         //PARAMETERS
-        User user = new User();
-        user.setUsername("testuser");
-        user.setPassword("password");
+        List<String> usernames = List.of("usernameTest1", "usernameTest2");
 
         //MOCK
-        doReturn(Optional.of(user)).when(userRepository).findByUsernameAndPassword("testuser", "password");
+        doReturn(usernames).when(userRepository).findUsernames(Limit.of(3));
 
         //TEST
-        Optional<User> foundUser = userServiceRepoImpl.getUserByUsernameAndPassword("testuser", "password");
+        List<String> result = userServiceRepoImpl.getUsernames(null, 3);
 
-        //RESULTS
-        Assertions.assertTrue(foundUser.isPresent());
-        Assertions.assertEquals("testuser", foundUser.get().getUsername());
-        Assertions.assertEquals("password", foundUser.get().getPassword());
-        verify(userRepository, times(1)).findByUsernameAndPassword("testuser", "password");
+        //RESULT
+        Assertions.assertEquals(usernames, result);
+        verify(userRepository, times(1)).findUsernames(Limit.of(3));
+        verify(userRepository, never()).findUsernamesAfter(anyString(), any(Limit.class));
     }
 
     @Test
-    void shouldReturnEmptyOptional_whenUserNotFoundAndPassword(){
+    void shouldReturnNextPageOfUsernames_whenCursorSet(){
         //PARAMETERS
-        User user = new User();
-        user.setUsername("testuser");
-        user.setPassword("password");
+        List<String> usernames = List.of("usernameTest3");
 
         //MOCK
-        doReturn(Optional.empty()).when(userRepository).findByUsernameAndPassword("testuser", "password");
+        doReturn(usernames).when(userRepository).findUsernamesAfter("usernameTest2", Limit.of(3));
 
         //TEST
-        Optional<User> foundUser = userServiceRepoImpl.getUserByUsernameAndPassword("testuser", "password");
+        List<String> result = userServiceRepoImpl.getUsernames("usernameTest2", 3);
 
-        //RESULTS
-        Assertions.assertFalse(foundUser.isPresent());
-        verify(userRepository, times(1)).findByUsernameAndPassword("testuser", "password");
+        //RESULT
+        Assertions.assertEquals(usernames, result);
+        verify(userRepository, never()).findUsernames(any(Limit.class));
     }
 
     @Test
-    void shouldThrowException_whenFailsToFindUserByUsernameAndPassword() { //simula un errore del database
+    void shouldReturnEmptyList_whenUserNotFound(){
         //MOCK
-        doThrow(RuntimeException.class).when(userRepository).findByUsernameAndPassword("testuser", "password");
+        doReturn(Collections.emptyList()).when(userRepository).findUsernames(Limit.of(3));
 
-        //TEST + RESULT
-        Assertions.assertThrows(RuntimeException.class, () -> userServiceRepoImpl.getUserByUsernameAndPassword("testuser", "password"));
+        //TEST
+        List<String> result = userServiceRepoImpl.getUsernames(null, 3);
 
-        verify(userRepository, times(1)).findByUsernameAndPassword("testuser", "password");
+        //RESULTS
+        Assertions.assertNotNull(result);
+        Assertions.assertTrue(result.isEmpty());
     }
 
     @Test
-    void shouldReturnListOfUsers_whenIsAllOk(){
-        //PARAMETERS
-        List<User> userList = new ArrayList<>();
-        User user = new User();
-        user.setUsername("testuser");
-        userList.add(user);
-
+    void shouldThrowException_whenFailsToFindUsernames() { //simula un errore del database
         //MOCK
-        doReturn(List.of(user)).when(userRepository).findAll();
-
-        //TEST
-        List<User> userListTest = userServiceRepoImpl.getUserList();
+        doThrow(RuntimeException.class).when(userRepository).findUsernames(any(Limit.class));
 
-        //RESULT
-        Assertions.assertNotNull(userListTest);
-        Assertions.assertEquals(userList.size(), userListTest.size());
-        verify(userRepository, times(1)).findAll();
+        // TEST + RESULT
+        Assertions.assertThrows(RuntimeException.class, () -> userServiceRepoImpl.getUsernames(null, 3));
     }
 
     @Test
-    void shouldReturnEmptyList_whenUserNotFound(){
+    void shouldPassEveryUsernameAndCloseStream_whenForEachUsername(){
         //PARAMETERS
-        List<User> userList = new ArrayList<>();
+        boolean[] closed = {false};
+        Stream<String> usernames = Stream.of("usernameTest1", "usernameTest2").onClose(() -> closed[0] = true);
+        List<String> result = new ArrayList<>();
 
         //MOCK
-        doReturn(Collections.emptyList()).when(userRepository).findAll();
+        doReturn(usernames).when(userRepository).streamUsernames();
 
         //TEST
-        List<User> userListTest = userServiceRepoImpl.getUserList();
+        userServiceRepoImpl.forEachUsername(result::add);
 
         //RESULTS
-        Assertions.assertNotNull(userListTest);
-        Assertions.assertEquals(userList.size(), userListTest.size());
-        verify(userRepository, times(1)).findAll();
+        Assertions.assertEquals(List.of("usernameTest1", "usernameTest2"), result);
+        Assertions.assertTrue(closed[0]); //cursore JDBC rilasciato
     }
 
     @Test
-    void shouldThrowException_whenFailsToFindAllUsers() { //simula un errore del database
+    void shouldStopAndCloseStream_whenStreamTimeoutExceeded(){
+        //PARAMETERS
+        ReflectionTestUtils.setField(userServiceRepoImpl, "streamTimeoutSeconds", 1);
+        boolean[] closed = {false};
+        Stream<String> usernames = Stream.of("usernameTest1", "usernameTest2").onClose(() -> closed[0] = true);
+        List<String> result = new ArrayList<>();
+
         //MOCK
-        doThrow(RuntimeException.class).when(userRepository).findAll();
+        doReturn(usernames).when(userRepository).streamUsernames();
+
+        //TEST + RESULTS
+        //client lento: la prima riga richiede più del limite, la seconda non viene più letta
+        Assertions.assertThrows(TransactionTimedOutException.class, () -> userServiceRepoImpl.forEachUsername(username -> {
+            result.add(username);
+            sleep(1100);
+        }));
+        Assertions.assertEquals(List.of("usernameTest1"), result);
+        Assertions.assertTrue(closed[0]);
+    }
 
-        // TEST + RESULT
-        Assertions.assertThrows(RuntimeException.class, () -> userServiceRepoImpl.getUserList());
+    @Test
+    void shouldCloseStream_whenActionFails(){
+        //PARAMETERS
+        boolean[] closed = {false};
+        Stream<String> usernames = Stream.of("usernameTest1").onClose(() -> closed[0] = true);
 
-        verify(userRepository, times(1)).findAll();
+        //MOCK
+        doReturn(usernames).when(userRepository).streamUsernames();
+
+        //TEST + RESULTS
+        Assertions.assertThrows(RuntimeException.class, () -> userServiceRepoImpl.forEachUsername(username -> {
+            throw new RuntimeException("client disconnected");
+        }));
+        Assertions.assertTrue(closed[0]);
     }
 
     @Test
@@ -177,84 +215,74 @@ public class UserServiceRepoImplTest {
         user.setEmail("testemail");
 
         //MOCK
-        doReturn(Optional.empty()).when(userRepository).findByUsername("testuser");
-        doReturn(Optional.empty()).when(userRepository).findByEmail("testemail");
-//        doNothing().when(userRepository).save(user); non va bene
-        doReturn(null).when(userRepository).save(user);
+        doReturn(user).when(userRepository).saveAndFlush(user);
 
         //TEST
         userServiceRepoImpl.register(user);
 
         //RESULTS
-        verify(userRepository, times(1)).findByUsername("testuser");
-        verify(userRepository, times(1)).findByEmail("testemail");
-        verify(userRepository, times(1)).save(user);
+        verify(userRepository, times(1)).saveAndFlush(user);
+        verify(userRepository, never()).findByUsername(anyString());
     }
 
     @Test
-    void shouldThrowException_whenUserameAndEmailExist(){
+    void shouldThrowException_whenUsernameExist(){
         //PARAMETERS
         User user = new User();
         user.setUsername("testuser");
         user.setEmail("testemail");
 
         //MOCK
-        doReturn(Optional.of(user)).when(userRepository).findByUsername("testuser");
-        doReturn(Optional.of(user)).when(userRepository).findByEmail("testemail");
+        doThrow(uniqueViolation("PUBLIC.UX_USERS_USERNAME_INDEX_4")).when(userRepository).saveAndFlush(user);
 
         //TEST
-        Assertions.assertThrows(CredentialTakenException.class, () -> {
+        CredentialTakenException exception = Assertions.assertThrows(CredentialTakenException.class, () -> {
             userServiceRepoImpl.register(user);
         });
 
-        //VERIFY
-        verify(userRepository, times(1)).findByUsername("testuser");
-        verify(userRepository, times(1)).findByEmail("testemail");
-        verify(userRepository, never()).save(user);
+        //RESULTS
+        Assertions.assertEquals("Username is already taken", exception.getMessage());
+        verify(userRepository, times(1)).saveAndFlush(user);
     }
 
     @Test
-    void shouldThrowException_whenUsernameExist(){
+    void shouldThrowException_whenEmailExist(){
         //PARAMETERS
         User user = new User();
         user.setUsername("testuser");
         user.setEmail("testemail");
 
         //MOCK
-        doReturn(Optional.of(user)).when(userRepository).findByUsername("testuser");
-        doReturn(Optional.empty()).when(userRepository).findByEmail("testemail");
+        doThrow(uniqueViolation("CHAT4ME.UX_USERS_EMAIL")).when(userRepository).saveAndFlush(user);
 
         //TEST
-        Assertions.assertThrows(CredentialTakenException.class, () -> {
+        CredentialTakenException exception = Assertions.assertThrows(CredentialTakenException.class, () -> {
             userServiceRepoImpl.register(user);
         });
 
-        //VERIFY
-        verify(userRepository, times(1)).findByUsername("testuser");
-        verify(userRepository, times(1)).findByEmail("testemail");
-        verify(userRepository, never()).save(user);
+        //RESULTS
+        Assertions.assertEquals("Email is already taken", exception.getMessage());
+        verify(userRepository, times(1)).saveAndFlush(user);
     }
 
     @Test
-    void shouldThrowException_whenEmailExist(){
+    void shouldRethrowException_whenOtherConstraintViolated(){
         //PARAMETERS
         User user = new User();
         user.setUsername("testuser");
         user.setEmail("testemail");
+        DataIntegrityViolationException violation = uniqueViolation("SYS_C0012345");
 
         //MOCK
-        doReturn(Optional.empty()).when(userRepository).findByUsername("testuser");
-        doReturn(Optional.of(user)).when(userRepository).findByEmail("testemail");
+        doThrow(violation).when(userRepository).saveAndFlush(user);
 
         //TEST
-        Assertions.assertThrows(CredentialTakenException.class, () -> {
+        DataIntegrityViolationException exception = Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
             userServiceRepoImpl.register(user);
         });
 
-        //VERIFY
-        verify(userRepository, times(1)).findByUsername("testuser");
-        verify(userRepository, times(1)).findByEmail("testemail");
-        verify(userRepository, never()).save(user);
+        //RESULTS
+        Assertions.assertSame(violation, exception);
     }
 
     @Test
@@ -265,15 +293,132 @@ public class UserServiceRepoImplTest {
         user.setEmail("testemail");
 
         //MOCK
-        doReturn(Optional.empty()).when(userRepository).findByUsername("testuser");
-        doReturn(Optional.empty()).when(userRepository).findByEmail("testemail");
-        doThrow(new RuntimeException("DB error")).when(userRepository).save(user);
+        doThrow(new RuntimeException("DB error")).when(userRepository).saveAndFlush(user);
 
         //TEST + RESULT
         Assertions.assertThrows(RuntimeException.class, () -> userServiceRepoImpl.register(user));
 
-        verify(userRepository, times(1)).findByUsername("testuser");
-        verify(userRepository, times(1)).findByEmail("testemail");
-        verify(userRepository, times(1)).save(user);
+        verify(userRepository, times(1)).saveAndFlush(user);
+    }
+
+    @Test
+    void shouldRegisterAllUsers_whenIsAllOk() {
+        //PARAMETERS
+        List<User> users = List.of(
+                User.builder().username("testuser1").email("testemail1").build(),
+                User.builder().username("testuser2").email("testemail2").build());
+
+        //MOCK
+        doReturn(users).when(userRepository).saveAll(users);
+
+        //TEST
+        userServiceRepoImpl.registerAll(users);
+
+        //RESULTS
+        verify(userRepository, times(1)).saveAll(users);
+        verify(userRepository, times(1)).flush();
+    }
+
+    @Test
+    void shouldThrowException_whenRegisterAllHitsTakenUsername() {
+        //PARAMETERS
+        List<User> users = List.of(User.builder().username("testuser1").email("testemail1").build());
+
+        //MOCK
+        doReturn(users).when(userRepository).saveAll(users);
+        doThrow(uniqueViolation("PUBLIC.UX_USERS_USERNAME_INDEX_4")).when(userRepository).flush();
+
+        //TEST
+        CredentialTakenException exception = Assertions.assertThrows(CredentialTakenException.class,
+                () -> userServiceRepoImpl.registerAll(users));
+
+        //RESULTS
+        Assertions.assertEquals("Username is already taken", exception.getMessage());
+    }
+
+    @Test
+    void shouldGetTakenUsernames_whenIsAllOk() {
+        //MOCK
+        doReturn(Set.of("testuser1")).when(userRepository).findTakenUsernames(List.of("testuser1", "testuser2"));
+
+        //TEST
+        Set<String> result = userServiceRepoImpl.getTakenUsernames(List.of("testuser1", "testuser2"));
+
+        //RESULTS
+        Assertions.assertEquals(Set.of("testuser1"), result);
+    }
+
+    @Test
+    void shouldNotQuery_whenNoEmailsToCheck() {
+        //TEST
+        Set<String> result = userServiceRepoImpl.getTakenEmails(List.of());
+
+        //RESULTS
+        Assertions.assertTrue(result.isEmpty());
+        verify(userRepository, never()).findTakenEmails(anyCollection());
+    }
+
+    @Test
+    void shouldCheckUsernameAndEmail_whenIsAllOk() {
+        //MOCK
+        doReturn(true).when(userRepository).existsByUsername("testuser");
+        doReturn(false).when(userRepository).existsByEmail("testemail");
+        doReturn(2L).when(userRepository).count();
+
+        //TEST + RESULTS
+        Assertions.assertTrue(userServiceRepoImpl.isUsernameTaken("testuser"));
+        Assertions.assertFalse(userServiceRepoImpl.isEmailTaken("testemail"));
+        Assertions.assertEquals(2L, userServiceRepoImpl.countUsers());
+    }
+
+    @Test
+    void shouldPassEveryEmail_whenForEachEmail() {
+        //PARAMETERS
+        List<String> emails = new ArrayList<>();
+
+        //MOCK
+        doReturn(Stream.of("testemail1", "testemail2")).when(userRepository).streamEmails();
+
+        //TEST
+        userServiceRepoImpl.forEachEmail(emails::add);
+
+        //RESULTS
+        Assertions.assertEquals(List.of("testemail1", "testemail2"), emails);
+    }
+
+    //come la traduce HibernateJpaDialect: DataIntegrityViolationException con causa la ConstraintViolationException di Hibernate
+    private DataIntegrityViolationException uniqueViolation(String constraintName) {
+        ConstraintViolationException cause = new ConstraintViolationException(
+                "could not execute statement", new SQLException("unique constraint violated"), constraintName);
+        return new DataIntegrityViolationException(cause.getMessage(), cause);
+    }
+
+    @Test
+    void shouldUpdatePassword_whenIsAllOk() {
+        //TEST
+        userServiceRepoImpl.updatePassword(1, "pswHashTest");
+
+        //RESULTS
+        verify(userRepository, times(1)).updatePassword(1, "pswHashTest");
+    }
+
+    @Test
+    void shouldCountLegacyPasswords_whenIsAllOk() {
+        //MOCK
+        doReturn(3L).when(userRepository).countByPasswordNotLike("pbkdf2_sha256$%");
+
+        //TEST
+        long result = userServiceRepoImpl.countLegacyPasswords();
+
+        //RESULTS
+        Assertions.assertEquals(3L, result);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 }